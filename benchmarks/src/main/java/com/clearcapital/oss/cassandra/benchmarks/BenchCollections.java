@@ -0,0 +1,29 @@
+package com.clearcapital.oss.cassandra.benchmarks;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A model for the collection codecs.
+ */
+public class BenchCollections {
+
+    public Collection<BenchItem> items;
+    public Collection<BenchStatus> statuses;
+    public Map<Long, String> attributes;
+
+    public static class BenchItem {
+
+        public String foo;
+        public String bar;
+
+        public BenchItem() {
+        }
+
+        public BenchItem(String foo, String bar) {
+            this.foo = foo;
+            this.bar = bar;
+        }
+    }
+
+}
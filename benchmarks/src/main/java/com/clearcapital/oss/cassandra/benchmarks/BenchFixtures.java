@@ -0,0 +1,64 @@
+package com.clearcapital.oss.cassandra.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.clearcapital.oss.cassandra.ColumnDefinition;
+import com.clearcapital.oss.cassandra.TableDescriptor;
+import com.clearcapital.oss.cassandra.configuration.MultiRingConfiguration;
+import com.clearcapital.oss.cassandra.configuration.RingConfiguration;
+import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.StubRows;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Shared setup. The {@link MultiRingClientManager} points at a ring which need not exist: none of the benchmarks
+ * connect to it.
+ */
+public class BenchFixtures {
+
+    public static final String GROUP = "benchmarks";
+
+    public static MultiRingClientManager multiRingClientManager() throws Exception {
+        RingConfiguration ring = RingConfiguration.builder().setHosts(ImmutableList.of("127.0.0.1"))
+                .setKeyspace(StubRows.KEYSPACE).build();
+        MultiRingConfiguration configuration = MultiRingConfiguration.builder()
+                .setRings(ImmutableMap.of(GROUP, ring)).setDefaultRing(GROUP).build();
+        return new MultiRingClientManager(configuration);
+    }
+
+    public static BenchTable table(String columns, MultiRingClientManager manager) {
+        switch (columns) {
+        case "narrow":
+            return new NarrowBenchTable(manager);
+        case "wide":
+            return new WideBenchTable(manager);
+        case "json":
+            return new JsonBenchTable(manager);
+        default:
+            throw new IllegalArgumentException("Unknown table: " + columns);
+        }
+    }
+
+    /**
+     * The row {@code table} would read back after writing {@code model}: every column, in declaration order.
+     */
+    public static Row row(BenchTable table, BenchModel model) throws Exception {
+        Map<String, Object> fields = table.fields(model);
+        TableDescriptor descriptor = table.getDescriptor();
+        List<String> names = new ArrayList<>();
+        List<DataType> types = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        for (ColumnDefinition column : descriptor.getColumnDefinitions()) {
+            names.add(column.getColumnName());
+            types.add(column.getDataType());
+            values.add(fields.get(column.getColumnName()));
+        }
+        return StubRows.row(descriptor.getTableName(), names, types, values);
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.clearcapital.oss.cassandra.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A model in the style of the tests' DemoModel, with enough fields for {@link WideBenchTable}.
+ */
+public class BenchModel {
+
+    public Long id;
+    public Long updateId;
+    public String name;
+    public String description;
+    public String category;
+    public String owner;
+    public String region;
+    public Date createdAt;
+    public Date updatedAt;
+    public Double price;
+    public Integer quantity;
+    public Boolean active;
+    public Double score;
+    public Long version;
+    public List<String> tags;
+    public Set<String> labels;
+
+    /**
+     * A fully populated model whose collections hold {@code collectionSize} elements each.
+     */
+    public static BenchModel sample(long id, int collectionSize) {
+        BenchModel result = new BenchModel();
+        result.id = id;
+        result.updateId = id * 31;
+        result.name = "name-" + id;
+        result.description = "A moderately long description of benchmark record number " + id;
+        result.category = "category-" + (id % 10);
+        result.owner = "owner-" + (id % 100);
+        result.region = "us-west";
+        result.createdAt = new Date(1450000000000L + id);
+        result.updatedAt = new Date(1460000000000L + id);
+        result.price = 19.99 + id;
+        result.quantity = (int) (id % 1000);
+        result.active = id % 2 == 0;
+        result.score = 0.5 * id;
+        result.version = 7L;
+        result.tags = new ArrayList<>();
+        result.labels = new HashSet<>();
+        for (int index = 0; index < collectionSize; ++index) {
+            result.tags.add("tag-" + index);
+            result.labels.add("label-" + index);
+        }
+        return result;
+    }
+
+}
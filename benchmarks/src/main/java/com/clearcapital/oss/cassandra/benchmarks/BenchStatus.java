@@ -0,0 +1,5 @@
+package com.clearcapital.oss.cassandra.benchmarks;
+
+public enum BenchStatus {
+    NEW, ACTIVE, SUSPENDED, CLOSED
+}
@@ -0,0 +1,24 @@
+package com.clearcapital.oss.cassandra.benchmarks;
+
+import java.util.Map;
+
+import com.clearcapital.oss.cassandra.TableDescriptor;
+import com.clearcapital.oss.cassandra.exceptions.CassandraDeserializationException;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.clearcapital.oss.java.exceptions.ReflectionPathException;
+import com.clearcapital.oss.java.exceptions.SerializingException;
+import com.datastax.driver.core.Row;
+
+/**
+ * What the benchmarks need from a table; {@code fields()} exposes the protected
+ * {@link com.clearcapital.oss.cassandra.CassandraTableImpl} encoding path.
+ */
+public interface BenchTable {
+
+    TableDescriptor getDescriptor() throws AssertException;
+
+    BenchModel deserializeRow(Row row) throws CassandraDeserializationException;
+
+    Map<String, Object> fields(BenchModel model)
+            throws AssertException, ReflectionPathException, SerializingException;
+}
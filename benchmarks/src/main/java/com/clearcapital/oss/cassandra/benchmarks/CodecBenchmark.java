@@ -0,0 +1,114 @@
+package com.clearcapital.oss.cassandra.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.clearcapital.oss.cassandra.benchmarks.BenchCollections.BenchItem;
+import com.clearcapital.oss.cassandra.codecs.CollectionCodec;
+import com.clearcapital.oss.cassandra.codecs.CollectionEnumCodec;
+import com.clearcapital.oss.cassandra.codecs.MapCodec;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The column codecs, over collections of {@code size} elements. MapCodec has no way to set its reflection path, so its
+ * static encode/decode are measured instead of encodeColumn/decodeColumn.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+    private static final String MAP_PREFIX = "attr_";
+
+    @Param({ "1", "10", "100" })
+    public int size;
+
+    private CollectionCodec collectionCodec;
+    private CollectionEnumCodec<BenchStatus> enumCodec;
+    private BenchCollections model;
+    private Object encodedItems;
+    private Object encodedStatuses;
+    private Map<String, String> encodedAttributes;
+
+    @Setup
+    public void setup() throws Exception {
+        collectionCodec = CollectionCodec.builder().setReflectionPath(ImmutableList.of("items"))
+                .setCassandraColumnName("items").setModelClass(BenchItem.class).build();
+        enumCodec = CollectionEnumCodec.<BenchStatus> builder().setReflectionPath(ImmutableList.of("statuses"))
+                .setCassandraColumnName("statuses").setModelClass(BenchStatus.class).build();
+
+        model = new BenchCollections();
+        model.items = new ArrayList<>();
+        model.statuses = new ArrayList<>();
+        model.attributes = new HashMap<>();
+        BenchStatus[] statuses = BenchStatus.values();
+        for (int index = 0; index < size; ++index) {
+            model.items.add(new BenchItem("foo-" + index, "bar-" + index));
+            model.statuses.add(statuses[index % statuses.length]);
+            model.attributes.put((long) index, "value-" + index);
+        }
+
+        Map<String, Object> encoded = new HashMap<>();
+        collectionCodec.encodeColumn(encoded, model);
+        enumCodec.encodeColumn(encoded, model);
+        encodedItems = encoded.get("items");
+        encodedStatuses = encoded.get("statuses");
+        encodedAttributes = MapCodec.encode(model.attributes, MAP_PREFIX);
+    }
+
+    @Benchmark
+    public Map<String, Object> collectionEncode() throws Exception {
+        Map<String, Object> result = new HashMap<>();
+        collectionCodec.encodeColumn(result, model);
+        return result;
+    }
+
+    @Benchmark
+    public BenchCollections collectionDecode() throws Exception {
+        BenchCollections result = new BenchCollections();
+        collectionCodec.decodeColumn(result, encodedItems);
+        return result;
+    }
+
+    @Benchmark
+    public Map<String, Object> enumCollectionEncode() throws Exception {
+        Map<String, Object> result = new HashMap<>();
+        enumCodec.encodeColumn(result, model);
+        return result;
+    }
+
+    @Benchmark
+    public BenchCollections enumCollectionDecode() throws Exception {
+        BenchCollections result = new BenchCollections();
+        enumCodec.decodeColumn(result, encodedStatuses);
+        return result;
+    }
+
+    @Benchmark
+    public Map<String, String> mapEncode() {
+        return MapCodec.encode(model.attributes, MAP_PREFIX);
+    }
+
+    @Benchmark
+    public Map<Long, String> mapDecode() throws Exception {
+        return MapCodec.<Long, String> decode(encodedAttributes, MAP_PREFIX, Long.class);
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.clearcapital.oss.cassandra.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-model cost of {@code CassandraTableImpl.getFields()}, the map-based encoding path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FieldEncodingBenchmark {
+
+    @Param({ "narrow", "wide" })
+    public String columns;
+
+    @Param({ "0", "10", "100" })
+    public int collectionSize;
+
+    private BenchTable table;
+    private BenchModel model;
+
+    @Setup
+    public void setup() throws Exception {
+        table = BenchFixtures.table(columns, BenchFixtures.multiRingClientManager());
+        model = BenchModel.sample(42L, collectionSize);
+    }
+
+    @Benchmark
+    public Map<String, Object> getFields() throws Exception {
+        return table.fields(model);
+    }
+
+}
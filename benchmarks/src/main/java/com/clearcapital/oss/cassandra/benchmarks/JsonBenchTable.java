@@ -0,0 +1,45 @@
+package com.clearcapital.oss.cassandra.benchmarks;
+
+import java.util.Map;
+
+import com.clearcapital.oss.cassandra.CassandraTableImpl;
+import com.clearcapital.oss.cassandra.ColumnDefinition.ColumnOption;
+import com.clearcapital.oss.cassandra.annotations.CassandraDataType;
+import com.clearcapital.oss.cassandra.annotations.CassandraTable;
+import com.clearcapital.oss.cassandra.annotations.Column;
+import com.clearcapital.oss.cassandra.annotations.JsonColumnInfo;
+import com.clearcapital.oss.cassandra.annotations.ReflectionColumnInfo;
+import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.clearcapital.oss.java.exceptions.ReflectionPathException;
+import com.clearcapital.oss.java.exceptions.SerializingException;
+
+/**
+ * An {id, json} table, the model serialized whole into the json column.
+ */
+@CassandraTable( // @formatter:off
+        multiRingGroup = BenchFixtures.GROUP,
+        tableName = "bench_json",
+        modelClass = BenchModel.class,
+        columns = {
+                @Column(cassandraName = "id",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "id" },
+                        dataType = CassandraDataType.BIGINT,
+                        columnOption = ColumnOption.PARTITION_KEY)),
+                @Column(cassandraName = JsonBenchTable.JSON_COLUMN,
+                        jsonColumnInfo = @JsonColumnInfo(model = BenchModel.class)) }) // @formatter:on
+public class JsonBenchTable extends CassandraTableImpl<JsonBenchTable, BenchModel>
+        implements BenchTable {
+
+    public static final String JSON_COLUMN = "json";
+
+    public JsonBenchTable(MultiRingClientManager multiRingClientManager) {
+        super(multiRingClientManager);
+    }
+
+    @Override
+    public Map<String, Object> fields(BenchModel model)
+            throws AssertException, ReflectionPathException, SerializingException {
+        return getFields(model);
+    }
+}
@@ -0,0 +1,56 @@
+package com.clearcapital.oss.cassandra.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.clearcapital.oss.cassandra.JsonColumnDefinition;
+
+/**
+ * {@link JsonColumnDefinition} decoding and encoding of a whole {@link BenchModel}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonColumnBenchmark {
+
+    @Param({ "0", "10", "100" })
+    public int collectionSize;
+
+    private JsonColumnDefinition column;
+    private BenchModel model;
+    private String json;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchTable table = BenchFixtures.table("json", BenchFixtures.multiRingClientManager());
+        column = (JsonColumnDefinition) table.getDescriptor().getColumnDefinitionMap()
+                .get(JsonBenchTable.JSON_COLUMN);
+        model = BenchModel.sample(42L, collectionSize);
+        json = column.encodeValue(model);
+    }
+
+    @Benchmark
+    public BenchModel decode() throws Exception {
+        return column.<BenchModel> decodeValue(json);
+    }
+
+    @Benchmark
+    public String encode() throws Exception {
+        return column.encodeValue(model);
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.clearcapital.oss.cassandra.benchmarks;
+
+import java.util.Map;
+
+import com.clearcapital.oss.cassandra.CassandraTableImpl;
+import com.clearcapital.oss.cassandra.ColumnDefinition.ColumnOption;
+import com.clearcapital.oss.cassandra.annotations.CassandraDataType;
+import com.clearcapital.oss.cassandra.annotations.CassandraTable;
+import com.clearcapital.oss.cassandra.annotations.Column;
+import com.clearcapital.oss.cassandra.annotations.ReflectionColumnInfo;
+import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.clearcapital.oss.java.exceptions.ReflectionPathException;
+import com.clearcapital.oss.java.exceptions.SerializingException;
+
+/**
+ * Four reflection columns, including one collection.
+ */
+@CassandraTable( // @formatter:off
+        multiRingGroup = BenchFixtures.GROUP,
+        tableName = "bench_narrow",
+        modelClass = BenchModel.class,
+        columns = {
+                @Column(cassandraName = "id",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "id" },
+                        dataType = CassandraDataType.BIGINT,
+                        columnOption = ColumnOption.PARTITION_KEY)),
+                @Column(cassandraName = "updateid",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "updateId" },
+                        dataType = CassandraDataType.BIGINT,
+                        columnOption = ColumnOption.CLUSTERING_KEY_DESC)),
+                @Column(cassandraName = "name",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "name" },
+                        dataType = CassandraDataType.TEXT)),
+                @Column(cassandraName = "tags",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "tags" },
+                        dataType = CassandraDataType.LIST_TEXT)) }) // @formatter:on
+public class NarrowBenchTable extends CassandraTableImpl<NarrowBenchTable, BenchModel>
+        implements BenchTable {
+
+    public NarrowBenchTable(MultiRingClientManager multiRingClientManager) {
+        super(multiRingClientManager);
+    }
+
+    @Override
+    public Map<String, Object> fields(BenchModel model)
+            throws AssertException, ReflectionPathException, SerializingException {
+        return getFields(model);
+    }
+}
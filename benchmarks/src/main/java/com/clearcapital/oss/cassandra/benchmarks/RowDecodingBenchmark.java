@@ -0,0 +1,52 @@
+package com.clearcapital.oss.cassandra.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.clearcapital.oss.cassandra.exceptions.CassandraDeserializationException;
+import com.datastax.driver.core.Row;
+
+/**
+ * Per-row cost of {@link com.clearcapital.oss.cassandra.CassandraTableImpl#deserializeRow(Row)}. The same row is
+ * decoded repeatedly, as rows of a page share their column definitions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowDecodingBenchmark {
+
+    @Param({ "narrow", "wide", "json" })
+    public String columns;
+
+    @Param({ "0", "10", "100" })
+    public int collectionSize;
+
+    private BenchTable table;
+    private Row row;
+
+    @Setup
+    public void setup() throws Exception {
+        table = BenchFixtures.table(columns, BenchFixtures.multiRingClientManager());
+        row = BenchFixtures.row(table, BenchModel.sample(42L, collectionSize));
+    }
+
+    @Benchmark
+    public BenchModel deserializeRow() throws CassandraDeserializationException {
+        return table.deserializeRow(row);
+    }
+
+}
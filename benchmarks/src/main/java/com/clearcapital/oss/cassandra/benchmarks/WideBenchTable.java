@@ -0,0 +1,86 @@
+package com.clearcapital.oss.cassandra.benchmarks;
+
+import java.util.Map;
+
+import com.clearcapital.oss.cassandra.CassandraTableImpl;
+import com.clearcapital.oss.cassandra.ColumnDefinition.ColumnOption;
+import com.clearcapital.oss.cassandra.annotations.CassandraDataType;
+import com.clearcapital.oss.cassandra.annotations.CassandraTable;
+import com.clearcapital.oss.cassandra.annotations.Column;
+import com.clearcapital.oss.cassandra.annotations.ReflectionColumnInfo;
+import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.clearcapital.oss.java.exceptions.ReflectionPathException;
+import com.clearcapital.oss.java.exceptions.SerializingException;
+
+/**
+ * Sixteen reflection columns of assorted types, including two collections.
+ */
+@CassandraTable( // @formatter:off
+        multiRingGroup = BenchFixtures.GROUP,
+        tableName = "bench_wide",
+        modelClass = BenchModel.class,
+        columns = {
+                @Column(cassandraName = "id",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "id" },
+                        dataType = CassandraDataType.BIGINT,
+                        columnOption = ColumnOption.PARTITION_KEY)),
+                @Column(cassandraName = "updateid",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "updateId" },
+                        dataType = CassandraDataType.BIGINT,
+                        columnOption = ColumnOption.CLUSTERING_KEY_DESC)),
+                @Column(cassandraName = "name",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "name" },
+                        dataType = CassandraDataType.TEXT)),
+                @Column(cassandraName = "description",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "description" },
+                        dataType = CassandraDataType.TEXT)),
+                @Column(cassandraName = "category",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "category" },
+                        dataType = CassandraDataType.TEXT)),
+                @Column(cassandraName = "owner",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "owner" },
+                        dataType = CassandraDataType.TEXT)),
+                @Column(cassandraName = "region",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "region" },
+                        dataType = CassandraDataType.TEXT)),
+                @Column(cassandraName = "createdat",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "createdAt" },
+                        dataType = CassandraDataType.TIMESTAMP)),
+                @Column(cassandraName = "updatedat",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "updatedAt" },
+                        dataType = CassandraDataType.TIMESTAMP)),
+                @Column(cassandraName = "price",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "price" },
+                        dataType = CassandraDataType.DOUBLE)),
+                @Column(cassandraName = "quantity",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "quantity" },
+                        dataType = CassandraDataType.INT)),
+                @Column(cassandraName = "active",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "active" },
+                        dataType = CassandraDataType.BOOLEAN)),
+                @Column(cassandraName = "score",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "score" },
+                        dataType = CassandraDataType.DOUBLE)),
+                @Column(cassandraName = "version",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "version" },
+                        dataType = CassandraDataType.BIGINT)),
+                @Column(cassandraName = "tags",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "tags" },
+                        dataType = CassandraDataType.LIST_TEXT)),
+                @Column(cassandraName = "labels",
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { "labels" },
+                        dataType = CassandraDataType.SET_TEXT)) }) // @formatter:on
+public class WideBenchTable extends CassandraTableImpl<WideBenchTable, BenchModel>
+        implements BenchTable {
+
+    public WideBenchTable(MultiRingClientManager multiRingClientManager) {
+        super(multiRingClientManager);
+    }
+
+    @Override
+    public Map<String, Object> fields(BenchModel model)
+            throws AssertException, ReflectionPathException, SerializingException {
+        return getFields(model);
+    }
+}
@@ -0,0 +1,48 @@
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.datastax.driver.core.ColumnDefinitions.Definition;
+
+/**
+ * Build {@link Row}s in memory, without a cluster. The rows are the driver's own implementation, holding serialized
+ * values exactly as they would be after being read from the wire, so decoding them costs what it costs in production.
+ * 
+ * <p>
+ * This lives in the driver's package because the constructors it needs are package-private.
+ * </p>
+ */
+public class StubRows {
+
+    public static final String KEYSPACE = "benchmarks";
+
+    private static final ProtocolVersion PROTOCOL_VERSION = ProtocolVersion.V4;
+
+    /**
+     * A row of {@code tableName} whose columns are {@code names}, of CQL types {@code types}, holding {@code values}.
+     */
+    public static Row row(String tableName, List<String> names, List<DataType> types, List<Object> values) {
+        CodecRegistry codecRegistry = CodecRegistry.DEFAULT_INSTANCE;
+        Definition[] definitions = new Definition[names.size()];
+        List<ByteBuffer> data = new ArrayList<>(names.size());
+        for (int index = 0; index < names.size(); ++index) {
+            DataType type = types.get(index);
+            definitions[index] = new Definition(KEYSPACE, tableName, names.get(index), type);
+            Object value = values.get(index);
+            if (value == null) {
+                data.add(null);
+            } else {
+                TypeCodec<Object> codec = codecRegistry.codecFor(type, value);
+                data.add(codec.serialize(value, PROTOCOL_VERSION));
+            }
+        }
+        ColumnDefinitions columnDefinitions = new ColumnDefinitions(definitions, codecRegistry);
+        return ArrayBackedRow.fromData(columnDefinitions, null, PROTOCOL_VERSION, data);
+    }
+
+    private StubRows() {
+    }
+
+}
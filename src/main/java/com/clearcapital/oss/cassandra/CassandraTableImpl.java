@@ -1,6 +1,8 @@
 package com.clearcapital.oss.cassandra;
 
 import java.lang.reflect.ParameterizedType;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -11,16 +13,17 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import com.clearcapital.oss.cassandra.ColumnDefinition.ColumnOption;
-import com.clearcapital.oss.cassandra.annotation_processors.CassandraTableProcessor;
 import com.clearcapital.oss.cassandra.annotations.CassandraTable;
+import com.clearcapital.oss.cassandra.annotations.NearCacheOptions;
 import com.clearcapital.oss.cassandra.annotations.ReflectionColumnInfo;
+import com.clearcapital.oss.cassandra.bundles.AsyncWritePipeline;
+import com.clearcapital.oss.cassandra.bundles.CassandraBatchCommand;
 import com.clearcapital.oss.cassandra.bundles.CassandraCommand;
+import com.clearcapital.oss.cassandra.cache.NearCache;
 import com.clearcapital.oss.cassandra.exceptions.CassandraDeserializationException;
 import com.clearcapital.oss.cassandra.exceptions.CassandraException;
 import com.clearcapital.oss.cassandra.iterate.CassandraResultSetIterator;
@@ -31,12 +34,15 @@ import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
 import com.clearcapital.oss.commands.Command;
 import com.clearcapital.oss.java.AssertHelpers;
 import com.clearcapital.oss.java.ReflectionHelpers;
+import com.clearcapital.oss.java.StackHelpers;
 import com.clearcapital.oss.java.UncheckedAssertHelpers;
 import com.clearcapital.oss.java.exceptions.AssertException;
-import com.clearcapital.oss.java.exceptions.DeserializingException;
 import com.clearcapital.oss.java.exceptions.ReflectionPathException;
 import com.clearcapital.oss.java.exceptions.SerializingException;
-import com.datastax.driver.core.ColumnDefinitions.Definition;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.Configuration;
 import com.datastax.driver.core.ConsistencyLevel;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.RegularStatement;
@@ -47,9 +53,14 @@ import com.datastax.driver.core.TableMetadata;
 import com.datastax.driver.core.querybuilder.Insert;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.google.common.base.Function;
-import com.google.common.base.Predicate;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 /**
  * A helper class for developing table classes
@@ -62,80 +73,96 @@ import com.google.common.collect.Iterables;
 public class CassandraTableImpl<TableClass, ModelClass>
         implements WalkerGenerator, CassandraRowDeserializer<ModelClass> {
 
-    private static Logger log = LoggerFactory.getLogger(CassandraTableImpl.class);
-
     private final MultiRingClientManager multiRingClientManager;
+    private volatile TableDescriptor descriptor;
+    private volatile RowDecoder<ModelClass> lastRowDecoder;
+    private volatile RowEncoder<ModelClass> rowEncoder;
+    private final ConcurrentMap<List<String>, RowDecoder<ModelClass>> rowDecoders = new ConcurrentHashMap<>();
+    private volatile Optional<NearCache<ModelClass>> nearCache;
+    private final boolean overridesGetFields = overridesGetFields(getClass());
 
     public CassandraTableImpl(MultiRingClientManager multiRingClientManager) {
         this.multiRingClientManager = multiRingClientManager;
     }
 
+    /**
+     * The resolved description of this table. Built on first use; building it twice under a race is harmless, since
+     * the result is immutable and identical.
+     */
+    public TableDescriptor getDescriptor() throws AssertException {
+        TableDescriptor result = descriptor;
+        if (result == null) {
+            result = TableDescriptor.builder().setTableClass(getTableClass())
+                    .setMultiRingClientManager(multiRingClientManager).build();
+            descriptor = result;
+        }
+        return result;
+    }
+
     public ModelClass deserializeRow(Row row) throws CassandraDeserializationException {
         if (row == null) {
             return null;
         }
         try {
-            CassandraTable annotation = getAnnotation();
-            Map<String, ColumnDefinition> columnDefinitionMap = CassandraTableProcessor
-                    .getColumnDefinitionMap(annotation);
-
-            ModelClass result = null;
+            return getRowDecoder(row.getColumnDefinitions()).decode(row);
+        } catch (AssertException e) {
+            throw new CassandraDeserializationException(e);
+        }
+    }
 
-            for (Definition column : row.getColumnDefinitions()) {
-                try {
-                    String columnName = column.getName();
-                    ColumnDefinition columnDefinition = columnDefinitionMap.get(columnName.toLowerCase());
-                    if (columnDefinition != null) {
-
-                        // This if-else-on-type cascade is a little bit of a
-                        // smell;
-                        // it would be better to have a single method in the
-                        // ColumnDefinition interface, but the observable
-                        // behavior
-                        // intentionally differs depending on whether it's a
-                        // Json
-                        // column or not.
-
-                        if (columnDefinition instanceof JsonColumnDefinition) {
-                            ModelClass jsonResult = ((JsonColumnDefinition) columnDefinition).<ModelClass> decode(row,
-                                    column);
-
-                            return jsonResult;
-                        } else if (columnDefinition instanceof ReflectionColumnDefinition) {
-                            if (result == null) {
-
-                                @SuppressWarnings("unchecked")
-                                final Class<ModelClass> targetClass = (Class<ModelClass>) annotation.modelClass();
-
-                                result = targetClass.newInstance();
-                            }
-                            ((ReflectionColumnDefinition) columnDefinition).decode(result, row, column);
-                        } else if (columnDefinition instanceof PlaceholderColumnDefinition) {
-                            // ignore
-                        } else {
-                            AssertHelpers.isTrue(false,
-                                    "Unexpected ColumnDefinition subclass:" + ColumnDefinition.class.getName());
-                        }
-                    }
+    /**
+     * Find or compile the {@link RowDecoder} for rows described by {@code columnDefinitions}. Consecutive rows nearly
+     * always share their definitions, so the most recently used decoder is checked first.
+     */
+    protected RowDecoder<ModelClass> getRowDecoder(ColumnDefinitions columnDefinitions) throws AssertException {
+        RowDecoder<ModelClass> result = lastRowDecoder;
+        if (result != null && result.canDecode(columnDefinitions)) {
+            return result;
+        }
 
-                } catch (IllegalArgumentException | IllegalAccessException | SecurityException e) {
-                    log.trace("Could not deserialize column:" + column.getName(), e);
-                    // Useful for debugging... throw new RuntimeException(e);
-                }
+        List<String> columnNames = new ArrayList<>(columnDefinitions.size());
+        for (int index = 0; index < columnDefinitions.size(); ++index) {
+            columnNames.add(columnDefinitions.getName(index));
+        }
+        result = rowDecoders.get(columnNames);
+        if (result == null) {
+            result = RowDecoder.<ModelClass> compile(getDescriptor(), columnDefinitions);
+            RowDecoder<ModelClass> existing = rowDecoders.putIfAbsent(result.getColumnNames(), result);
+            if (existing != null) {
+                result = existing;
             }
-            return result;
-        } catch (AssertException | ReflectiveOperationException | DeserializingException e) {
-            throw new CassandraDeserializationException(e);
         }
+        lastRowDecoder = result;
+        return result;
     }
 
     public CassandraTable getAnnotation() throws AssertException {
-        return CassandraTableProcessor.getAnnotation(getTableClass());
+        return getDescriptor().getAnnotation();
     }
 
     public Class<?> getModelClass() throws AssertException {
-        CassandraTable annotation = CassandraTableProcessor.getAnnotation(getTableClass());
-        return annotation.modelClass();
+        return getDescriptor().getModelClass();
+    }
+
+    /**
+     * The table's near cache, if {@link CassandraTable#nearCache()} enables one; null otherwise. Shared by every
+     * instance of the table class on its ring, so that writes through any of them invalidate it.
+     */
+    public NearCache<ModelClass> getNearCache() throws AssertException {
+        Optional<NearCache<ModelClass>> result = nearCache;
+        if (result == null) {
+            synchronized (this) {
+                result = nearCache;
+                if (result == null) {
+                    NearCacheOptions options = getAnnotation().nearCache();
+                    result = options.enabled()
+                            ? Optional.of(getRingClient().<ModelClass> getNearCache(getTableClass(), options))
+                            : Optional.<NearCache<ModelClass>> absent();
+                    nearCache = result;
+                }
+            }
+        }
+        return result.orNull();
     }
 
     public MultiRingClientManager getMultiRingClientManager() {
@@ -153,9 +180,7 @@ public class CassandraTableImpl<TableClass, ModelClass>
     }
 
     public RingClient getRingClient() throws AssertException {
-        String multiRingGroup = getAnnotation().multiRingGroup();
-        RingClient ringClientForGroup = multiRingClientManager.getRingClientForGroup(multiRingGroup);
-        return ringClientForGroup;
+        return getDescriptor().getRingClient();
     }
 
     public SessionHelper getSession() throws AssertException {
@@ -163,7 +188,7 @@ public class CassandraTableImpl<TableClass, ModelClass>
     }
 
     public String getTableName() throws AssertException {
-        return getAnnotation().tableName();
+        return getDescriptor().getTableName();
     }
 
     /**
@@ -177,10 +202,19 @@ public class CassandraTableImpl<TableClass, ModelClass>
      * Read the first record for {@code statement}, deserialized using {@code this}. If no records are returned from
      * Cassandra, return null.
      * 
+     * <p>
+     * If the table has a {@link NearCache}, the record is served from it when possible; the result must then not be
+     * modified.
+     * </p>
+     * 
      * @throws AssertException
      * @throws CassandraException
      */
     public ModelClass readFirst(Statement statement) throws CassandraException, AssertException {
+        NearCache<ModelClass> cache = getNearCache();
+        if (cache != null) {
+            return cache.read(statement, getSession(), getTableName(), this);
+        }
         return readFirst(statement, this);
     }
 
@@ -224,20 +258,125 @@ public class CassandraTableImpl<TableClass, ModelClass>
 
     public <E> Iterable<E> readIterable(Statement statement, CassandraRowDeserializer<E> deserializer)
             throws CassandraException, AssertException {
-        ResultSet resultSet = getRingClient().getPreferredKeyspace().execute(statement);
+        ResultSet resultSet = getSession().execute(statement, getTableName());
 
         return new CassandraResultSetIterator<E>(resultSet, deserializer);
     }
 
+    /**
+     * Asynchronously read the first record for {@code statement}, deserialized using {@code this}. The future's value
+     * is null if Cassandra returns no records.
+     */
+    public ListenableFuture<ModelClass> readFirstAsync(Statement statement) throws AssertException {
+        return readFirstAsync(statement, this);
+    }
+
+    /**
+     * Asynchronously read the first record for {@code statement}, deserialized using {@code deserializer}. The future's
+     * value is null if Cassandra returns no records.
+     * 
+     * <p>
+     * Unlike {@link #readFirst(Statement, CassandraRowDeserializer)}, a row which can't be deserialized fails the
+     * future with an {@link UncheckedExecutionException} caused by a {@link CassandraDeserializationException}.
+     * </p>
+     */
+    public <E> ListenableFuture<E> readFirstAsync(Statement statement, final CassandraRowDeserializer<E> deserializer)
+            throws AssertException {
+        return Futures.transform(getSession().executeAsync(statement, getTableName()), new Function<ResultSet, E>() {
+
+            @Override
+            public E apply(ResultSet resultSet) {
+                try {
+                    return deserializer.deserializeRow(resultSet.one());
+                } catch (CassandraDeserializationException e) {
+                    throw new UncheckedExecutionException(e);
+                }
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Asynchronously read every result of {@code statement} into a collection (ImmutableList), deserialized using
+     * {@code this}.
+     */
+    public ListenableFuture<Collection<ModelClass>> readCollectionAsync(Statement statement) throws AssertException {
+        return readCollectionAsync(statement, this);
+    }
+
+    /**
+     * Asynchronously read every result of {@code statement} into a collection (ImmutableList), deserialized using
+     * {@code deserializer}. Further pages are fetched without blocking as each one is consumed.
+     * 
+     * <p>
+     * Rows are deserialized on the driver's I/O threads as pages arrive, so {@code deserializer} must not block. A row
+     * which can't be deserialized fails the future with a {@link CassandraDeserializationException}; so does one which
+     * deserializes to null (see {@link #readCollection(Statement)}).
+     * </p>
+     */
+    public <E> ListenableFuture<Collection<E>> readCollectionAsync(Statement statement,
+            final CassandraRowDeserializer<E> deserializer) throws AssertException {
+        final SettableFuture<Collection<E>> result = SettableFuture.create();
+        Futures.addCallback(getSession().executeAsync(statement, getTableName()),
+                new PageCollector<E>(deserializer, ImmutableList.<E> builder(), result),
+                MoreExecutors.directExecutor());
+        return result;
+    }
+
+    /**
+     * Deserialize the rows of each page as it arrives, then ask for the next.
+     */
+    private static class PageCollector<E> implements FutureCallback<ResultSet> {
+
+        private final CassandraRowDeserializer<E> deserializer;
+        private final ImmutableList.Builder<E> builder;
+        private final SettableFuture<Collection<E>> result;
+
+        PageCollector(CassandraRowDeserializer<E> deserializer, ImmutableList.Builder<E> builder,
+                SettableFuture<Collection<E>> result) {
+            this.deserializer = deserializer;
+            this.builder = builder;
+            this.result = result;
+        }
+
+        @Override
+        public void onSuccess(ResultSet resultSet) {
+            try {
+                for (int available = resultSet.getAvailableWithoutFetching(); available > 0; --available) {
+                    Row row = resultSet.one();
+                    E item = deserializer.deserializeRow(row);
+                    if (item == null) {
+                        throw new CassandraDeserializationException("Row deserialized to null:" + row);
+                    }
+                    builder.add(item);
+                }
+                if (resultSet.isFullyFetched()) {
+                    result.set(builder.build());
+                } else {
+                    Futures.addCallback(resultSet.fetchMoreResults(), this, MoreExecutors.directExecutor());
+                }
+            } catch (Exception e) {
+                result.setException(e);
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            result.setException(t instanceof CassandraException ? t : new CassandraException(t));
+        }
+    }
+
+    /**
+     * The column values of {@code object}, by column name. Subclasses may override this to add or change columns;
+     * writes through {@link #updateCommand(Object, List)} and friends then go through
+     * {@link #updateStatement(Map, List)} with the overridden values, instead of through the {@link RowEncoder}.
+     */
     protected Map<String, Object> getFields(final Object object)
             throws AssertException, ReflectionPathException, SerializingException {
-        AssertHelpers.notNull(getTableClass(), "tableClass");
         AssertHelpers.notNull(object, "object");
 
-        CassandraTable annotation = getAnnotation();
         Map<String, Object> result = new TreeMap<String, Object>();
 
-        Collection<ColumnDefinition> columnDefinitions = CassandraTableProcessor.getColumnDefinitionList(annotation);
+        Collection<ColumnDefinition> columnDefinitions = getDescriptor().getColumnDefinitions();
         for (ColumnDefinition columnDefinition : columnDefinitions) {
             columnDefinition.encode(result, object);
         }
@@ -249,11 +388,84 @@ public class CassandraTableImpl<TableClass, ModelClass>
         return prepareInsertStatement(consistencyLevel, null, null);
     }
 
+    /**
+     * Prepare an insert of every column with a fixed TTL. Each distinct TTL prepares a distinct statement; prefer
+     * {@link #prepareTimedInsertStatement(ConsistencyLevel)} when TTLs vary.
+     */
     protected PreparedStatement prepareInsertStatement(final ConsistencyLevel consistencyLevel, final TimeUnit timeUnit,
             final Integer ttlDuration) throws AssertException {
-        CassandraTable annotation = getAnnotation();
-        AssertHelpers.notNull(annotation, "tableClass must have @CassandraTable annotation");
-        Map<String, ColumnDefinition> columns = CassandraTableProcessor.getColumnDefinitionMap(annotation);
+        Insert insert = insertAllColumns();
+        if (TTLHelpers.isValidTTL(timeUnit, ttlDuration)) {
+            insert.using(QueryBuilder.ttl(TTLHelpers.getTTL(timeUnit, ttlDuration)));
+        }
+        insert.setConsistencyLevel(consistencyLevel);
+        return getSession().prepare(insert);
+    }
+
+    /**
+     * Prepare an insert of every column {@code USING TTL ? AND TIMESTAMP ?}, so that one statement serves every TTL and
+     * client timestamp. Bind it with {@link #bindTimedInsert(PreparedStatement, Map, TimeUnit, Integer, Long)}.
+     */
+    protected PreparedStatement prepareTimedInsertStatement(final ConsistencyLevel consistencyLevel)
+            throws AssertException {
+        Insert insert = insertAllColumns();
+        insert.using(QueryBuilder.ttl(QueryBuilder.bindMarker()))
+                .and(QueryBuilder.timestamp(QueryBuilder.bindMarker()));
+        insert.setConsistencyLevel(consistencyLevel);
+        return getSession().prepare(insert);
+    }
+
+    /**
+     * Bind a statement from {@link #prepareTimedInsertStatement(ConsistencyLevel)}.
+     * 
+     * @param fields
+     *            the column values by column name, as returned by {@link #getFields(Object)}. Values are bound by name,
+     *            so the map's order doesn't matter; columns it doesn't mention are left unset, which needs protocol v4
+     *            or later.
+     * @param timeUnit
+     *            the unit of {@code ttlDuration}.
+     * @param ttlDuration
+     *            how long the row should live; if not valid according to {@link TTLHelpers#isValidTTL(TimeUnit,
+     *            Integer)} (including null), the row doesn't expire.
+     * @param timestampMicros
+     *            the write time in microseconds since the epoch; null for the cluster's timestamp generator.
+     */
+    protected BoundStatement bindTimedInsert(final PreparedStatement statement, final Map<String, Object> fields,
+            final TimeUnit timeUnit, final Integer ttlDuration, final Long timestampMicros) throws AssertException {
+        AssertHelpers.notNull(statement, "statement");
+        AssertHelpers.notNull(fields, "fields");
+
+        ColumnDefinitions variables = statement.getVariables();
+        CodecRegistry codecRegistry = getSession().getSession().getCluster().getConfiguration().getCodecRegistry();
+        BoundStatement result = statement.bind();
+        for (Entry<String, Object> field : fields.entrySet()) {
+            String name = field.getKey();
+            if (!variables.contains(name)) {
+                AssertHelpers.isTrue(false, "the insert has no variable for column " + name);
+            }
+            Object value = field.getValue();
+            if (value == null) {
+                result.setToNull(name);
+            } else {
+                result.set(name, value, codecRegistry.codecFor(variables.getType(name), value));
+            }
+        }
+        // The USING clause follows the column values.
+        result.setInt(variables.size() - 2, TTLHelpers.getBindableTTL(timeUnit, ttlDuration));
+        result.setLong(variables.size() - 1, timestampMicros != null ? timestampMicros : nextTimestamp());
+        return result;
+    }
+
+    private long nextTimestamp() throws AssertException {
+        long result = getSession().getSession().getCluster().getConfiguration().getPolicies().getTimestampGenerator()
+                .next();
+        // The server side generator leaves timestamps to Cassandra, but a bound timestamp can't be left out.
+        return result != Long.MIN_VALUE ? result : TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    }
+
+    private Insert insertAllColumns() throws AssertException {
+        TableDescriptor descriptor = getDescriptor();
+        Map<String, ColumnDefinition> columns = descriptor.getColumnDefinitionMap();
         // Map<String, CassandraColumnDefinition> additionalColumnsJson =
         // getAdditionalColumnsFromJson(annotation);
 
@@ -264,12 +476,7 @@ public class CassandraTableImpl<TableClass, ModelClass>
         Object[] bindMarkers = new Object[columnNames.size()];
         Arrays.fill(bindMarkers, QueryBuilder.bindMarker());
 
-        Insert insert = QueryBuilder.insertInto(annotation.tableName()).values(columnNamesArray, bindMarkers);
-        if (TTLHelpers.isValidTTL(timeUnit, ttlDuration)) {
-            insert.using(QueryBuilder.ttl(TTLHelpers.getTTL(timeUnit, ttlDuration)));
-        }
-        insert.setConsistencyLevel(consistencyLevel);
-        return getRingClient().getPreferredKeyspace().prepare(insert);
+        return QueryBuilder.insertInto(descriptor.getTableName()).values(columnNamesArray, bindMarkers);
     }
 
     /**
@@ -314,13 +521,99 @@ public class CassandraTableImpl<TableClass, ModelClass>
 
     private Statement updateStatement(final ModelClass model, final List<String> forcedFields)
             throws ReflectionPathException, AssertException, SerializingException {
-        Map<String, Object> fields = getFields(model);
-        return updateStatement(fields, forcedFields);
+        if (overridesGetFields) {
+            return updateStatement(getFields(model), forcedFields);
+        }
+        return getRowEncoder().bind(model, forcedFields);
+    }
+
+    /**
+     * True if {@code tableClass} overrides {@link #getFields(Object)}, whose values the {@link RowEncoder} would skip.
+     */
+    private static boolean overridesGetFields(Class<?> tableClass) {
+        for (Class<?> type = tableClass; type != CassandraTableImpl.class; type = type.getSuperclass()) {
+            try {
+                type.getDeclaredMethod("getFields", Object.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not declared here; keep looking.
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The {@link RowEncoder} used to write models to this table. Compiled (and its statements prepared) on first use,
+     * and again after a schema change.
+     */
+    protected RowEncoder<ModelClass> getRowEncoder() throws AssertException {
+        RowEncoder<ModelClass> result = rowEncoder;
+        if (result == null || !result.isCurrent()) {
+            synchronized (this) {
+                result = rowEncoder;
+                if (result == null || !result.isCurrent()) {
+                    result = RowEncoder.<ModelClass> compile(getDescriptor(), getSession());
+                    rowEncoder = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A builder for a command which writes to this table with {@code statement}. Once the command has executed, the
+     * partition it wrote is invalidated in the table's {@link NearCache}, if any.
+     */
+    protected CassandraCommand.Builder commandBuilder(final Statement statement) throws AssertException {
+        CassandraCommand.Builder result = CassandraCommand.builder(getSession())
+                .setLocation(StackHelpers.getRelativeStackLocation(1)).setStatement(statement)
+                .setTableName(getTableName());
+        final NearCache<ModelClass> cache = getNearCache();
+        if (cache != null) {
+            final ByteBuffer routingKey = getRoutingKey(statement);
+            result.addExecutionListener(new Runnable() {
+
+                @Override
+                public void run() {
+                    cache.invalidate(routingKey);
+                }
+            });
+        }
+        return result;
+    }
+
+    private ByteBuffer getRoutingKey(final Statement statement) throws AssertException {
+        Configuration configuration = getSession().getSession().getCluster().getConfiguration();
+        return statement.getRoutingKey(configuration.getProtocolOptions().getProtocolVersion(),
+                configuration.getCodecRegistry());
     }
 
     protected Command updateCommand(final ModelClass model, final List<String> forcedFields)
             throws ReflectionPathException, AssertException, SerializingException {
-        return CassandraCommand.builder(getSession()).setStatement(updateStatement(model, forcedFields)).build();
+        return commandBuilder(updateStatement(model, forcedFields)).build();
+    }
+
+    /**
+     * Write {@code model} through {@code pipeline}, which bounds the number of writes in flight.
+     */
+    protected ListenableFuture<ResultSet> updateAsync(final AsyncWritePipeline pipeline, final ModelClass model,
+            final List<String> forcedFields) throws ReflectionPathException, AssertException, SerializingException,
+            CassandraException {
+        return pipeline.submit(commandBuilder(updateStatement(model, forcedFields)).build());
+    }
+
+    /**
+     * Write {@code models} in as few single-partition UNLOGGED batches as possible.
+     * 
+     * @see CassandraBatchCommand
+     */
+    protected Command batchUpdateCommand(final Collection<ModelClass> models, final List<String> forcedFields)
+            throws ReflectionPathException, AssertException, SerializingException {
+        CassandraBatchCommand.Builder builder = CassandraBatchCommand.builder();
+        for (ModelClass model : models) {
+            builder.add(commandBuilder(updateStatement(model, forcedFields)).build());
+        }
+        return builder.build();
     }
 
     public CassandraTableWalker.Builder<ModelClass> getWalker() throws AssertException {
@@ -329,25 +622,8 @@ public class CassandraTableImpl<TableClass, ModelClass>
 
     public <E> CassandraTableWalker.Builder<E> getWalker(final CassandraRowDeserializer<E> customDeserializer)
             throws AssertException {
-        Collection<ColumnDefinition> columnDefinitions = CassandraTableProcessor
-                .getColumnDefinitionList(getAnnotation());
-
-        Iterable<String> keyColumnNames = Iterables
-                .transform(Iterables.filter(columnDefinitions, new Predicate<ColumnDefinition>() {
-
-                    @Override
-                    public boolean apply(ColumnDefinition object) {
-                        return ColumnOption.PARTITION_KEY.equals(object.getColumnOption());
-                    }
-                }), new Function<ColumnDefinition, String>() {
-
-                    @Override
-                    public String apply(ColumnDefinition input) {
-                        return input.getColumnName();
-                    }
-                });
-
-        return CassandraTableWalker.<E> builder().setSession(getSession()).setTableName(getTableName())
-                .setKeyColumnNames(keyColumnNames).setDeserializer(customDeserializer);
+        TableDescriptor descriptor = getDescriptor();
+        return CassandraTableWalker.<E> builder().setSession(getSession()).setTableName(descriptor.getTableName())
+                .setKeyColumnNames(descriptor.getPartitionKeyColumnNames()).setDeserializer(customDeserializer);
     }
 }
@@ -0,0 +1,140 @@
+package com.clearcapital.oss.cassandra;
+
+import java.util.concurrent.TimeUnit;
+
+import com.clearcapital.oss.cassandra.configuration.LoadBalancingConfiguration;
+import com.clearcapital.oss.cassandra.configuration.PoolingConfiguration;
+import com.clearcapital.oss.cassandra.configuration.RingConfiguration;
+import com.clearcapital.oss.cassandra.configuration.SpeculativeExecutionConfiguration;
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.PoolingOptions;
+import com.datastax.driver.core.SocketOptions;
+import com.datastax.driver.core.policies.ConstantSpeculativeExecutionPolicy;
+import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
+import com.datastax.driver.core.policies.LatencyAwarePolicy;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.datastax.driver.core.policies.TokenAwarePolicy;
+
+/**
+ * Translate a {@link RingConfiguration} into {@link Cluster.Builder} settings.
+ */
+public class ClusterBuilderHelpers {
+
+    /**
+     * A builder for the cluster described by {@code configuration}.
+     */
+    public static Cluster.Builder builder(RingConfiguration configuration) throws AssertException {
+        AssertHelpers.notNull(configuration, "configuration");
+        AssertHelpers.notNull(configuration.getHosts(), "configuration.hosts");
+
+        Cluster.Builder builder = new Cluster.Builder();
+        for (String host : configuration.getHosts()) {
+            builder.addContactPoint(host);
+        }
+        if (configuration.getPort() != null) {
+            builder.withPort(configuration.getPort());
+        }
+        if (configuration.getCompression() != null) {
+            builder.withCompression(configuration.getCompression());
+        }
+        if (configuration.getConnectTimeoutMillis() != null || configuration.getReadTimeoutMillis() != null) {
+            SocketOptions socketOptions = new SocketOptions();
+            if (configuration.getConnectTimeoutMillis() != null) {
+                socketOptions.setConnectTimeoutMillis(configuration.getConnectTimeoutMillis());
+            }
+            if (configuration.getReadTimeoutMillis() != null) {
+                socketOptions.setReadTimeoutMillis(configuration.getReadTimeoutMillis());
+            }
+            builder.withSocketOptions(socketOptions);
+        }
+        if (configuration.getPooling() != null) {
+            builder.withPoolingOptions(poolingOptions(configuration.getPooling()));
+        }
+        if (configuration.getLoadBalancing() != null) {
+            builder.withLoadBalancingPolicy(loadBalancingPolicy(configuration.getLoadBalancing()));
+        }
+        if (configuration.getSpeculativeExecution() != null) {
+            SpeculativeExecutionConfiguration speculativeExecution = configuration.getSpeculativeExecution();
+            AssertHelpers.notNull(speculativeExecution.getDelayMillis(), "speculativeExecution.delayMillis");
+            AssertHelpers.notNull(speculativeExecution.getMaxExecutions(), "speculativeExecution.maxExecutions");
+            builder.withSpeculativeExecutionPolicy(new ConstantSpeculativeExecutionPolicy(
+                    speculativeExecution.getDelayMillis(), speculativeExecution.getMaxExecutions()));
+        }
+        return builder;
+    }
+
+    public static PoolingOptions poolingOptions(PoolingConfiguration pooling) {
+        PoolingOptions result = new PoolingOptions();
+        setConnections(result, HostDistance.LOCAL, pooling.getCoreConnectionsLocal(),
+                pooling.getMaxConnectionsLocal());
+        setConnections(result, HostDistance.REMOTE, pooling.getCoreConnectionsRemote(),
+                pooling.getMaxConnectionsRemote());
+        if (pooling.getMaxRequestsPerConnectionLocal() != null) {
+            result.setMaxRequestsPerConnection(HostDistance.LOCAL, pooling.getMaxRequestsPerConnectionLocal());
+        }
+        if (pooling.getMaxRequestsPerConnectionRemote() != null) {
+            result.setMaxRequestsPerConnection(HostDistance.REMOTE, pooling.getMaxRequestsPerConnectionRemote());
+        }
+        if (pooling.getPoolTimeoutMillis() != null) {
+            result.setPoolTimeoutMillis(pooling.getPoolTimeoutMillis());
+        }
+        if (pooling.getHeartbeatIntervalSeconds() != null) {
+            result.setHeartbeatIntervalSeconds(pooling.getHeartbeatIntervalSeconds());
+        }
+        return result;
+    }
+
+    /**
+     * PoolingOptions rejects a core size above the current max (and vice versa), so both are set at once when both
+     * are given.
+     */
+    private static void setConnections(PoolingOptions options, HostDistance distance, Integer core, Integer max) {
+        if (core != null && max != null) {
+            options.setConnectionsPerHost(distance, core, max);
+        } else if (core != null) {
+            options.setCoreConnectionsPerHost(distance, core);
+        } else if (max != null) {
+            options.setMaxConnectionsPerHost(distance, max);
+        }
+    }
+
+    public static LoadBalancingPolicy loadBalancingPolicy(LoadBalancingConfiguration loadBalancing) {
+        DCAwareRoundRobinPolicy.Builder dcAware = DCAwareRoundRobinPolicy.builder();
+        if (loadBalancing.getLocalDc() != null) {
+            dcAware.withLocalDc(loadBalancing.getLocalDc());
+        }
+        if (loadBalancing.getUsedHostsPerRemoteDc() != null) {
+            dcAware.withUsedHostsPerRemoteDc(loadBalancing.getUsedHostsPerRemoteDc());
+        }
+        if (Boolean.TRUE.equals(loadBalancing.getAllowRemoteDcsForLocalConsistencyLevel())) {
+            dcAware.allowRemoteDCsForLocalConsistencyLevel();
+        }
+        LoadBalancingPolicy result = dcAware.build();
+
+        if (Boolean.TRUE.equals(loadBalancing.getLatencyAware())) {
+            LatencyAwarePolicy.Builder latencyAware = LatencyAwarePolicy.builder(result);
+            if (loadBalancing.getLatencyExclusionThreshold() != null) {
+                latencyAware.withExclusionThreshold(loadBalancing.getLatencyExclusionThreshold());
+            }
+            if (loadBalancing.getLatencyScaleMillis() != null) {
+                latencyAware.withScale(loadBalancing.getLatencyScaleMillis(), TimeUnit.MILLISECONDS);
+            }
+            if (loadBalancing.getLatencyRetryPeriodMillis() != null) {
+                latencyAware.withRetryPeriod(loadBalancing.getLatencyRetryPeriodMillis(), TimeUnit.MILLISECONDS);
+            }
+            if (loadBalancing.getLatencyMinimumMeasurements() != null) {
+                latencyAware.withMininumMeasurements(loadBalancing.getLatencyMinimumMeasurements());
+            }
+            result = latencyAware.build();
+        }
+
+        if (!Boolean.FALSE.equals(loadBalancing.getTokenAware())) {
+            result = new TokenAwarePolicy(result, !Boolean.FALSE.equals(loadBalancing.getShuffleReplicas()));
+        }
+        return result;
+    }
+
+}
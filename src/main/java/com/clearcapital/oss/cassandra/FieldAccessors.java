@@ -0,0 +1,105 @@
+package com.clearcapital.oss.cassandra;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * Resolve {@link MethodHandle}s for the simple cases of {@link ReflectionColumnDefinition#getReflectionPath()}, so that
+ * {@link RowDecoder} and {@link RowEncoder} can skip walking the path on every row.
+ *
+ * <p>
+ * Every method returns null when the case isn't simple (nested paths, static or final fields, inaccessible members);
+ * callers are expected to fall back to {@link ReflectionColumnDefinition} in that case.
+ * </p>
+ */
+class FieldAccessors {
+
+    static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    /**
+     * The field named by a single-segment {@code path}, searching superclasses as well.
+     */
+    static Field findField(Class<?> modelClass, List<String> path) {
+        if (path == null || path.size() != 1) {
+            return null;
+        }
+        for (Class<?> clazz = modelClass; clazz != null; clazz = clazz.getSuperclass()) {
+            try {
+                Field field = clazz.getDeclaredField(path.get(0));
+                if (Modifier.isStatic(field.getModifiers())) {
+                    return null;
+                }
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                // keep looking in the superclass.
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A {@code (Object,Object)void} setter for {@code field}.
+     */
+    static MethodHandle setter(Field field) {
+        if (field == null || Modifier.isFinal(field.getModifiers())) {
+            return null;
+        }
+        try {
+            return MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A {@code (Object)Object} getter for {@code field}.
+     */
+    static MethodHandle getter(Field field) {
+        if (field == null) {
+            return null;
+        }
+        try {
+            return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A {@code ()Object} handle for {@code modelClass}'s no-arg constructor.
+     */
+    static MethodHandle constructor(Class<?> modelClass) {
+        try {
+            Constructor<?> constructor = modelClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * MethodHandle invocation is declared to throw Throwable; the handles resolved here can only throw unchecked
+     * exceptions, which are rethrown as they are.
+     */
+    static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+
+}
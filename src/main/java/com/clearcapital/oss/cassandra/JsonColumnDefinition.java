@@ -55,7 +55,13 @@ public class JsonColumnDefinition implements ColumnDefinition {
 	}
 
 	public <T> T decode(Row row, Definition column) throws AssertException, DeserializingException {
-		Object value = CQLHelpers.getColumn(row, column);
+		return decodeValue(CQLHelpers.getColumn(row, column));
+	}
+
+	/**
+	 * Decode {@code value}, which was read from this column.
+	 */
+	public <T> T decodeValue(Object value) throws AssertException, DeserializingException {
 		AssertHelpers.isTrue(value instanceof String, "value instanceof String");
 
 		@SuppressWarnings("unchecked")
@@ -106,8 +112,14 @@ public class JsonColumnDefinition implements ColumnDefinition {
 
 	@Override
 	public void encode(Map<String, Object> result, Object object) throws SerializingException {
-		String asJson = JsonSerializer.getInstance().getStringRepresentation(object);
-		result.put(getColumnName(), asJson);
+		result.put(getColumnName(), encodeValue(object));
+	}
+
+	/**
+	 * The value of this column for {@code object}: the whole object, as json.
+	 */
+	public String encodeValue(Object object) throws SerializingException {
+		return JsonSerializer.getInstance().getStringRepresentation(object);
 	}
 
 }
@@ -0,0 +1,313 @@
+package com.clearcapital.oss.cassandra;
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.datastax.driver.core.AggregateMetadata;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.FunctionMetadata;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.MaterializedViewMetadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.SchemaChangeListener;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.UserType;
+import com.datastax.driver.core.policies.RetryPolicy;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * The prepared statements of one ring, shared by all of its sessions.
+ *
+ * <p>
+ * Statements are keyed by the session's keyspace, their query string, and the settings the driver copies from a
+ * statement into the {@link PreparedStatement} (consistency levels, tracing, retry policy, idempotence), so two callers
+ * only share a prepared statement if they would have prepared identical ones. Concurrent requests for the same
+ * statement wait for a single prepare. Cached statements are shared, and must not be modified: set consistency levels
+ * and the like on the {@link RegularStatement} before preparing it instead.
+ * </p>
+ *
+ * <p>
+ * The driver re-prepares a statement by itself when a host has forgotten it, but a statement prepared before its table
+ * was altered keeps the old variable and result metadata. So when the driver reports a schema change, cached
+ * statements which mention the changed table (or any table, for keyspace and type changes) are dropped and
+ * {@link #getSchemaGeneration()} is incremented, which tells holders of long-lived statements to prepare them again.
+ * </p>
+ */
+public class PreparedStatementCache {
+
+    private static Logger log = LoggerFactory.getLogger(PreparedStatementCache.class);
+
+    public static final long DEFAULT_MAX_SIZE = 10000;
+
+    private Cache<Key, PreparedStatement> cache;
+    private final AtomicLong schemaGeneration = new AtomicLong();
+    private final AtomicLong schemaInvalidations = new AtomicLong();
+    private final SchemaChangeListener schemaChangeListener = new SchemaListener();
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private long maxSize = DEFAULT_MAX_SIZE;
+
+        Builder() {
+        }
+
+        /**
+         * Maximum number of cached statements; the least recently used are dropped beyond that.
+         */
+        public Builder setMaxSize(long value) {
+            maxSize = value;
+            return this;
+        }
+
+        public PreparedStatementCache build() throws AssertException {
+            AssertHelpers.isTrue(maxSize > 0, "maxSize > 0");
+            PreparedStatementCache result = new PreparedStatementCache();
+            result.cache = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+            return result;
+        }
+    }
+
+    private PreparedStatementCache() {
+    }
+
+    /**
+     * The cached preparation of {@code statement} in {@code session}, preparing it if need be.
+     */
+    public PreparedStatement prepare(final Session session, final RegularStatement statement) {
+        Key key = new Key(session.getLoggedKeyspace(),
+                statement.getQueryString(session.getCluster().getConfiguration().getCodecRegistry()), statement);
+        try {
+            return cache.get(key, new Callable<PreparedStatement>() {
+
+                @Override
+                public PreparedStatement call() {
+                    return session.prepare(statement);
+                }
+            });
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Incremented whenever statements are dropped because of a schema change.
+     */
+    public long getSchemaGeneration() {
+        return schemaGeneration.get();
+    }
+
+    /**
+     * Register with {@link Cluster#register(SchemaChangeListener)} to drop statements when the schema changes.
+     */
+    public SchemaChangeListener getSchemaChangeListener() {
+        return schemaChangeListener;
+    }
+
+    /**
+     * Drop cached statements which mention {@code tableName} in {@code keyspaceName}; a null {@code tableName} drops
+     * every statement in the keyspace.
+     */
+    public void invalidate(String keyspaceName, String tableName) {
+        String keyspace = keyspaceName.toLowerCase();
+        String table = tableName == null ? null : tableName.toLowerCase();
+        int removed = 0;
+        for (Iterator<Key> keys = cache.asMap().keySet().iterator(); keys.hasNext();) {
+            Key key = keys.next();
+            String query = key.query.toLowerCase();
+            boolean inKeyspace = keyspace.equalsIgnoreCase(key.keyspace) || query.contains(keyspace + ".");
+            if (inKeyspace && (table == null || query.contains(table))) {
+                keys.remove();
+                ++removed;
+            }
+        }
+        schemaGeneration.incrementAndGet();
+        schemaInvalidations.addAndGet(removed);
+        if (removed > 0) {
+            log.debug("Schema of " + keyspaceName + (tableName == null ? "" : "." + tableName) + " changed; dropped "
+                    + removed + " prepared statement(s)");
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        schemaGeneration.incrementAndGet();
+    }
+
+    /**
+     * Hits, misses (i.e. prepares), and evictions by size. Statements dropped because of schema changes are counted by
+     * {@link #getSchemaInvalidationCount()}.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public long getSchemaInvalidationCount() {
+        return schemaInvalidations.get();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("size", size()).add("stats", getStats())
+                .add("schemaInvalidations", getSchemaInvalidationCount()).toString();
+    }
+
+    private static class Key {
+
+        final String keyspace;
+        final String query;
+        final ConsistencyLevel consistencyLevel;
+        final ConsistencyLevel serialConsistencyLevel;
+        final boolean tracing;
+        final RetryPolicy retryPolicy;
+        final Boolean idempotent;
+
+        Key(String keyspace, String query, RegularStatement statement) {
+            this.keyspace = keyspace;
+            this.query = query;
+            this.consistencyLevel = statement.getConsistencyLevel();
+            this.serialConsistencyLevel = statement.getSerialConsistencyLevel();
+            this.tracing = statement.isTracing();
+            this.retryPolicy = statement.getRetryPolicy();
+            this.idempotent = statement.isIdempotent();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return query.equals(other.query) && Objects.equal(keyspace, other.keyspace)
+                    && consistencyLevel == other.consistencyLevel
+                    && serialConsistencyLevel == other.serialConsistencyLevel && tracing == other.tracing
+                    && retryPolicy == other.retryPolicy && Objects.equal(idempotent, other.idempotent);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(keyspace, query, consistencyLevel, serialConsistencyLevel, tracing,
+                    System.identityHashCode(retryPolicy), idempotent);
+        }
+    }
+
+    private class SchemaListener implements SchemaChangeListener {
+
+        @Override
+        public void onKeyspaceAdded(KeyspaceMetadata keyspace) {
+        }
+
+        @Override
+        public void onKeyspaceRemoved(KeyspaceMetadata keyspace) {
+            invalidate(keyspace.getName(), null);
+        }
+
+        @Override
+        public void onKeyspaceChanged(KeyspaceMetadata current, KeyspaceMetadata previous) {
+        }
+
+        @Override
+        public void onTableAdded(TableMetadata table) {
+            // A table can be dropped and recreated with different columns.
+            invalidate(table.getKeyspace().getName(), table.getName());
+        }
+
+        @Override
+        public void onTableRemoved(TableMetadata table) {
+            invalidate(table.getKeyspace().getName(), table.getName());
+        }
+
+        @Override
+        public void onTableChanged(TableMetadata current, TableMetadata previous) {
+            invalidate(current.getKeyspace().getName(), current.getName());
+        }
+
+        @Override
+        public void onUserTypeAdded(UserType type) {
+        }
+
+        @Override
+        public void onUserTypeRemoved(UserType type) {
+            invalidate(type.getKeyspace(), null);
+        }
+
+        @Override
+        public void onUserTypeChanged(UserType current, UserType previous) {
+            invalidate(current.getKeyspace(), null);
+        }
+
+        @Override
+        public void onFunctionAdded(FunctionMetadata function) {
+        }
+
+        @Override
+        public void onFunctionRemoved(FunctionMetadata function) {
+        }
+
+        @Override
+        public void onFunctionChanged(FunctionMetadata current, FunctionMetadata previous) {
+        }
+
+        @Override
+        public void onAggregateAdded(AggregateMetadata aggregate) {
+        }
+
+        @Override
+        public void onAggregateRemoved(AggregateMetadata aggregate) {
+        }
+
+        @Override
+        public void onAggregateChanged(AggregateMetadata current, AggregateMetadata previous) {
+        }
+
+        @Override
+        public void onMaterializedViewAdded(MaterializedViewMetadata view) {
+        }
+
+        @Override
+        public void onMaterializedViewRemoved(MaterializedViewMetadata view) {
+            invalidate(view.getKeyspace().getName(), view.getName());
+        }
+
+        @Override
+        public void onMaterializedViewChanged(MaterializedViewMetadata current, MaterializedViewMetadata previous) {
+            invalidate(current.getKeyspace().getName(), current.getName());
+        }
+
+        @Override
+        public void onRegister(Cluster cluster) {
+        }
+
+        @Override
+        public void onUnregister(Cluster cluster) {
+        }
+    }
+
+}
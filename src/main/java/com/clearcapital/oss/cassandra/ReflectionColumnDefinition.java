@@ -52,26 +52,56 @@ public class ReflectionColumnDefinition implements ColumnDefinition {
     }
 
     public void decode(Object target, Row row, Definition column) throws AssertException, ReflectiveOperationException {
-        Object value = CQLHelpers.getColumn(row, column);
-        if (value == null) {
+        decodeValue(target, CQLHelpers.getColumn(row, column));
+    }
+
+    /**
+     * Set {@code value}, which was read from this column, on {@code target}. Absent values (see
+     * {@link #isAbsent(Object)}) are skipped.
+     */
+    public void decodeValue(Object target, Object value) throws AssertException, ReflectiveOperationException {
+        if (isAbsent(value)) {
             return;
         }
+        ReflectionHelpers.setFieldValue(target, getReflectionPath(), value);
+    }
+
+    /**
+     * Cassandra doesn't distinguish between null and empty collections, so neither is written to the model.
+     */
+    public static boolean isAbsent(Object value) {
+        if (value == null) {
+            return true;
+        }
         if (value instanceof Collection && (CollectionUtils.isEmpty((Collection<?>) value))) {
-            return;
+            return true;
         }
         if (value instanceof Map && (MapUtils.isEmpty((Map<?, ?>) value))) {
-            return;
+            return true;
         }
-        ReflectionHelpers.setFieldValue(target, getReflectionPath(), value);
+        return false;
     }
 
     @Override
     public void encode(Map<String, Object> result, Object object) throws SerializingException, ReflectionPathException {
-        Object value = ReflectionHelpers.getFieldValue(object, getReflectionPath());
+        result.put(getColumnName(), encodeValue(object));
+    }
+
+    /**
+     * The value of this column for {@code object}.
+     */
+    public Object encodeValue(Object object) throws ReflectionPathException {
+        return encodeFieldValue(ReflectionHelpers.getFieldValue(object, getReflectionPath()));
+    }
+
+    /**
+     * Convert a field's value into the value written to Cassandra: enums are written by name.
+     */
+    public static Object encodeFieldValue(Object value) {
         if (value instanceof Enum) {
-            value = value.toString();
+            return value.toString();
         }
-        result.put(getColumnName(), value);
+        return value;
     }
 
     public ImmutableList<String> getReflectionPath() {
@@ -1,37 +1,77 @@
 package com.clearcapital.oss.cassandra;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.clearcapital.oss.cassandra.annotations.NearCacheOptions;
+import com.clearcapital.oss.cassandra.cache.NearCache;
 import com.clearcapital.oss.cassandra.configuration.RingConfiguration;
 import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.cassandra.limits.AdaptiveConcurrencyLimiter;
+import com.clearcapital.oss.cassandra.metrics.SessionInstrumentation;
+import com.clearcapital.oss.cassandra.retry.RetryPolicy;
 import com.clearcapital.oss.cassandra.test_support.CassandraTestResource;
 import com.clearcapital.oss.java.AssertHelpers;
 import com.clearcapital.oss.java.exceptions.AssertException;
+import com.clearcapital.oss.java.exceptions.ReflectionPathException;
 import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.KeyspaceMetadata;
 import com.datastax.driver.core.Metadata;
 import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.Session;
 
+/**
+ * Maintain a connection to a single ring.
+ *
+ * <p>
+ * Each driver {@link Session} owns its own connection pools, so RingClient keeps one long-lived {@link SessionHelper}
+ * per keyspace (plus one which isn't logged in to any keyspace). They are created on first use and closed by
+ * {@link #disconnect()}. Sessions are thread-safe; callers should ask for them as needed rather than caching them.
+ * </p>
+ */
 public class RingClient {
 
+    private static Logger log = LoggerFactory.getLogger(RingClient.class);
+
     private final RingConfiguration configuration;
     private final Cluster cluster;
+    private final ConcurrentMap<String, SessionHelper> keyspaceSessions = new ConcurrentHashMap<>();
+    private SessionHelper session;
+    private volatile SessionInstrumentation instrumentation = SessionInstrumentation.NONE;
+    private volatile RetryPolicy retryPolicy;
+    private volatile AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final PreparedStatementCache preparedStatementCache;
+    private final ConcurrentMap<Class<?>, NearCache<?>> nearCaches = new ConcurrentHashMap<>();
 
     public RingClient(RingConfiguration configuration) throws AssertException {
         AssertHelpers.notNull(configuration, "configuration");
 
-        Cluster.Builder builder = new Cluster.Builder();
-        for (String host : configuration.getHosts()) {
-            builder.addContactPoint(host);
-        }
-        if (configuration.getPort() != null) {
-            builder.withPort(configuration.getPort());
-        }
-
         this.configuration = configuration;
-        this.cluster = builder.build();
+        this.cluster = ClusterBuilderHelpers.builder(configuration).build();
+        this.preparedStatementCache = PreparedStatementCache.builder().build();
+        cluster.register(preparedStatementCache.getSchemaChangeListener());
+
+        if (log.isDebugEnabled()) {
+            try {
+                log.debug("Ring " + configuration.getHosts() + " load balancing policy: " + LoadBalancingPolicyHelpers
+                        .policyToString(cluster.getConfiguration().getPolicies().getLoadBalancingPolicy()));
+            } catch (ReflectionPathException e) {
+                log.debug("Could not describe load balancing policy", e);
+            }
+        }
     }
 
-    public SessionHelper getSession() {
-        return new SessionHelper(cluster.connect(), configuration);
+    /**
+     * A session which is not logged in to any keyspace.
+     */
+    public synchronized SessionHelper getSession() {
+        if (session == null) {
+            session = newSession(cluster.connect());
+        }
+        return session;
     }
 
     public SessionHelper getPreferredKeyspace() throws AssertException {
@@ -53,8 +93,22 @@ public class RingClient {
         return configuration.getPreferredKeyspace();
     }
 
+    /**
+     * A session logged in to {@code keyspaceName}. The session is shared by every caller asking for the same keyspace.
+     * Connecting happens outside the map; if two callers race, the loser closes its session and uses the winner's.
+     */
     public SessionHelper getKeyspace(String keyspaceName) {
-        return new SessionHelper(cluster.connect(keyspaceName), configuration);
+        SessionHelper result = keyspaceSessions.get(keyspaceName);
+        if (result == null) {
+            SessionHelper created = newSession(cluster.connect(keyspaceName));
+            result = keyspaceSessions.putIfAbsent(keyspaceName, created);
+            if (result == null) {
+                result = created;
+            } else {
+                created.close();
+            }
+        }
+        return result;
     }
 
     public KeyspaceMetadata getKeyspaceInfo(String keyspaceName) {
@@ -70,7 +124,8 @@ public class RingClient {
     }
 
     /**
-     * 
+     * Create a uniquely named keyspace. The returned {@link TemporaryKeyspace} owns its session, which is not shared
+     * with {@link #getKeyspace(String)}, and closes it when the keyspace is dropped.
      */
     public TemporaryKeyspace createTemporaryKeyspace(String keyspacePrefix)
             throws AssertException, CassandraException, InterruptedException {
@@ -80,7 +135,7 @@ public class RingClient {
                 if (!keyspaceExists(keyspaceName)) {
                     CassandraTestResource.log.debug("Creating unique keyspace session:" + keyspaceName);
                     getSession().createKeyspace(keyspaceName);
-                    return new TemporaryKeyspace(getKeyspace(keyspaceName));
+                    return new TemporaryKeyspace(newSession(cluster.connect(keyspaceName)));
                 }
             }
             Thread.sleep(1);
@@ -89,12 +144,126 @@ public class RingClient {
 
     public void dropKeyspace(String keyspaceName) {
         getSession().dropKeyspace(keyspaceName);
+        SessionHelper keyspaceSession = keyspaceSessions.remove(keyspaceName);
+        if (keyspaceSession != null) {
+            keyspaceSession.close();
+        }
     }
 
+    /**
+     * Close every cached session, then the cluster itself.
+     */
     public void disconnect() {
+        synchronized (this) {
+            if (session != null) {
+                session.close();
+                session = null;
+            }
+        }
+        for (String keyspaceName : keyspaceSessions.keySet()) {
+            SessionHelper keyspaceSession = keyspaceSessions.remove(keyspaceName);
+            if (keyspaceSession != null) {
+                keyspaceSession.close();
+            }
+        }
         cluster.close();
     }
 
+    /**
+     * Report every statement executed through this ring's sessions, existing and future, to {@code value}.
+     */
+    public void setInstrumentation(SessionInstrumentation value) {
+        instrumentation = value == null ? SessionInstrumentation.NONE : value;
+        synchronized (this) {
+            if (session != null) {
+                session.setInstrumentation(instrumentation);
+            }
+        }
+        for (SessionHelper keyspaceSession : keyspaceSessions.values()) {
+            keyspaceSession.setInstrumentation(instrumentation);
+        }
+    }
+
+    public SessionInstrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
+    /**
+     * Decide retries of statements executed through this ring's sessions, existing and future, with {@code value}; null
+     * for the default.
+     */
+    public void setRetryPolicy(RetryPolicy value) {
+        retryPolicy = value;
+        synchronized (this) {
+            if (session != null) {
+                session.setRetryPolicy(retryPolicy);
+            }
+        }
+        for (SessionHelper keyspaceSession : keyspaceSessions.values()) {
+            keyspaceSession.setRetryPolicy(retryPolicy);
+        }
+    }
+
+    /**
+     * The configured retry policy; null if {@link SessionHelper}'s default is in use.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Share {@code value} between all of this ring's sessions, existing and future, so that it limits the number of
+     * concurrent requests to the ring as a whole; null for no limit.
+     */
+    public void setConcurrencyLimiter(AdaptiveConcurrencyLimiter value) {
+        concurrencyLimiter = value;
+        synchronized (this) {
+            if (session != null) {
+                session.setConcurrencyLimiter(concurrencyLimiter);
+            }
+        }
+        for (SessionHelper keyspaceSession : keyspaceSessions.values()) {
+            keyspaceSession.setConcurrencyLimiter(concurrencyLimiter);
+        }
+    }
+
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    private SessionHelper newSession(Session driverSession) {
+        SessionHelper result = new SessionHelper(driverSession, configuration);
+        result.setInstrumentation(instrumentation);
+        result.setRetryPolicy(retryPolicy);
+        result.setConcurrencyLimiter(concurrencyLimiter);
+        result.setPreparedStatementCache(preparedStatementCache);
+        return result;
+    }
+
+    /**
+     * The prepared statements shared by this ring's sessions.
+     */
+    public PreparedStatementCache getPreparedStatementCache() {
+        return preparedStatementCache;
+    }
+
+    /**
+     * The near cache shared by every instance of {@code tableClass} on this ring; built from {@code options} on first
+     * use.
+     */
+    @SuppressWarnings("unchecked")
+    public <E> NearCache<E> getNearCache(Class<?> tableClass, NearCacheOptions options) throws AssertException {
+        NearCache<?> result = nearCaches.get(tableClass);
+        if (result == null) {
+            NearCache<E> created = NearCache.<E> builder().setOptions(options).build();
+            result = nearCaches.putIfAbsent(tableClass, created);
+            if (result == null) {
+                result = created;
+            }
+        }
+        return (NearCache<E>) result;
+    }
+
     public Cluster getCluster() {
         return cluster;
     }
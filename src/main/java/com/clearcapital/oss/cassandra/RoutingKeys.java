@@ -0,0 +1,48 @@
+package com.clearcapital.oss.cassandra;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Build routing keys, as used by {@link com.datastax.driver.core.policies.TokenAwarePolicy} to send a statement
+ * straight to a replica of its partition.
+ *
+ * <p>
+ * A routing key is the serialized partition key: the single column's bytes for a simple key; for a composite key, each
+ * column's bytes preceded by a 2-byte length and followed by a 0 byte.
+ * </p>
+ */
+public class RoutingKeys {
+
+    /**
+     * Compose a routing key from the serialized values of the partition key columns, in partition key order. Returns
+     * null if any of them is null.
+     */
+    public static ByteBuffer compose(ByteBuffer... components) {
+        if (components == null || components.length == 0) {
+            return null;
+        }
+        if (components.length == 1) {
+            return components[0] == null ? null : components[0].duplicate();
+        }
+
+        int size = 0;
+        for (ByteBuffer component : components) {
+            if (component == null) {
+                return null;
+            }
+            size += 2 + component.remaining() + 1;
+        }
+        ByteBuffer result = ByteBuffer.allocate(size);
+        for (ByteBuffer component : components) {
+            result.putShort((short) component.remaining());
+            result.put(component.duplicate());
+            result.put((byte) 0);
+        }
+        result.flip();
+        return result;
+    }
+
+    private RoutingKeys() {
+    }
+
+}
@@ -0,0 +1,261 @@
+package com.clearcapital.oss.cassandra;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.clearcapital.oss.cassandra.exceptions.CassandraDeserializationException;
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.clearcapital.oss.java.exceptions.DeserializingException;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.Row;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Primitives;
+
+/**
+ * Decodes rows with a given {@link ColumnDefinitions} into a table's model class.
+ *
+ * <p>
+ * {@link CassandraTableImpl#deserializeRow(Row)} used to match every column of every row to a {@link ColumnDefinition}
+ * by name, and set fields by walking a reflection path. A RowDecoder does the matching once, when it is compiled, and
+ * remembers the position of each column. Columns covered by the table's generated {@link TableCodec} are set directly;
+ * other single-segment reflection paths are resolved to a {@link MethodHandle} setter; anything else (nested paths,
+ * values that need converting) goes through {@link ReflectionColumnDefinition} as before.
+ * </p>
+ *
+ * <p>
+ * Decoders are immutable and thread-safe.
+ * </p>
+ */
+public class RowDecoder<ModelClass> {
+
+    private static Logger log = LoggerFactory.getLogger(RowDecoder.class);
+
+    private final ColumnDefinitions columnDefinitions;
+    private final ImmutableList<String> columnNames;
+    private final Class<ModelClass> modelClass;
+    private final MethodHandle constructor;
+    private final TableCodec<ModelClass> codec;
+    private final ImmutableList<Step> steps;
+
+    private RowDecoder(ColumnDefinitions columnDefinitions, Class<ModelClass> modelClass, MethodHandle constructor,
+            TableCodec<ModelClass> codec, ImmutableList<Step> steps) {
+        this.columnDefinitions = columnDefinitions;
+        this.columnNames = getColumnNames(columnDefinitions);
+        this.modelClass = modelClass;
+        this.constructor = constructor;
+        this.codec = codec;
+        this.steps = steps;
+    }
+
+    /**
+     * Compile a decoder for rows described by {@code columnDefinitions}, read from the table described by
+     * {@code descriptor}.
+     */
+    public static <ModelClass> RowDecoder<ModelClass> compile(TableDescriptor descriptor,
+            ColumnDefinitions columnDefinitions) throws AssertException {
+        AssertHelpers.notNull(descriptor, "descriptor");
+        AssertHelpers.notNull(columnDefinitions, "columnDefinitions");
+
+        @SuppressWarnings("unchecked")
+        Class<ModelClass> modelClass = (Class<ModelClass>) descriptor.getModelClass();
+        Map<String, ColumnDefinition> columnDefinitionMap = descriptor.getColumnDefinitionMap();
+        @SuppressWarnings("unchecked")
+        TableCodec<ModelClass> codec = (TableCodec<ModelClass>) descriptor.getCodec();
+        if (codec != null && codec.getColumnNames().isEmpty()) {
+            codec = null;
+        }
+
+        ImmutableList.Builder<Step> steps = ImmutableList.<Step> builder();
+        for (int index = 0; index < columnDefinitions.size(); ++index) {
+            String columnName = columnDefinitions.getName(index);
+            ColumnDefinition columnDefinition = columnDefinitionMap.get(columnName.toLowerCase());
+            if (columnDefinition == null || columnDefinition instanceof PlaceholderColumnDefinition) {
+                continue;
+            }
+            if (columnDefinition instanceof JsonColumnDefinition) {
+                steps.add(new Step(index, columnName, columnDefinition, -1, null));
+            } else if (columnDefinition instanceof ReflectionColumnDefinition) {
+                ReflectionColumnDefinition reflectionColumn = (ReflectionColumnDefinition) columnDefinition;
+                int codecIndex = codec == null ? -1 : codec.getColumnNames().indexOf(reflectionColumn.getColumnName());
+                steps.add(new Step(index, columnName, columnDefinition, codecIndex,
+                        codecIndex < 0 ? findSetter(modelClass, reflectionColumn) : null));
+            } else {
+                // Deserializing will fail when it reaches this column, exactly as it always has.
+                steps.add(new Step(index, columnName, columnDefinition, -1, null));
+            }
+        }
+
+        return new RowDecoder<ModelClass>(columnDefinitions, modelClass,
+                codec == null ? findConstructor(modelClass) : null, codec, steps.build());
+    }
+
+    /**
+     * True if this decoder was compiled for {@code definitions}: either the very same instance (the common case, since
+     * rows from a page share theirs) or one with the same column names in the same order.
+     */
+    public boolean canDecode(ColumnDefinitions definitions) {
+        if (definitions == columnDefinitions) {
+            return true;
+        }
+        if (definitions.size() != columnNames.size()) {
+            return false;
+        }
+        for (int index = 0; index < columnNames.size(); ++index) {
+            if (!columnNames.get(index).equals(definitions.getName(index))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public ImmutableList<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public ModelClass decode(Row row) throws CassandraDeserializationException {
+        if (row == null) {
+            return null;
+        }
+        try {
+            ModelClass result = null;
+            for (Step step : steps) {
+                ColumnDefinition columnDefinition = step.columnDefinition;
+                try {
+                    if (columnDefinition instanceof JsonColumnDefinition) {
+                        return ((JsonColumnDefinition) columnDefinition).<ModelClass> decodeValue(
+                                row.getObject(step.index));
+                    } else if (columnDefinition instanceof ReflectionColumnDefinition) {
+                        if (result == null) {
+                            result = newInstance();
+                        }
+                        Object value = row.getObject(step.index);
+                        if (!ReflectionColumnDefinition.isAbsent(value)) {
+                            set(step, result, value);
+                        }
+                    } else {
+                        AssertHelpers.isTrue(false,
+                                "Unexpected ColumnDefinition subclass:" + columnDefinition.getClass().getName());
+                    }
+                } catch (IllegalArgumentException | IllegalAccessException | SecurityException e) {
+                    log.trace("Could not deserialize column:" + step.columnName, e);
+                }
+            }
+            return result;
+        } catch (AssertException | ReflectiveOperationException | DeserializingException e) {
+            throw new CassandraDeserializationException(e);
+        }
+    }
+
+    private void set(Step step, ModelClass target, Object value)
+            throws AssertException, ReflectiveOperationException {
+        if (step.codecIndex >= 0) {
+            try {
+                codec.setValue(step.codecIndex, target, value);
+                return;
+            } catch (ClassCastException e) {
+                // Not the type the codec expected; let reflection convert it, or fail as it always has.
+            }
+        }
+        step.set(target, value);
+    }
+
+    private ModelClass newInstance() throws ReflectiveOperationException {
+        if (codec != null) {
+            return codec.newModel();
+        }
+        if (constructor == null) {
+            return modelClass.newInstance();
+        }
+        try {
+            return modelClass.cast(constructor.invokeExact());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new InstantiationException(t.toString());
+        }
+    }
+
+    private static ImmutableList<String> getColumnNames(ColumnDefinitions definitions) {
+        ImmutableList.Builder<String> result = ImmutableList.<String> builder();
+        for (int index = 0; index < definitions.size(); ++index) {
+            result.add(definitions.getName(index));
+        }
+        return result.build();
+    }
+
+    private static MethodHandle findConstructor(Class<?> modelClass) {
+        MethodHandle result = FieldAccessors.constructor(modelClass);
+        if (result == null) {
+            log.debug("No usable no-arg constructor on " + modelClass.getName() + "; falling back to newInstance()");
+        }
+        return result;
+    }
+
+    /**
+     * Resolve a setter for single-segment paths to a plain, non-final instance field. Returns null if the path can't be
+     * resolved that simply, in which case {@link ReflectionColumnDefinition#decodeValue(Object, Object)} is used.
+     */
+    private static FieldSetter findSetter(Class<?> modelClass, ReflectionColumnDefinition column) {
+        Field field = FieldAccessors.findField(modelClass, column.getReflectionPath());
+        MethodHandle setter = FieldAccessors.setter(field);
+        if (setter == null) {
+            return null;
+        }
+        return new FieldSetter(Primitives.wrap(field.getType()), setter);
+    }
+
+    private static class FieldSetter {
+
+        final Class<?> valueType;
+        final MethodHandle setter;
+
+        FieldSetter(Class<?> valueType, MethodHandle setter) {
+            this.valueType = valueType;
+            this.setter = setter;
+        }
+
+        /**
+         * @return false if {@code value} isn't directly assignable, and so needs to take the slow path.
+         */
+        boolean set(Object target, Object value) {
+            if (!valueType.isInstance(value)) {
+                return false;
+            }
+            try {
+                setter.invokeExact(target, value);
+            } catch (Throwable t) {
+                throw FieldAccessors.propagate(t);
+            }
+            return true;
+        }
+    }
+
+    private static class Step {
+
+        final int index;
+        final String columnName;
+        final ColumnDefinition columnDefinition;
+        final int codecIndex;
+        final FieldSetter setter;
+
+        Step(int index, String columnName, ColumnDefinition columnDefinition, int codecIndex, FieldSetter setter) {
+            this.index = index;
+            this.columnName = columnName;
+            this.columnDefinition = columnDefinition;
+            this.codecIndex = codecIndex;
+            this.setter = setter;
+        }
+
+        void set(Object target, Object value) throws AssertException, ReflectiveOperationException {
+            if (setter == null || !setter.set(target, value)) {
+                ((ReflectionColumnDefinition) columnDefinition).decodeValue(target, value);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,357 @@
+package com.clearcapital.oss.cassandra;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.clearcapital.oss.java.exceptions.ReflectionPathException;
+import com.clearcapital.oss.java.exceptions.SerializingException;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.exceptions.CodecNotFoundException;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+import com.datastax.driver.core.querybuilder.Insert;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Binds a table's model objects directly into prepared inserts.
+ *
+ * <p>
+ * The original write path encoded each model into a {@code Map<String,Object>}, stripped the nulls and built an
+ * unprepared insert with inline values. A RowEncoder instead reads each column's value straight from the model (through
+ * the table's generated {@link TableCodec}, where there is one) and binds it by position. Null values are handled the
+ * same way {@code CassandraTableImpl.updateStatement} always has: a null in a forced field is written as a null; any
+ * other null is not written at all.
+ * </p>
+ *
+ * <p>
+ * With protocol v4 and later "not written" means <em>unset</em>, so a single prepared statement covering every column
+ * serves every write. Older protocols require every variable to be bound, so there one prepared statement is cached for
+ * each distinct set of written columns.
+ * </p>
+ *
+ * <p>
+ * Encoders are thread-safe.
+ * </p>
+ */
+public class RowEncoder<ModelClass> {
+
+    private final SessionHelper session;
+    private final String tableName;
+    private final ImmutableList<ColumnDefinition> columns;
+    private final TableCodec<ModelClass> codec;
+    private final int[] codecIndexes;
+    private final MethodHandle[] getters;
+    private final DataType[] dataTypes;
+    private final boolean supportsUnset;
+    private final CodecRegistry codecRegistry;
+    private final int[] routingColumns;
+    private final BitSet allColumns;
+    private final PreparedStatement insertAllColumns;
+    private final ConcurrentMap<BitSet, PreparedStatement> insertsByColumns = new ConcurrentHashMap<>();
+    private final long schemaGeneration;
+
+    /**
+     * Codecs are looked up on first use and then reused for as long as they accept the column's values. Racing
+     * lookups are harmless; they find the same codec. Values of a Java type the column has no codec for go through a
+     * {@link LiteralCodec}.
+     */
+    private final TypeCodec<Object>[] codecs;
+
+    @SuppressWarnings("unchecked")
+    private RowEncoder(TableDescriptor descriptor, SessionHelper session) {
+        this.session = session;
+        this.tableName = descriptor.getTableName();
+        this.schemaGeneration = getSchemaGeneration(session);
+
+        ImmutableList.Builder<ColumnDefinition> columnsBuilder = ImmutableList.<ColumnDefinition> builder();
+        for (ColumnDefinition column : descriptor.getColumnDefinitions()) {
+            if (column instanceof ManualColumnDefinition || column instanceof PlaceholderColumnDefinition) {
+                // These are populated by the table class or by Cassandra itself; encode() never writes them.
+                continue;
+            }
+            columnsBuilder.add(column);
+        }
+        this.columns = columnsBuilder.build();
+
+        this.routingColumns = findRoutingColumns(descriptor, columns);
+
+        this.codec = (TableCodec<ModelClass>) descriptor.getCodec();
+        this.codecIndexes = new int[columns.size()];
+        this.getters = new MethodHandle[columns.size()];
+        for (int index = 0; index < columns.size(); ++index) {
+            ColumnDefinition column = columns.get(index);
+            codecIndexes[index] = codec == null ? -1 : codec.getColumnNames().indexOf(column.getColumnName());
+            if (column instanceof ReflectionColumnDefinition && codecIndexes[index] < 0) {
+                getters[index] = FieldAccessors.getter(FieldAccessors.findField(descriptor.getModelClass(),
+                        ((ReflectionColumnDefinition) column).getReflectionPath()));
+            }
+        }
+
+        ProtocolVersion protocolVersion = session.getSession().getCluster().getConfiguration().getProtocolOptions()
+                .getProtocolVersion();
+        this.supportsUnset = protocolVersion.compareTo(ProtocolVersion.V4) >= 0;
+        this.codecRegistry = session.getSession().getCluster().getConfiguration().getCodecRegistry();
+        this.codecs = new TypeCodec[columns.size()];
+
+        this.allColumns = new BitSet(columns.size());
+        allColumns.set(0, columns.size());
+        this.insertAllColumns = prepareInsert(allColumns);
+        insertsByColumns.put(allColumns, insertAllColumns);
+
+        this.dataTypes = new DataType[columns.size()];
+        for (int index = 0; index < columns.size(); ++index) {
+            dataTypes[index] = insertAllColumns.getVariables().getType(index);
+        }
+    }
+
+    /**
+     * Compile an encoder for the table described by {@code descriptor}, preparing its statements in {@code session}.
+     */
+    public static <ModelClass> RowEncoder<ModelClass> compile(TableDescriptor descriptor, SessionHelper session)
+            throws AssertException {
+        AssertHelpers.notNull(descriptor, "descriptor");
+        AssertHelpers.notNull(session, "session");
+        return new RowEncoder<ModelClass>(descriptor, session);
+    }
+
+    /**
+     * False once the schema has changed since this encoder prepared its statements, which may no longer match the
+     * table's columns; compile a new one.
+     */
+    public boolean isCurrent() {
+        return schemaGeneration == getSchemaGeneration(session);
+    }
+
+    private static long getSchemaGeneration(SessionHelper session) {
+        PreparedStatementCache cache = session.getPreparedStatementCache();
+        return cache == null ? 0 : cache.getSchemaGeneration();
+    }
+
+    public ImmutableList<ColumnDefinition> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Bind {@code model} into an insert.
+     *
+     * @param forcedFields
+     *            column names whose null values should be written as nulls (tombstones). Null values in other columns
+     *            are not written. May be null.
+     */
+    public BoundStatement bind(final ModelClass model, final Collection<String> forcedFields)
+            throws AssertException, ReflectionPathException, SerializingException {
+        AssertHelpers.notNull(model, "model");
+
+        Object[] values = new Object[columns.size()];
+        for (int index = 0; index < columns.size(); ++index) {
+            values[index] = encodeValue(index, model);
+        }
+
+        if (supportsUnset) {
+            BoundStatement result = insertAllColumns.bind();
+            for (int index = 0; index < columns.size(); ++index) {
+                Object value = values[index];
+                if (value != null) {
+                    result.set(index, value, getCodec(index, value));
+                } else if (isForced(index, forcedFields)) {
+                    result.setToNull(index);
+                } else {
+                    result.unset(index);
+                }
+            }
+            setRoutingKey(result, values, allColumns);
+            return result;
+        }
+
+        BitSet written = new BitSet(columns.size());
+        for (int index = 0; index < columns.size(); ++index) {
+            if (values[index] != null || isForced(index, forcedFields)) {
+                written.set(index);
+            }
+        }
+        BoundStatement result = getInsert(written).bind();
+        int variable = 0;
+        for (int index = written.nextSetBit(0); index >= 0; index = written.nextSetBit(index + 1)) {
+            Object value = values[index];
+            if (value != null) {
+                result.set(variable, value, getCodec(index, value));
+            } else {
+                result.setToNull(variable);
+            }
+            ++variable;
+        }
+        setRoutingKey(result, values, written);
+        return result;
+    }
+
+    /**
+     * The driver can usually work the routing key out from the prepared statement's metadata, but not always (e.g.
+     * when schema metadata is disabled). Setting it explicitly, from bytes which have already been serialized, makes
+     * sure every write goes straight to a replica.
+     */
+    private void setRoutingKey(BoundStatement statement, Object[] values, BitSet written) {
+        if (routingColumns == null) {
+            return;
+        }
+        ByteBuffer[] components = new ByteBuffer[routingColumns.length];
+        for (int component = 0; component < routingColumns.length; ++component) {
+            int index = routingColumns[component];
+            if (values[index] == null) {
+                return;
+            }
+            // The column's variable index is its position among the written columns.
+            int variable = written == allColumns ? index : written.get(0, index).cardinality();
+            components[component] = statement.getBytesUnsafe(variable);
+        }
+        statement.setRoutingKey(RoutingKeys.compose(components));
+    }
+
+    /**
+     * Positions in {@code columns} of the partition key columns, in partition key order; null if any of them isn't
+     * written by this encoder.
+     */
+    private static int[] findRoutingColumns(TableDescriptor descriptor, ImmutableList<ColumnDefinition> columns) {
+        ImmutableList<ColumnDefinition> partitionKey = descriptor.getPartitionKeyColumns();
+        if (partitionKey == null || partitionKey.isEmpty()) {
+            return null;
+        }
+        int[] result = new int[partitionKey.size()];
+        for (int component = 0; component < partitionKey.size(); ++component) {
+            result[component] = columns.indexOf(partitionKey.get(component));
+            if (result[component] < 0) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    private Object encodeValue(int index, ModelClass model) throws ReflectionPathException, SerializingException {
+        ColumnDefinition column = columns.get(index);
+        if (codecIndexes[index] >= 0) {
+            return ReflectionColumnDefinition.encodeFieldValue(codec.getValue(codecIndexes[index], model));
+        } else if (getters[index] != null) {
+            try {
+                return ReflectionColumnDefinition.encodeFieldValue(getters[index].invokeExact(model));
+            } catch (Throwable t) {
+                throw FieldAccessors.propagate(t);
+            }
+        } else if (column instanceof ReflectionColumnDefinition) {
+            return ((ReflectionColumnDefinition) column).encodeValue(model);
+        } else if (column instanceof JsonColumnDefinition) {
+            return ((JsonColumnDefinition) column).encodeValue(model);
+        }
+        Map<String, Object> encoded = new HashMap<>();
+        column.encode(encoded, model);
+        return encoded.get(column.getColumnName());
+    }
+
+    private boolean isForced(int index, Collection<String> forcedFields) {
+        return forcedFields != null && forcedFields.contains(columns.get(index).getColumnName());
+    }
+
+    private TypeCodec<Object> getCodec(int index, Object value) {
+        TypeCodec<Object> result = codecs[index];
+        if (result == null || !result.accepts(value)) {
+            try {
+                result = codecRegistry.codecFor(dataTypes[index], value);
+            } catch (CodecNotFoundException e) {
+                result = new LiteralCodec(columns.get(index).getColumnName(), codecRegistry.codecFor(value),
+                        codecRegistry.<Object> codecFor(dataTypes[index]));
+            }
+            codecs[index] = result;
+        }
+        return result;
+    }
+
+    private PreparedStatement getInsert(BitSet written) {
+        PreparedStatement result = insertsByColumns.get(written);
+        if (result == null) {
+            // The session's statement cache, if any, makes a racing prepare cheap.
+            result = prepareInsert(written);
+            PreparedStatement existing = insertsByColumns.putIfAbsent((BitSet) written.clone(), result);
+            if (existing != null) {
+                result = existing;
+            }
+        }
+        return result;
+    }
+
+    private PreparedStatement prepareInsert(BitSet written) {
+        String[] columnNames = new String[written.cardinality()];
+        int variable = 0;
+        for (int index = written.nextSetBit(0); index >= 0; index = written.nextSetBit(index + 1)) {
+            columnNames[variable++] = columns.get(index).getColumnName();
+        }
+        Object[] bindMarkers = new Object[columnNames.length];
+        Arrays.fill(bindMarkers, QueryBuilder.bindMarker());
+
+        Insert insert = QueryBuilder.insertInto(tableName).values(columnNames, bindMarkers);
+        return session.prepare(insert);
+    }
+
+    /**
+     * Converts a value of the wrong Java type for its column (e.g. an Integer for a bigint) the way the old write path,
+     * which inlined values as CQL literals, did: formats it as a literal, then parses that as the column's type.
+     * Values which Cassandra would have rejected as literals fail to parse, naming the column and both types.
+     */
+    private static class LiteralCodec extends TypeCodec<Object> {
+
+        private final String columnName;
+        private final TypeCodec<Object> valueCodec;
+        private final TypeCodec<Object> columnCodec;
+
+        LiteralCodec(String columnName, TypeCodec<Object> valueCodec, TypeCodec<Object> columnCodec) {
+            super(columnCodec.getCqlType(), Object.class);
+            this.columnName = columnName;
+            this.valueCodec = valueCodec;
+            this.columnCodec = columnCodec;
+        }
+
+        @Override
+        public boolean accepts(Object value) {
+            return valueCodec.accepts(value);
+        }
+
+        @Override
+        public ByteBuffer serialize(Object value, ProtocolVersion protocolVersion) {
+            Object converted;
+            try {
+                converted = columnCodec.parse(valueCodec.format(value));
+            } catch (InvalidTypeException e) {
+                throw new InvalidTypeException("Cannot write " + valueCodec.getJavaType() + " " + value + " to column "
+                        + columnName + " of type " + getCqlType() + " (" + columnCodec.getJavaType() + ")", e);
+            }
+            return columnCodec.serialize(converted, protocolVersion);
+        }
+
+        @Override
+        public Object deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+            return columnCodec.deserialize(bytes, protocolVersion);
+        }
+
+        @Override
+        public Object parse(String value) {
+            return columnCodec.parse(value);
+        }
+
+        @Override
+        public String format(Object value) {
+            return valueCodec.format(value);
+        }
+    }
+
+}
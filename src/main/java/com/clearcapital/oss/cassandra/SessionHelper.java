@@ -3,6 +3,10 @@ package com.clearcapital.oss.cassandra;
 import java.net.URI;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.core.UriBuilder;
 
@@ -11,13 +15,19 @@ import org.slf4j.LoggerFactory;
 
 import com.clearcapital.oss.cassandra.configuration.RingConfiguration;
 import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.cassandra.limits.AdaptiveConcurrencyLimiter;
+import com.clearcapital.oss.cassandra.metrics.SessionInstrumentation;
 import com.clearcapital.oss.cassandra.replication_strategies.ReplicationStrategy;
 import com.clearcapital.oss.cassandra.replication_strategies.SimpleStrategy;
+import com.clearcapital.oss.cassandra.retry.ExponentialBackoffRetryPolicy;
+import com.clearcapital.oss.cassandra.retry.RetryPolicy;
+import com.clearcapital.oss.java.exceptions.AssertException;
 import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.KeyspaceMetadata;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.RegularStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.SimpleStatement;
 import com.datastax.driver.core.Statement;
@@ -27,16 +37,30 @@ import com.datastax.driver.core.exceptions.NoHostAvailableException;
 import com.datastax.driver.core.exceptions.QueryExecutionException;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.schemabuilder.SchemaBuilder;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public class SessionHelper {
 
     private static Logger log = LoggerFactory.getLogger(SessionHelper.class);
 
     private static int MAX_RETRIES = 3;
-    private static int RETRY_DELAY = 500;
+
+    /**
+     * Exponential backoff from the 500ms fixed delay used before retry policies were configurable.
+     */
+    private static final RetryPolicy DEFAULT_RETRY_POLICY = createDefaultRetryPolicy();
 
     private Session session;
     private RingConfiguration ringConfiguration;
+    private volatile SessionInstrumentation instrumentation = SessionInstrumentation.NONE;
+    private volatile RetryPolicy retryPolicy = DEFAULT_RETRY_POLICY;
+    private volatile AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private volatile PreparedStatementCache preparedStatementCache;
 
     public SessionHelper(Session session, RingConfiguration ringConfiguration) {
         this.session = session;
@@ -46,28 +70,52 @@ public class SessionHelper {
     /**
      * Executes the statement.
      * 
+     * @param maxRetries
+     *            the maximum number of attempts. Within that, the {@link RetryPolicy} decides whether and when to
+     *            retry.
      * @throws CassandraException
      *             A translation of NoHostAvailableException, QueryExecutionException, or InvalidQueryException; all of
      *             these are unchecked exceptions, which seems somewhat wrong to us, since an application really needs
-     *             to know that they should be handled.
+     *             to know that they should be handled. Also thrown if the thread is interrupted while waiting to
+     *             retry, in which case its interrupt status is restored.
      */
     public ResultSet execute(Statement statement, int maxRetries, boolean expandBatchOnFailure)
             throws CassandraException {
+        return execute(statement, null, maxRetries, expandBatchOnFailure);
+    }
+
+    /**
+     * Executes the statement, reporting it to the {@link SessionInstrumentation} as a statement against
+     * {@code tableName}.
+     * 
+     * @see #execute(Statement, int, boolean)
+     */
+    public ResultSet execute(Statement statement, String tableName, int maxRetries, boolean expandBatchOnFailure)
+            throws CassandraException {
         int retries = 0;
+        long firstStart = System.nanoTime();
 
         // This isn't actually an infinite loop: either session.execute() will
         // work, or ++retries will exceed
-        // maxRetries, or we'll see an InvalidQueryException
+        // maxRetries, or the retry policy gives up, or we'll see an InvalidQueryException
         while (true) {
+            long start = System.nanoTime();
+            long retryDelay;
             try {
-                return session.execute(statement);
+                ResultSet result = executeOnce(statement);
+                instrumentation.onSuccess(statement, tableName, System.nanoTime() - start);
+                return result;
             } catch (NoHostAvailableException | QueryExecutionException e) {
-                if (++retries >= maxRetries) {
+                retryDelay = getRetryDelay(statement, e, ++retries, maxRetries, firstStart);
+                if (retryDelay < 0) {
+                    instrumentation.onFailure(statement, tableName, e, System.nanoTime() - start);
                     throw new CassandraException(e);
                 }
-                log.debug("retrying query after " + e.getClass().getSimpleName() + ". Retry " + retries + " of "
-                        + maxRetries + " exception:" + e);
+                instrumentation.onRetry(statement, tableName, e, retries);
+                log.debug("retrying query in " + retryDelay + "ms after " + e.getClass().getSimpleName() + ". Retry "
+                        + retries + " of " + maxRetries + " exception:" + e);
             } catch (InvalidQueryException iqe) {
+                instrumentation.onFailure(statement, tableName, iqe, System.nanoTime() - start);
                 String queryString = CQLHelpers.getQueryText(statement);
                 log.debug("InvalidQueryException caught. Here is the queryString:" + queryString, iqe);
                 if (expandBatchOnFailure) {
@@ -81,22 +129,249 @@ public class SessionHelper {
                             log.trace("Attempting:" + CQLHelpers.getQueryText(child));
 
                             // we intentionally allow CassandraExceptions to propagate from this call:
-                            execute(child, maxRetries, false);
+                            execute(child, tableName, maxRetries, false);
                         }
                     }
                 }
                 throw new CassandraException(iqe);
+            } catch (RuntimeException e) {
+                instrumentation.onFailure(statement, tableName, e, System.nanoTime() - start);
+                throw e;
             }
             try {
-                Thread.sleep(RETRY_DELAY);
+                Thread.sleep(retryDelay);
             } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CassandraException("Interrupted while waiting to retry", e);
             }
         }
 
     }
 
+    /**
+     * One attempt at executing {@code statement}, within the {@link AdaptiveConcurrencyLimiter} if there is one.
+     */
+    private ResultSet executeOnce(Statement statement) throws CassandraException {
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiter;
+        if (limiter == null) {
+            return session.execute(statement);
+        }
+        ListenableFuture<Void> permit = limiter.acquire();
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            if (!permit.cancel(false)) {
+                limiter.onIgnored();
+            }
+            Thread.currentThread().interrupt();
+            throw new CassandraException("Interrupted while waiting to execute", e);
+        } catch (ExecutionException e) {
+            throw new CassandraException(e.getCause());
+        }
+        long start = System.nanoTime();
+        try {
+            ResultSet result = session.execute(statement);
+            limiter.onSuccess(System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            limiter.onFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * The delay before making attempt {@code retries + 1}, or a negative number if there should be no such attempt.
+     */
+    private long getRetryDelay(Statement statement, Throwable cause, int retries, int maxRetries, long firstStart) {
+        if (retries >= maxRetries) {
+            return RetryPolicy.DO_NOT_RETRY;
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstStart);
+        return retryPolicy.getRetryDelayMillis(statement, cause, retries, elapsedMillis);
+    }
+
     public ResultSet execute(final Statement statement) throws CassandraException {
-        return execute(statement, MAX_RETRIES, false);
+        return execute(statement, null, MAX_RETRIES, false);
+    }
+
+    public ResultSet execute(final Statement statement, final String tableName) throws CassandraException {
+        return execute(statement, tableName, MAX_RETRIES, false);
+    }
+
+    /**
+     * Executes the statement asynchronously, with the same retry behavior as {@link #execute(Statement, int, boolean)}.
+     * Retries are scheduled rather than slept for, so no thread is blocked while waiting to retry.
+     * 
+     * <p>
+     * The returned future fails with a {@link CassandraException} wherever {@link #execute(Statement, int, boolean)}
+     * would have thrown one.
+     * </p>
+     */
+    public ListenableFuture<ResultSet> executeAsync(final Statement statement, final int maxRetries) {
+        return executeAsync(statement, null, maxRetries);
+    }
+
+    public ListenableFuture<ResultSet> executeAsync(final Statement statement) {
+        return executeAsync(statement, null, MAX_RETRIES);
+    }
+
+    /**
+     * Executes the statement asynchronously, reporting it to the {@link SessionInstrumentation} as a statement against
+     * {@code tableName}.
+     * 
+     * @see #executeAsync(Statement, int)
+     */
+    public ListenableFuture<ResultSet> executeAsync(final Statement statement, final String tableName,
+            final int maxRetries) {
+        SettableFuture<ResultSet> result = SettableFuture.create();
+        executeAsync(statement, tableName, maxRetries, 0, System.nanoTime(), result);
+        return result;
+    }
+
+    public ListenableFuture<ResultSet> executeAsync(final Statement statement, final String tableName) {
+        return executeAsync(statement, tableName, MAX_RETRIES);
+    }
+
+    private void executeAsync(final Statement statement, final String tableName, final int maxRetries,
+            final int retries, final long firstStart, final SettableFuture<ResultSet> result) {
+        final AdaptiveConcurrencyLimiter limiter = concurrencyLimiter;
+        if (limiter == null) {
+            executeAsyncOnce(statement, tableName, maxRetries, retries, firstStart, result, null);
+            return;
+        }
+        Futures.addCallback(limiter.acquire(), new FutureCallback<Void>() {
+
+            @Override
+            public void onSuccess(Void value) {
+                executeAsyncOnce(statement, tableName, maxRetries, retries, firstStart, result, limiter);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                result.setException(t);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private void executeAsyncOnce(final Statement statement, final String tableName, final int maxRetries,
+            final int retries, final long firstStart, final SettableFuture<ResultSet> result,
+            final AdaptiveConcurrencyLimiter limiter) {
+        final long start = System.nanoTime();
+        ResultSetFuture future;
+        try {
+            future = session.executeAsync(statement);
+        } catch (RuntimeException e) {
+            if (limiter != null) {
+                limiter.onFailure(e);
+            }
+            instrumentation.onFailure(statement, tableName, e, System.nanoTime() - start);
+            result.setException(e);
+            return;
+        }
+        if (limiter != null) {
+            limiter.releaseWhenDone(future, start);
+        }
+        Futures.addCallback(future, new FutureCallback<ResultSet>() {
+
+            @Override
+            public void onSuccess(ResultSet resultSet) {
+                instrumentation.onSuccess(statement, tableName, System.nanoTime() - start);
+                result.set(resultSet);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (t instanceof NoHostAvailableException || t instanceof QueryExecutionException) {
+                    long retryDelay = getRetryDelay(statement, t, retries + 1, maxRetries, firstStart);
+                    if (retryDelay < 0) {
+                        instrumentation.onFailure(statement, tableName, t, System.nanoTime() - start);
+                        result.setException(new CassandraException(t));
+                        return;
+                    }
+                    instrumentation.onRetry(statement, tableName, t, retries + 1);
+                    log.debug("retrying query in " + retryDelay + "ms after " + t.getClass().getSimpleName()
+                            + ". Retry " + (retries + 1) + " of " + maxRetries + " exception:" + t);
+                    RetryScheduler.instance.schedule(new Runnable() {
+
+                        @Override
+                        public void run() {
+                            executeAsync(statement, tableName, maxRetries, retries + 1, firstStart, result);
+                        }
+                    }, retryDelay, TimeUnit.MILLISECONDS);
+                } else if (t instanceof InvalidQueryException) {
+                    instrumentation.onFailure(statement, tableName, t, System.nanoTime() - start);
+                    log.debug("InvalidQueryException caught. Here is the queryString:"
+                            + CQLHelpers.getQueryText(statement), t);
+                    result.setException(new CassandraException(t));
+                } else {
+                    instrumentation.onFailure(statement, tableName, t, System.nanoTime() - start);
+                    result.setException(t);
+                }
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Delays asynchronous retries. Created on first use, so synchronous-only applications never start its thread.
+     */
+    private static class RetryScheduler {
+
+        static final ScheduledExecutorService instance = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("cassandra-retry-%d").build());
+    }
+
+    public SessionInstrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
+    /**
+     * Report every statement executed through this session to {@code value}; null to stop.
+     */
+    public void setInstrumentation(SessionInstrumentation value) {
+        instrumentation = value == null ? SessionInstrumentation.NONE : value;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Decide retries of statements executed through this session with {@code value}; null to restore the default
+     * exponential backoff.
+     */
+    public void setRetryPolicy(RetryPolicy value) {
+        retryPolicy = value == null ? DEFAULT_RETRY_POLICY : value;
+    }
+
+    private static RetryPolicy createDefaultRetryPolicy() {
+        try {
+            return ExponentialBackoffRetryPolicy.builder().build();
+        } catch (AssertException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Limit the number of statements executing at once through this session (and any other sharing {@code value});
+     * null for no limit.
+     */
+    public void setConcurrencyLimiter(AdaptiveConcurrencyLimiter value) {
+        concurrencyLimiter = value;
+    }
+
+    public PreparedStatementCache getPreparedStatementCache() {
+        return preparedStatementCache;
+    }
+
+    /**
+     * Share the statements prepared through this session via {@code value}; null to prepare every time.
+     */
+    public void setPreparedStatementCache(PreparedStatementCache value) {
+        preparedStatementCache = value;
     }
 
     public KeyspaceMetadata getKeyspaceInfo() {
@@ -144,7 +419,16 @@ public class SessionHelper {
         return execute(new SimpleStatement(string));
     }
 
+    /**
+     * Prepare {@code value}, or reuse an identical statement prepared earlier if this session has a
+     * {@link PreparedStatementCache}. The result may be shared, so don't modify it: set consistency levels and the like
+     * on {@code value} instead.
+     */
     public PreparedStatement prepare(RegularStatement value) {
+        PreparedStatementCache cache = preparedStatementCache;
+        if (cache != null) {
+            return cache.prepare(session, value);
+        }
         return session.prepare(value);
     }
 
@@ -187,4 +471,11 @@ public class SessionHelper {
     public void truncateTable(String tableName) {
         session.execute(QueryBuilder.truncate(tableName));
     }
+
+    /**
+     * Close the underlying session, releasing its connection pools.
+     */
+    public void close() {
+        session.close();
+    }
 }
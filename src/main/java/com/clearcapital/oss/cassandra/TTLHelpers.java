@@ -7,6 +7,11 @@ public class TTLHelpers {
 
     public static final String TTLColumnName = "ttl";
 
+    /**
+     * The TTL to bind to {@code USING TTL ?} for data which should not expire.
+     */
+    public static final int NO_TTL = 0;
+
     public static Integer getTTL(final TimeUnit timeUnit, final Integer ttlDuration) {
         if (isValidTTL(timeUnit, ttlDuration)) {
             return Integer.valueOf((int) timeUnit.toSeconds(ttlDuration));
@@ -14,6 +19,15 @@ public class TTLHelpers {
         return null;
     }
 
+    /**
+     * The TTL in seconds to bind to {@code USING TTL ?}; {@link #NO_TTL} if the TTL isn't valid, just as
+     * {@code getTTL()} returning null means no TTL clause.
+     */
+    public static int getBindableTTL(final TimeUnit timeUnit, final Integer ttlDuration) {
+        Integer result = getTTL(timeUnit, ttlDuration);
+        return result == null ? NO_TTL : result;
+    }
+
     public static boolean isValidTTL(final Integer ttlDurationInSeconds) {
         if (ttlDurationInSeconds == null) {
             return false;
@@ -0,0 +1,41 @@
+package com.clearcapital.oss.cassandra;
+
+import com.clearcapital.oss.cassandra.annotation_processors.TableCodecProcessor;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Direct, reflection-free access to the reflection-mapped columns of a table's model class.
+ *
+ * <p>
+ * Implementations are generated at compile time by {@link TableCodecProcessor}, one per {@code @CassandraTable} class,
+ * named after the table class with {@link #CLASS_NAME_SUFFIX} appended, for model classes with an accessible no-arg
+ * constructor. {@link TableDescriptor} finds them by name; tables without one keep using reflection. A codec only
+ * covers the columns it could map to a plain field, so {@link #getColumnNames()} may be a subset of the table's
+ * reflection columns.
+ * </p>
+ */
+public interface TableCodec<ModelClass> {
+
+    public static final String CLASS_NAME_SUFFIX = "Codec";
+
+    /**
+     * Names of the columns this codec can read and write; {@code index} arguments are positions in this list.
+     */
+    public ImmutableList<String> getColumnNames();
+
+    public ModelClass newModel();
+
+    /**
+     * The value of the field mapped to column {@code index}, as stored in the model.
+     */
+    public Object getValue(int index, ModelClass model);
+
+    /**
+     * Set the field mapped to column {@code index}.
+     *
+     * @throws ClassCastException
+     *             if {@code value} isn't of the column's Java type.
+     */
+    public void setValue(int index, ModelClass model, Object value);
+
+}
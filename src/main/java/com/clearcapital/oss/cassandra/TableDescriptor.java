@@ -0,0 +1,182 @@
+package com.clearcapital.oss.cassandra;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.clearcapital.oss.cassandra.ColumnDefinition.ColumnOption;
+import com.clearcapital.oss.cassandra.annotation_processors.CassandraTableProcessor;
+import com.clearcapital.oss.cassandra.annotations.CassandraTable;
+import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Everything {@link CassandraTableImpl} needs to know about a {@link CassandraTable}-annotated class, resolved once.
+ *
+ * <p>
+ * Reading the annotation, decoding its columns and looking up the ring are all cheap-ish, but they add up when done
+ * on every read and write. A TableDescriptor does that work up front and is immutable afterwards, so it can be shared
+ * freely between threads.
+ * </p>
+ */
+public class TableDescriptor {
+
+    private static Logger log = LoggerFactory.getLogger(TableDescriptor.class);
+
+    private Class<?> tableClass;
+    private CassandraTable annotation;
+    private RingClient ringClient;
+    private ImmutableList<ColumnDefinition> columnDefinitions;
+    private ImmutableMap<String, ColumnDefinition> columnDefinitionMap;
+    private ImmutableList<ColumnDefinition> partitionKeyColumns;
+    private ImmutableList<ColumnDefinition> clusteringKeyColumns;
+    private TableCodec<?> codec;
+
+    public Class<?> getTableClass() {
+        return tableClass;
+    }
+
+    public CassandraTable getAnnotation() {
+        return annotation;
+    }
+
+    public String getTableName() {
+        return annotation.tableName();
+    }
+
+    public String getMultiRingGroup() {
+        return annotation.multiRingGroup();
+    }
+
+    public Class<?> getModelClass() {
+        return annotation.modelClass();
+    }
+
+    public RingClient getRingClient() {
+        return ringClient;
+    }
+
+    /**
+     * Column definitions, in the order they are declared in {@link CassandraTable#columns()}.
+     */
+    public ImmutableList<ColumnDefinition> getColumnDefinitions() {
+        return columnDefinitions;
+    }
+
+    /**
+     * Column definitions, keyed by lower-cased column name.
+     */
+    public ImmutableMap<String, ColumnDefinition> getColumnDefinitionMap() {
+        return columnDefinitionMap;
+    }
+
+    public ImmutableList<ColumnDefinition> getPartitionKeyColumns() {
+        return partitionKeyColumns;
+    }
+
+    public ImmutableList<ColumnDefinition> getClusteringKeyColumns() {
+        return clusteringKeyColumns;
+    }
+
+    /**
+     * The codec generated for the table class at compile time, if there is one; null otherwise.
+     */
+    public TableCodec<?> getCodec() {
+        return codec;
+    }
+
+    public ImmutableList<String> getPartitionKeyColumnNames() {
+        ImmutableList.Builder<String> result = ImmutableList.<String> builder();
+        for (ColumnDefinition column : partitionKeyColumns) {
+            result.add(column.getColumnName());
+        }
+        return result.build();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("tableClass", tableClass).add("tableName", getTableName())
+                .add("multiRingGroup", getMultiRingGroup()).add("modelClass", getModelClass())
+                .add("columnDefinitions", columnDefinitions).toString();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Class<?> tableClass;
+        private MultiRingClientManager multiRingClientManager;
+
+        Builder() {
+        }
+
+        public Builder setTableClass(Class<?> value) {
+            tableClass = value;
+            return this;
+        }
+
+        public Builder setMultiRingClientManager(MultiRingClientManager value) {
+            multiRingClientManager = value;
+            return this;
+        }
+
+        public TableDescriptor build() throws AssertException {
+            AssertHelpers.notNull(tableClass, "tableClass");
+            AssertHelpers.notNull(multiRingClientManager, "multiRingClientManager");
+
+            CassandraTable annotation = CassandraTableProcessor.getAnnotation(tableClass);
+            AssertHelpers.notNull(annotation, "tableClass must have @CassandraTable annotation");
+
+            TableDescriptor result = new TableDescriptor();
+            result.tableClass = tableClass;
+            result.annotation = annotation;
+            result.ringClient = multiRingClientManager.getRingClientForGroup(annotation.multiRingGroup());
+
+            Collection<ColumnDefinition> columns = CassandraTableProcessor.getColumnDefinitionList(annotation);
+            Map<String, ColumnDefinition> columnMap = CassandraTableProcessor.getColumnDefinitionMap(annotation);
+            result.columnDefinitions = ImmutableList.<ColumnDefinition> copyOf(columns);
+            result.columnDefinitionMap = ImmutableMap.<String, ColumnDefinition> copyOf(columnMap);
+
+            ImmutableList.Builder<ColumnDefinition> partitionKey = ImmutableList.<ColumnDefinition> builder();
+            ImmutableList.Builder<ColumnDefinition> clusteringKey = ImmutableList.<ColumnDefinition> builder();
+            for (ColumnDefinition column : columns) {
+                if (ColumnOption.PARTITION_KEY.equals(column.getColumnOption())) {
+                    partitionKey.add(column);
+                } else if (ColumnOption.CLUSTERING_KEY_ASC.equals(column.getColumnOption())
+                        || ColumnOption.CLUSTERING_KEY_DESC.equals(column.getColumnOption())) {
+                    clusteringKey.add(column);
+                }
+            }
+            result.partitionKeyColumns = partitionKey.build();
+            result.clusteringKeyColumns = clusteringKey.build();
+            result.codec = findCodec(tableClass);
+            return result;
+        }
+
+        private static TableCodec<?> findCodec(Class<?> tableClass) {
+            try {
+                Class<?> codecClass = Class.forName(tableClass.getName() + TableCodec.CLASS_NAME_SUFFIX, false,
+                        tableClass.getClassLoader());
+                if (!TableCodec.class.isAssignableFrom(codecClass)) {
+                    // Generated for a model without an accessible constructor, or merely named like a codec.
+                    return null;
+                }
+                return (TableCodec<?>) codecClass.newInstance();
+            } catch (ClassNotFoundException e) {
+                return null;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                log.warn("Could not load the codec for " + tableClass.getName() + "; using reflection", e);
+                return null;
+            }
+        }
+    }
+
+}
@@ -8,7 +8,8 @@ import com.datastax.driver.core.Session;
 /**
  * <p>
  * Retain a {@link Session} object that is logged in to a keyspace. When
- * {@link #close()} is called, it will drop that keyspace.
+ * {@link #close()} is called, it will drop that keyspace and close the
+ * session.
  * </p>
  * 
  * <p>
@@ -43,7 +44,11 @@ public class TemporaryKeyspace implements AutoCloseable {
 
 	@Override
 	public void close() throws Exception {
-		session.dropKeyspace(session.getLoggedKeyspace());
+		try {
+			session.dropKeyspace(session.getLoggedKeyspace());
+		} finally {
+			session.close();
+		}
 	}
 
 	public SessionHelper getSession() {
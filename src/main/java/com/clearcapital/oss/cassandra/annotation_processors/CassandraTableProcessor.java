@@ -1,8 +1,9 @@
 package com.clearcapital.oss.cassandra.annotation_processors;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.http.util.Asserts;
 import org.slf4j.Logger;
@@ -34,8 +35,22 @@ public class CassandraTableProcessor {
 
     private static Logger log = LoggerFactory.getLogger(CassandraTableProcessor.class);
 
-    static Map<CassandraTable, Map<String, ColumnDefinition>> columnDefinitionMaps = new HashMap<>();
-    static Map<CassandraTable, Collection<ColumnDefinition>> columnDefinitionLists = new HashMap<>();
+    /**
+     * Decoded column definitions, keyed by annotation. Tables are typically first used from many threads at once, so
+     * the list and map for an annotation are published together, exactly once.
+     */
+    static ConcurrentMap<CassandraTable, CachedColumnDefinitions> columnDefinitions = new ConcurrentHashMap<>();
+
+    static class CachedColumnDefinitions {
+
+        final ImmutableList<ColumnDefinition> list;
+        final ImmutableMap<String, ColumnDefinition> map;
+
+        CachedColumnDefinitions(ImmutableList<ColumnDefinition> list, ImmutableMap<String, ColumnDefinition> map) {
+            this.list = list;
+            this.map = map;
+        }
+    }
 
     /**
      * Given a {@code tableClass}, find and return the {@link CassandraTable} annotation.
@@ -65,10 +80,7 @@ public class CassandraTableProcessor {
      *         annotation.columnDefinitions()
      */
     public static Collection<ColumnDefinition> getColumnDefinitionList(final CassandraTable annotation) {
-        if (!columnDefinitionLists.containsKey(annotation)) {
-            cacheColumnDefinitions(annotation);
-        }
-        return columnDefinitionLists.get(annotation);
+        return getCachedColumnDefinitions(annotation).list;
     }
 
     /**
@@ -86,10 +98,7 @@ public class CassandraTableProcessor {
      *         annotation.columnDefinitions()
      */
     public static Map<String, ColumnDefinition> getColumnDefinitionMap(final CassandraTable annotation) {
-        if (!columnDefinitionMaps.containsKey(annotation)) {
-            cacheColumnDefinitions(annotation);
-        }
-        return columnDefinitionMaps.get(annotation);
+        return getCachedColumnDefinitions(annotation).map;
     }
 
     /**
@@ -110,14 +119,26 @@ public class CassandraTableProcessor {
         return new SchemaComparator(executor, client, autoSchemaConfiguration);
     }
 
-    private static void cacheColumnDefinitions(final CassandraTable annotation) {
+    private static CachedColumnDefinitions getCachedColumnDefinitions(final CassandraTable annotation) {
         Asserts.notNull(annotation, "Annotation");
+        CachedColumnDefinitions result = columnDefinitions.get(annotation);
+        if (result == null) {
+            // Decoding is pure, so racing threads decode equivalent definitions; the first one stored wins.
+            result = decodeColumnDefinitions(annotation);
+            CachedColumnDefinitions existing = columnDefinitions.putIfAbsent(annotation, result);
+            if (existing != null) {
+                result = existing;
+            }
+        }
+        return result;
+    }
+
+    private static CachedColumnDefinitions decodeColumnDefinitions(final CassandraTable annotation) {
         ImmutableMap.Builder<String, ColumnDefinition> mapBuilder = ImmutableMap.<String, ColumnDefinition> builder();
         ImmutableList.Builder<ColumnDefinition> listBuilder = ImmutableList.<ColumnDefinition> builder();
         for (Column column : annotation.columns()) {
             if (column.reflectionColumnInfo().isSelected()) {
-                /** TODO: figure out a way to validate that the {@link ReflectionColumnDefinition#reflectionPath} points to a
-                 * field that actually exists. */
+                // javaPath is checked at compile time, by TableCodecProcessor.
                 ReflectionColumnDefinition reflectionColumn = ReflectionColumnDefinition.builder()
                         .fromAnnotation(column).build();
                 listBuilder.add(reflectionColumn);
@@ -143,8 +164,7 @@ public class CassandraTableProcessor {
             log.debug("Caching columnDefinitionList:" + list);
             log.debug("Caching columnMap:" + map);
         }
-        columnDefinitionLists.put(annotation, list);
-        columnDefinitionMaps.put(annotation, map);
+        return new CachedColumnDefinitions(list, map);
     }
 
     public static void dropTableIfExists(MultiRingClientManager clientManager, final Class<?> tableClass)
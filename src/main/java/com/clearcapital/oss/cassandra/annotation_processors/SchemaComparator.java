@@ -52,7 +52,7 @@ public class SchemaComparator extends SchemaProcessor {
                         keyspace.dropTableIfExists(tableMetadata.getName());
                     }
                 }
-                ringClient.getSession().dropKeyspace(keyspaceName);
+                ringClient.dropKeyspace(keyspaceName);
             }
         }
         ImmutableSet<String> tablesProcessed = compareAnnotatedClasses();
@@ -0,0 +1,607 @@
+package com.clearcapital.oss.cassandra.annotation_processors;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+
+import com.clearcapital.oss.cassandra.ColumnDefinition.ColumnOption;
+import com.clearcapital.oss.cassandra.TableCodec;
+import com.clearcapital.oss.cassandra.annotations.CassandraDataType;
+import com.clearcapital.oss.cassandra.annotations.CassandraTable;
+import com.clearcapital.oss.cassandra.annotations.Column;
+import com.clearcapital.oss.java.patterns.NullClass;
+
+/**
+ * Compile-time support for {@link CassandraTable} annotated classes.
+ *
+ * <p>
+ * For each table class, checks that every {@code javaPath} names fields which exist, reporting a compile error
+ * otherwise, and generates a {@link TableCodec} named after the table class. The codec holds the table's column names
+ * and CQL as constants, a typed primary key binder, and direct field access for every reflection column whose
+ * {@code javaPath} is a single, accessible, non-final field of a type matching the column's data type. Other columns
+ * are left to reflection at runtime. If the model class has no accessible no-arg constructor, the generated class only
+ * holds the constants and key binder, and doesn't implement {@link TableCodec}.
+ * </p>
+ *
+ * <p>
+ * Registered as a service, so it runs whenever this library is on the compile classpath.
+ * </p>
+ */
+@SupportedAnnotationTypes("com.clearcapital.oss.cassandra.annotations.CassandraTable")
+public class TableCodecProcessor extends AbstractProcessor {
+
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        messager = processingEnv.getMessager();
+        for (Element element : roundEnv.getElementsAnnotatedWith(CassandraTable.class)) {
+            if (element.getKind() == ElementKind.CLASS) {
+                processTable((TypeElement) element);
+            }
+        }
+        return false;
+    }
+
+    private void processTable(TypeElement table) {
+        CassandraTable annotation = table.getAnnotation(CassandraTable.class);
+        TypeElement model = getModelClass(annotation);
+
+        List<TableColumn> columns = new ArrayList<>();
+        Set<String> constantNames = new HashSet<>();
+        boolean valid = true;
+        for (Column column : annotation.columns()) {
+            TableColumn tableColumn = new TableColumn(column, getConstantName(column.cassandraName(), constantNames));
+            if (column.reflectionColumnInfo().isSelected() && model != null) {
+                valid &= checkJavaPath(table, model, column);
+                tableColumn.field = findCodecField(table, model, column);
+            }
+            columns.add(tableColumn);
+        }
+
+        if (!valid || annotation.tableName().isEmpty() || table.getNestingKind() != NestingKind.TOP_LEVEL
+                || model == null || !model.getTypeParameters().isEmpty() || !isAccessible(table, model)) {
+            return;
+        }
+        try {
+            writeCodec(table, annotation, model, columns);
+        } catch (IOException e) {
+            messager.printMessage(Kind.WARNING, "Could not generate " + TableCodec.class.getSimpleName() + ": " + e,
+                    table);
+        }
+    }
+
+    private TypeElement getModelClass(CassandraTable annotation) {
+        TypeMirror type;
+        try {
+            annotation.modelClass();
+            return null; // javac always throws; anything else can't be checked.
+        } catch (MirroredTypeException e) {
+            type = e.getTypeMirror();
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement result = (TypeElement) types.asElement(type);
+        if (result.getQualifiedName().contentEquals(NullClass.class.getCanonicalName())) {
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * Report an error unless each segment of {@code column}'s javaPath names a field. Paths which pass through types
+     * that can't be checked statically (interfaces, abstract classes, maps, type variables, Object) are accepted.
+     */
+    private boolean checkJavaPath(TypeElement table, TypeElement model, Column column) {
+        String[] javaPath = column.reflectionColumnInfo().javaPath();
+        if (javaPath.length == 0) {
+            messager.printMessage(Kind.ERROR, "Column " + column.cassandraName() + " has an empty javaPath", table);
+            return false;
+        }
+        TypeMirror type = model.asType();
+        for (String segment : javaPath) {
+            if (type.getKind().isPrimitive() || type.getKind() == TypeKind.ARRAY) {
+                messager.printMessage(Kind.ERROR, "Column " + column.cassandraName() + ": javaPath "
+                        + Arrays.toString(javaPath) + " continues past " + type + " at '" + segment + "'", table);
+                return false;
+            }
+            if (type.getKind() != TypeKind.DECLARED) {
+                return true;
+            }
+            TypeElement typeElement = (TypeElement) types.asElement(type);
+            VariableElement field = findField(typeElement, segment);
+            if (field == null) {
+                if (isOpaque(typeElement)) {
+                    return true;
+                }
+                messager.printMessage(Kind.ERROR, "Column " + column.cassandraName() + ": javaPath "
+                        + Arrays.toString(javaPath) + " refers to '" + segment + "', which is not a field of "
+                        + typeElement.getQualifiedName(), table);
+                return false;
+            }
+            type = field.asType();
+        }
+        return true;
+    }
+
+    private boolean isOpaque(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)
+                || type.getQualifiedName().contentEquals(Object.class.getName())) {
+            return true;
+        }
+        TypeElement map = elements.getTypeElement(java.util.Map.class.getName());
+        return types.isAssignable(types.erasure(type.asType()), types.erasure(map.asType()));
+    }
+
+    /**
+     * The field for {@code column}, if the generated codec can read and write it directly; null otherwise.
+     */
+    private VariableElement findCodecField(TypeElement table, TypeElement model, Column column) {
+        String[] javaPath = column.reflectionColumnInfo().javaPath();
+        if (javaPath.length != 1) {
+            return null;
+        }
+        VariableElement field = findField(model, javaPath[0]);
+        if (field == null || field.getModifiers().contains(Modifier.STATIC)
+                || field.getModifiers().contains(Modifier.FINAL)
+                || !isAccessible(table, (TypeElement) field.getEnclosingElement())
+                || !isMemberAccessible(table, field)) {
+            return null;
+        }
+        TypeMirror fieldType = field.asType();
+        if (fieldType.getKind().isPrimitive()) {
+            fieldType = types.boxedClass(types.getPrimitiveType(fieldType.getKind())).asType();
+        }
+        if (fieldType.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement javaType = elements.getTypeElement(getJavaType(column.reflectionColumnInfo().dataType()));
+        if (javaType == null || !types.isAssignable(types.erasure(javaType.asType()), types.erasure(fieldType))) {
+            return null;
+        }
+        return field;
+    }
+
+    private static VariableElement findField(TypeElement type, String name) {
+        for (TypeElement current = type; current != null; current = getSuperclass(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getSimpleName().contentEquals(name)) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    /**
+     * True if code in {@code table}'s package can name {@code type}.
+     */
+    private boolean isAccessible(TypeElement table, TypeElement type) {
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            if (!isMemberAccessible(table, current)) {
+                return false;
+            }
+            if (current.getEnclosingElement() instanceof TypeElement
+                    && !current.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isMemberAccessible(TypeElement table, Element member) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        return !modifiers.contains(Modifier.PRIVATE)
+                && elements.getPackageOf(member).equals(elements.getPackageOf(table));
+    }
+
+    private boolean hasAccessibleConstructor(TypeElement table, TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) {
+                return isMemberAccessible(table, constructor);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The class the driver decodes {@code dataType} into.
+     */
+    static String getJavaType(CassandraDataType dataType) {
+        switch (dataType) {
+        case BIGINT:
+        case COUNTER:
+            return Long.class.getName();
+        case BLOB:
+            return java.nio.ByteBuffer.class.getName();
+        case BOOLEAN:
+            return Boolean.class.getName();
+        case DOUBLE:
+            return Double.class.getName();
+        case INT:
+            return Integer.class.getName();
+        case TEXT:
+            return String.class.getName();
+        case TIMESTAMP:
+            return java.util.Date.class.getName();
+        case SET_TEXT:
+            return java.util.Set.class.getName();
+        case LIST_TEXT:
+            return java.util.List.class.getName();
+        default:
+            return null;
+        }
+    }
+
+    private static String getKeyType(Column column) {
+        if (column.reflectionColumnInfo().isSelected()) {
+            return getJavaType(column.reflectionColumnInfo().dataType());
+        }
+        if (column.manualColumnInfo().isSelected()) {
+            return getJavaType(column.manualColumnInfo().dataType());
+        }
+        return null;
+    }
+
+    private static ColumnOption getColumnOption(Column column) {
+        if (column.reflectionColumnInfo().isSelected()) {
+            return column.reflectionColumnInfo().columnOption();
+        }
+        if (column.manualColumnInfo().isSelected()) {
+            return column.manualColumnInfo().columnOption();
+        }
+        return ColumnOption.NULL;
+    }
+
+    /**
+     * {@code updateId} becomes {@code UPDATE_ID_COLUMN}, the convention table classes already use.
+     */
+    static String getConstantName(String columnName, Set<String> taken) {
+        StringBuilder result = new StringBuilder();
+        for (int index = 0; index < columnName.length(); ++index) {
+            char c = columnName.charAt(index);
+            if (Character.isUpperCase(c) && index > 0 && !Character.isUpperCase(columnName.charAt(index - 1))) {
+                result.append('_');
+            }
+            result.append(Character.isJavaIdentifierPart(c) ? Character.toUpperCase(c) : '_');
+        }
+        if (result.length() == 0 || !Character.isJavaIdentifierStart(result.charAt(0))) {
+            result.insert(0, '_');
+        }
+        result.append("_COLUMN");
+        String name = result.toString();
+        for (int suffix = 2; !taken.add(name); ++suffix) {
+            name = result.toString() + suffix;
+        }
+        return name;
+    }
+
+    private void writeCodec(TypeElement table, CassandraTable annotation, TypeElement model, List<TableColumn> columns)
+            throws IOException {
+        PackageElement tablePackage = elements.getPackageOf(table);
+        String packageName = tablePackage.isUnnamed() ? null : tablePackage.getQualifiedName().toString();
+        String className = table.getSimpleName() + TableCodec.CLASS_NAME_SUFFIX;
+        String modelName = model.getQualifiedName().toString();
+        boolean canCreate = hasAccessibleConstructor(table, model);
+
+        List<TableColumn> selected = new ArrayList<>();
+        List<TableColumn> written = new ArrayList<>();
+        List<TableColumn> keys = new ArrayList<>();
+        List<TableColumn> codecColumns = new ArrayList<>();
+        boolean reflectionOnly = true;
+        for (TableColumn column : columns) {
+            Column info = column.annotation;
+            boolean isReflection = info.reflectionColumnInfo().isSelected();
+            boolean isJson = !isReflection && info.jsonColumnInfo().isSelected();
+            boolean isManual = !isReflection && !isJson && info.manualColumnInfo().isSelected();
+            if (!isReflection && !isJson && !isManual) {
+                continue; // createdElsewhere
+            }
+            selected.add(column);
+            if (!isManual) {
+                written.add(column);
+            }
+            if (getColumnOption(info) == ColumnOption.PARTITION_KEY) {
+                keys.add(column);
+            }
+            if (column.field != null && canCreate) {
+                codecColumns.add(column);
+            } else {
+                reflectionOnly = false;
+            }
+        }
+        for (TableColumn column : columns) {
+            ColumnOption option = getColumnOption(column.annotation);
+            if (option == ColumnOption.CLUSTERING_KEY_ASC || option == ColumnOption.CLUSTERING_KEY_DESC) {
+                keys.add(column);
+            }
+        }
+
+        String qualifiedName = packageName == null ? className : packageName + "." + className;
+        try (Writer out = processingEnv.getFiler().createSourceFile(qualifiedName, table).openWriter()) {
+            SourceWriter source = new SourceWriter(out);
+            if (packageName != null) {
+                source.line("package " + packageName + ";").line();
+            }
+            source.line("/**");
+            source.line(" * Columns, statements and field access for {@link " + table.getQualifiedName() + "}.");
+            source.line(" */");
+            if (elements.getTypeElement("javax.annotation.Generated") != null) {
+                source.line("@javax.annotation.Generated(" + literal(getClass().getName()) + ")");
+            }
+            // Without a constructor to call, rows can't be decoded into new models: generate the constants and key
+            // binder only, which TableDescriptor won't mistake for a codec, and leave the model to reflection.
+            source.open("public final class " + className
+                    + (canCreate ? " implements " + TableCodec.class.getName() + "<" + modelName + ">" : ""));
+            source.line();
+            source.line("public static final String TABLE_NAME = " + literal(annotation.tableName()) + ";").line();
+            for (TableColumn column : columns) {
+                source.line("public static final String " + column.constantName + " = "
+                        + literal(column.annotation.cassandraName()) + ";");
+            }
+            source.line();
+            source.line("public static final com.google.common.collect.ImmutableList<String> COLUMN_NAMES = "
+                    + listOf(columns) + ";").line();
+
+            String selectList = join(selected, ",", "");
+            if (!written.isEmpty()) {
+                source.line("public static final String INSERT_CQL = " + literal("INSERT INTO " + annotation.tableName()
+                        + " (" + join(written, ",", "") + ") VALUES (" + markers(written.size()) + ");") + ";");
+            }
+            if (!selected.isEmpty()) {
+                source.line("public static final String SELECT_CQL = "
+                        + literal("SELECT " + selectList + " FROM " + annotation.tableName() + ";") + ";");
+            }
+            boolean typedKeys = !keys.isEmpty();
+            for (TableColumn key : keys) {
+                typedKeys &= getKeyType(key.annotation) != null;
+            }
+            if (!selected.isEmpty() && typedKeys) {
+                source.line("public static final String SELECT_BY_PRIMARY_KEY_CQL = " + literal("SELECT " + selectList
+                        + " FROM " + annotation.tableName() + " WHERE " + join(keys, " AND ", "=?") + ";") + ";");
+            }
+            if (canCreate) {
+                source.line();
+                source.line("private static final com.google.common.collect.ImmutableList<String> CODEC_COLUMN_NAMES = "
+                        + listOf(codecColumns) + ";");
+            }
+
+            if (typedKeys) {
+                writeBindPrimaryKey(source, keys);
+            }
+            if (reflectionOnly && !codecColumns.isEmpty()) {
+                writeDecode(source, modelName, codecColumns);
+            }
+            if (canCreate) {
+                writeFieldAccess(source, modelName, codecColumns);
+            }
+
+            source.close();
+        }
+    }
+
+    private void writeFieldAccess(SourceWriter source, String modelName, List<TableColumn> codecColumns)
+            throws IOException {
+        source.line().line("@Override");
+        source.open("public com.google.common.collect.ImmutableList<String> getColumnNames()");
+        source.line("return CODEC_COLUMN_NAMES;");
+        source.close();
+
+        source.line().line("@Override");
+        source.open("public " + modelName + " newModel()");
+        source.line("return new " + modelName + "();");
+        source.close();
+
+        source.line().line("@Override");
+        source.open("public Object getValue(int index, " + modelName + " model)");
+        source.open("switch (index)");
+        for (int index = 0; index < codecColumns.size(); ++index) {
+            source.line("case " + index + ":");
+            source.line("    return model." + codecColumns.get(index).field.getSimpleName() + ";");
+        }
+        source.line("default:");
+        source.line("    throw new IndexOutOfBoundsException(String.valueOf(index));");
+        source.close();
+        source.close();
+
+        source.line().line("@Override");
+        source.line("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })");
+        source.open("public void setValue(int index, " + modelName + " model, Object value)");
+        source.open("switch (index)");
+        for (int index = 0; index < codecColumns.size(); ++index) {
+            VariableElement field = codecColumns.get(index).field;
+            source.line("case " + index + ":");
+            source.line("    model." + field.getSimpleName() + " = (" + getCastType(field) + ") value;");
+            source.line("    return;");
+        }
+        source.line("default:");
+        source.line("    throw new IndexOutOfBoundsException(String.valueOf(index));");
+        source.close();
+        source.close();
+    }
+
+    private void writeBindPrimaryKey(SourceWriter source, List<TableColumn> keys) throws IOException {
+        StringBuilder parameters = new StringBuilder();
+        StringBuilder arguments = new StringBuilder();
+        for (int index = 0; index < keys.size(); ++index) {
+            String name = keys.get(index).annotation.cassandraName();
+            if (!SourceVersion.isName(name) || name.equals("statement")) {
+                name = "key" + index;
+            }
+            parameters.append(", ").append(getKeyType(keys.get(index).annotation)).append(' ').append(name);
+            arguments.append(index == 0 ? "" : ", ").append(name);
+        }
+        source.line().line("/**");
+        source.line(" * Bind the primary key variables of {@code statement}, which was prepared from");
+        source.line(" * {@link #SELECT_BY_PRIMARY_KEY_CQL} or another statement with the same variables.");
+        source.line(" */");
+        source.open("public static com.datastax.driver.core.BoundStatement bindPrimaryKey("
+                + "com.datastax.driver.core.PreparedStatement statement" + parameters + ")");
+        source.line("return statement.bind(" + arguments + ");");
+        source.close();
+    }
+
+    private void writeDecode(SourceWriter source, String modelName, List<TableColumn> codecColumns)
+            throws IOException {
+        source.line().line("/**");
+        source.line(" * Decode {@code row}, which may contain any subset of this table's columns. Null and empty");
+        source.line(" * values are not set.");
+        source.line(" */");
+        source.line("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })");
+        source.open("public static " + modelName + " decode(com.datastax.driver.core.Row row)");
+        source.open("if (row == null)");
+        source.line("return null;");
+        source.close();
+        source.line(modelName + " result = new " + modelName + "();");
+        source.line("com.datastax.driver.core.ColumnDefinitions columns = row.getColumnDefinitions();");
+        source.line("Object value;");
+        for (TableColumn column : codecColumns) {
+            source.open("if (columns.contains(" + column.constantName + ") && !"
+                    + "com.clearcapital.oss.cassandra.ReflectionColumnDefinition.isAbsent(value = row.getObject("
+                    + column.constantName + ")))");
+            source.line("result." + column.field.getSimpleName() + " = (" + getCastType(column.field) + ") value;");
+            source.close();
+        }
+        source.line("return result;");
+        source.close();
+    }
+
+    private String getCastType(VariableElement field) {
+        TypeMirror type = field.asType();
+        if (type.getKind().isPrimitive()) {
+            return types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+        }
+        return types.erasure(type).toString();
+    }
+
+    private String literal(String value) {
+        return elements.getConstantExpression(value);
+    }
+
+    private static String listOf(List<TableColumn> columns) {
+        if (columns.isEmpty()) {
+            return "com.google.common.collect.ImmutableList.<String> of()";
+        }
+        StringBuilder result = new StringBuilder("com.google.common.collect.ImmutableList.<String> builder()");
+        for (TableColumn column : columns) {
+            result.append(".add(").append(column.constantName).append(")");
+        }
+        return result.append(".build()").toString();
+    }
+
+    private static String join(List<TableColumn> columns, String separator, String suffix) {
+        StringBuilder result = new StringBuilder();
+        for (TableColumn column : columns) {
+            result.append(result.length() == 0 ? "" : separator).append(column.annotation.cassandraName())
+                    .append(suffix);
+        }
+        return result.toString();
+    }
+
+    private static String markers(int count) {
+        StringBuilder result = new StringBuilder();
+        for (int index = 0; index < count; ++index) {
+            result.append(index == 0 ? "?" : ",?");
+        }
+        return result.toString();
+    }
+
+    private static class TableColumn {
+
+        final Column annotation;
+        final String constantName;
+        VariableElement field;
+
+        TableColumn(Column annotation, String constantName) {
+            this.annotation = annotation;
+            this.constantName = constantName;
+        }
+    }
+
+    /**
+     * Just enough indentation handling to keep the generated source readable.
+     */
+    private static class SourceWriter {
+
+        private final Writer out;
+        private int depth;
+
+        SourceWriter(Writer out) {
+            this.out = out;
+        }
+
+        SourceWriter line() throws IOException {
+            out.write('\n');
+            return this;
+        }
+
+        SourceWriter line(String text) throws IOException {
+            for (int level = 0; level < depth; ++level) {
+                out.write("    ");
+            }
+            out.write(text);
+            return line();
+        }
+
+        void open(String text) throws IOException {
+            line(text + " {");
+            ++depth;
+        }
+
+        void close() throws IOException {
+            --depth;
+            line("}");
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.clearcapital.oss.cassandra.annotation_processors;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.clearcapital.oss.cassandra.annotations.Transformer;
+
+/**
+ * Writes the names of every {@link Transformer} annotated class compiled to
+ * {@value TransformerProcessor#INDEX_RESOURCE}, so that {@link TransformerProcessor#getTransformers(String)} can find
+ * them without scanning the classpath.
+ *
+ * <p>
+ * Entries already in the index (from an earlier, incremental compilation) are kept as long as their classes still
+ * exist. Registered as a service, so it runs whenever this library is on the compile classpath.
+ * </p>
+ */
+@SupportedAnnotationTypes("com.clearcapital.oss.cassandra.annotations.Transformer")
+public class TransformerIndexProcessor extends AbstractProcessor {
+
+    private final Set<String> transformers = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(Transformer.class))) {
+            transformers.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+        }
+        if (roundEnv.processingOver() && !transformers.isEmpty()) {
+            try {
+                readExistingIndex();
+                writeIndex();
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Kind.ERROR,
+                        "Could not write " + TransformerProcessor.INDEX_RESOURCE + ": " + e);
+            }
+        }
+        return false;
+    }
+
+    private void readExistingIndex() {
+        FileObject existing;
+        try {
+            existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+                    TransformerProcessor.INDEX_RESOURCE);
+        } catch (IOException | IllegalArgumentException e) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String name = line.trim();
+                if (!name.isEmpty() && !name.startsWith("#") && exists(name)) {
+                    transformers.add(name);
+                }
+            }
+        } catch (IOException e) {
+            // No index yet.
+        }
+    }
+
+    private boolean exists(String binaryName) {
+        Element type = processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.'));
+        return type != null && type.getAnnotation(Transformer.class) != null;
+    }
+
+    private void writeIndex() throws IOException {
+        FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                TransformerProcessor.INDEX_RESOURCE);
+        try (Writer out = index.openWriter()) {
+            for (String transformer : transformers) {
+                out.write(transformer);
+                out.write('\n');
+            }
+        }
+    }
+
+}
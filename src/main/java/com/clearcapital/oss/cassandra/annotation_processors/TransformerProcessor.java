@@ -1,17 +1,33 @@
 package com.clearcapital.oss.cassandra.annotation_processors;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.processing.SupportedAnnotationTypes;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
 
-import org.apache.cassandra.locator.EndpointSnitchInfoMBean;
-import org.apache.cassandra.tools.NodeProbe;
 import org.reflections.Reflections;
 import org.reflections.scanners.SubTypesScanner;
 import org.reflections.scanners.TypeAnnotationsScanner;
@@ -19,21 +35,37 @@ import org.reflections.util.ClasspathHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.clearcapital.oss.cassandra.RingClient;
 import com.clearcapital.oss.cassandra.annotations.Transformer;
 import com.clearcapital.oss.cassandra.configuration.WithMultiRingConfiguration;
 import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.cassandra.iterate.CheckpointStore;
 import com.clearcapital.oss.cassandra.iterate.RecordTransformer;
+import com.clearcapital.oss.cassandra.limits.ScanThrottle;
 import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
 import com.clearcapital.oss.java.AssertHelpers;
 import com.clearcapital.oss.java.ReflectionHelpers;
 import com.clearcapital.oss.java.exceptions.AssertException;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.TokenRange;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 @SupportedAnnotationTypes("com.clearcapital.dropwizard.cli.transformer.Transformer")
 @SupportedSourceVersion(SourceVersion.RELEASE_7)
 public class TransformerProcessor<T extends WithMultiRingConfiguration> {
 
+    private static Logger log = LoggerFactory.getLogger(TransformerProcessor.class);
+
+    /**
+     * Lists the binary names of {@link Transformer} classes, one per line. Written at compile time by
+     * {@link TransformerIndexProcessor}; every jar built with it has its own.
+     */
+    public static final String INDEX_RESOURCE = "META-INF/cassandra-transformers";
+
     public static Reflections getReflections(final Collection<String> packageNames) {
         Reflections reflections = null;
         for (String packageName : packageNames) {
@@ -49,21 +81,137 @@ public class TransformerProcessor<T extends WithMultiRingConfiguration> {
     }
 
     /**
-     * Call processPredicate.apply() for every @{@link Transformer} -annotated class.
+     * Find every @{@link Transformer} -annotated class in {@code packageNames} ("/" for all packages).
      * 
-     * @param schema
-     * @param processPredicate
+     * <p>
+     * If any {@link #INDEX_RESOURCE} is visible, the indexes are trusted and nothing is scanned; otherwise the
+     * classpath is scanned.
+     * </p>
      */
     public static Set<Class<?>> getTransformers(final Collection<String> packageNames) {
-        Set<Class<?>> result = ReflectionHelpers.getTypesAnnotatedWith(packageNames, Transformer.class);
+        return getTransformers(packageNames, false);
+    }
+
+    /**
+     * Like {@link #getTransformers(Collection)}, but with {@code scanUnindexed}, jars and directories without an index
+     * (built without {@link TransformerIndexProcessor}, say) are scanned as well. For "/" that means every location
+     * the class loader and its parents can see, JRE and dependency jars included, so prefer naming packages.
+     */
+    public static Set<Class<?>> getTransformers(final Collection<String> packageNames, boolean scanUnindexed) {
+        ClassLoader classLoader = getClassLoader();
+        Set<String> indexedRoots = new HashSet<>();
+        Set<Class<?>> result = getIndexedTransformers(classLoader, packageNames, indexedRoots);
+        if (result == null) {
+            log.debug("No " + INDEX_RESOURCE + " found; scanning for transformers");
+            return ReflectionHelpers.getTypesAnnotatedWith(packageNames, Transformer.class);
+        }
+        if (!scanUnindexed) {
+            return result;
+        }
+
+        Set<URL> unindexedRoots = new LinkedHashSet<>();
+        for (String packageName : packageNames) {
+            Collection<URL> roots = packageName.isEmpty() || packageName.equals("/")
+                    ? ClasspathHelper.forClassLoader(classLoader)
+                    : ClasspathHelper.forPackage(packageName, classLoader);
+            for (URL root : roots) {
+                if (!indexedRoots.contains(root.toExternalForm())) {
+                    unindexedRoots.add(root);
+                }
+            }
+        }
+        if (!unindexedRoots.isEmpty()) {
+            log.debug("Scanning for transformers in " + unindexedRoots.size() + " location(s) without "
+                    + INDEX_RESOURCE + ": " + unindexedRoots);
+            Reflections reflections = new Reflections(unindexedRoots, new TypeAnnotationsScanner(),
+                    new SubTypesScanner(), classLoader);
+            for (Class<?> transformer : reflections.getTypesAnnotatedWith(Transformer.class)) {
+                if (isInPackages(transformer.getName(), packageNames)) {
+                    result.add(transformer);
+                }
+            }
+        }
         return result;
     }
 
     public static Set<Class<?>> getTransformers(String packageName) {
-        Set<Class<?>> result = ReflectionHelpers.getTypesAnnotatedWith(packageName, Transformer.class);
+        return getTransformers(Collections.singleton(packageName));
+    }
+
+    /**
+     * The indexed transformers in {@code packageNames}, or null if {@code classLoader} can't see any index.
+     */
+    static Set<Class<?>> getIndexedTransformers(ClassLoader classLoader, Collection<String> packageNames) {
+        return getIndexedTransformers(classLoader, packageNames, new HashSet<String>());
+    }
+
+    /**
+     * @param indexedRoots
+     *            receives the jars and directories which have an index, as {@link URL#toExternalForm()}s of the
+     *            locations the classpath scanner uses.
+     */
+    private static Set<Class<?>> getIndexedTransformers(ClassLoader classLoader, Collection<String> packageNames,
+            Set<String> indexedRoots) {
+        Enumeration<URL> indexes;
+        try {
+            indexes = classLoader.getResources(INDEX_RESOURCE);
+        } catch (IOException e) {
+            log.warn("Could not look for " + INDEX_RESOURCE, e);
+            return null;
+        }
+        if (!indexes.hasMoreElements()) {
+            return null;
+        }
+        Set<Class<?>> result = new LinkedHashSet<>();
+        while (indexes.hasMoreElements()) {
+            URL index = indexes.nextElement();
+            indexedRoots.add(getRoot(index));
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    String className = line.trim();
+                    if (className.isEmpty() || className.startsWith("#") || !isInPackages(className, packageNames)) {
+                        continue;
+                    }
+                    try {
+                        result.add(Class.forName(className, false, classLoader));
+                    } catch (ClassNotFoundException | LinkageError e) {
+                        log.warn("Could not load transformer " + className + " listed in " + index, e);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Could not read " + index, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The jar ("file:/lib/app.jar") or directory ("file:/app/classes/") holding {@code index}.
+     */
+    static String getRoot(URL index) {
+        String result = index.toExternalForm();
+        result = result.substring(0, result.length() - INDEX_RESOURCE.length());
+        if (result.startsWith("jar:") && result.endsWith("!/")) {
+            result = result.substring("jar:".length(), result.length() - "!/".length());
+        }
         return result;
     }
 
+    private static boolean isInPackages(String className, Collection<String> packageNames) {
+        for (String packageName : packageNames) {
+            if (packageName.isEmpty() || packageName.equals("/") || className.startsWith(packageName + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ClassLoader getClassLoader() {
+        ClassLoader result = Thread.currentThread().getContextClassLoader();
+        return result != null ? result : TransformerProcessor.class.getClassLoader();
+    }
+
     public static boolean implementsRecordTransformer(Class<?> candidate) {
         for (Class<?> transformerInterface : candidate.getInterfaces()) {
             if (transformerInterface == RecordTransformer.class) {
@@ -73,6 +221,26 @@ public class TransformerProcessor<T extends WithMultiRingConfiguration> {
         return false;
     }
 
+    /**
+     * The inclusive [start, end] token bounds a walker needs to cover the ring's token range (start, end]. A range
+     * which wraps around the end of the ring (including one which ends at the minimum token, which stands for the end
+     * of the ring) is split in two; empty pieces, such as everything after {@link Long#MAX_VALUE}, are left out.
+     */
+    static List<long[]> toWalkerBounds(long start, long end) {
+        List<long[]> result = new ArrayList<>(2);
+        if (start < end && end != Long.MIN_VALUE) {
+            result.add(new long[] { start + 1, end });
+            return result;
+        }
+        if (start != Long.MAX_VALUE) {
+            result.add(new long[] { start + 1, Long.MAX_VALUE });
+        }
+        if (end != Long.MIN_VALUE) {
+            result.add(new long[] { Long.MIN_VALUE, end });
+        }
+        return result;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -88,7 +256,12 @@ public class TransformerProcessor<T extends WithMultiRingConfiguration> {
         Boolean vnodesEnabled;
         String vnodeHost;
         String vnodeDC;
-        Integer vnodeStart;
+        Integer vnodeStart = 0;
+        String vnodeRing;
+        String vnodeKeyspace;
+        int threadCount = 1;
+        int vnodeMaxAttempts = 10;
+        long vnodeRetryDelayMillis = 30000;
 
         // Non-Vnode mode options:
         Long nonVnodeStartToken;
@@ -96,9 +269,14 @@ public class TransformerProcessor<T extends WithMultiRingConfiguration> {
 
         WithMultiRingConfiguration configuration;
         MultiRingClientManager multiRingClientManager;
+        CheckpointStore checkpointStore;
+        boolean resume = true;
+        boolean scanUnindexed;
+        ScanThrottle throttle;
 
         public void execute() throws Exception {
-            Set<Class<?>> transformers = TransformerProcessor.getTransformers("/");
+            Set<Class<?>> transformers = TransformerProcessor.getTransformers(Collections.singleton("/"),
+                    scanUnindexed);
             if (listTransformers) {
                 this.executeListTransformers(transformers);
                 return;
@@ -106,7 +284,13 @@ public class TransformerProcessor<T extends WithMultiRingConfiguration> {
 
             multiRingClientManager = new MultiRingClientManager(configuration.getMultiRingConfiguration());
             RecordTransformer recordTransformer = createTransformer(transformers);
+            if (checkpointStore != null && !resume) {
+                log.info("=== Clearing checkpoints of " + recordTransformer.getWalkName());
+                checkpointStore.clear(recordTransformer.getWalkName());
+            }
 
+            AssertHelpers.isTrue(threadCount > 0, "threadCount > 0");
+            AssertHelpers.isTrue(vnodeMaxAttempts > 0, "vnodeMaxAttempts > 0");
             if (vnodesEnabled) {
                 executeTransformerWithVnodes(recordTransformer);
             } else {
@@ -135,6 +319,12 @@ public class TransformerProcessor<T extends WithMultiRingConfiguration> {
 
             recordTransformer.setConfiguration(configuration);
             recordTransformer.setMultiRingClientManager(multiRingClientManager);
+            if (checkpointStore != null) {
+                recordTransformer.setCheckpointStore(checkpointStore);
+            }
+            if (throttle != null) {
+                recordTransformer.setThrottle(throttle);
+            }
             return recordTransformer;
         }
 
@@ -145,61 +335,172 @@ public class TransformerProcessor<T extends WithMultiRingConfiguration> {
             }
         }
 
-        private void executeTransformerWithVnodes(RecordTransformer recordTransformer) throws Exception {
+        /**
+         * Walk every vnode range of the ring, as the driver sees it, on {@code threadCount} worker threads. With a
+         * {@code vnodeHost}, only ranges assigned to that host are walked: each range is assigned to its first replica
+         * in {@code vnodeDC} (or its first replica at all, if there is no {@code vnodeDC}), so running the transformer
+         * once for every host in a data center covers the ring exactly once.
+         */
+        private void executeTransformerWithVnodes(final RecordTransformer recordTransformer) throws Exception {
             log.info("=== Executing transformer [vnode mode]: " + recordTransformer.getClass().getName());
+            transformRanges(recordTransformer, getVnodeRanges());
+            clearCheckpointsAfterRun(recordTransformer);
+        }
 
-            try (NodeProbe probe = new NodeProbe("127.0.0.1")) {
-                Map<String, String> tokensToEndpoints = probe.getTokenToEndpointMap();
-                log.debug("tokensToEndpoints:" + tokensToEndpoints);
-
-                Map<String, String> tokensToEndpointsForDc = new LinkedHashMap<>();
-                Long startToken = null;
-                EndpointSnitchInfoMBean epSnitchInfo = probe.getEndpointSnitchInfoProxy();
-                for (Entry<String, String> entry : tokensToEndpoints.entrySet()) {
-                    String endpoint = entry.getValue();
-                    String endpointDc = epSnitchInfo.getDatacenter(endpoint);
-                    if (vnodeDC.equals(endpointDc)) {
-                        tokensToEndpointsForDc.put(entry.getKey(), entry.getValue());
-                        startToken = Long.parseLong(entry.getKey());
+        /**
+         * Once every range of the ring has been transformed, forget the walk's checkpoints, so that the next run starts
+         * over instead of skipping every range as completed. Runs which only covered part of the ring (with a
+         * {@code vnodeHost} or {@code vnodeStart}) keep them: other parts may still be in progress.
+         */
+        void clearCheckpointsAfterRun(RecordTransformer recordTransformer) throws CassandraException {
+            if (checkpointStore == null) {
+                return;
+            }
+            if (vnodeHost == null && vnodeStart == 0) {
+                log.info("=== Run complete; clearing checkpoints of " + recordTransformer.getWalkName());
+                checkpointStore.clear(recordTransformer.getWalkName());
+            } else {
+                log.info("=== Keeping checkpoints of " + recordTransformer.getWalkName()
+                        + ", since this run covered part of the ring; setResume(false) to start over");
+            }
+        }
+
+        /**
+         * Transform each of {@code ranges} (inclusive token bounds, in order) after the first {@code vnodeStart}, on
+         * {@code threadCount} worker threads.
+         * 
+         * @return the number of records processed.
+         * @throws CassandraException
+         *             if any range failed {@code vnodeMaxAttempts} times; the other ranges are still transformed.
+         */
+        long transformRanges(final RecordTransformer recordTransformer, List<long[]> ranges) throws Exception {
+            final int totalVnodes = ranges.size();
+            final AtomicLong totalCounter = new AtomicLong();
+            final AtomicInteger completedVnodes = new AtomicInteger();
+            final AtomicInteger failedVnodes = new AtomicInteger();
+            final int scheduledVnodes = Math.max(0, totalVnodes - vnodeStart);
+
+            ExecutorService workers = Executors.newFixedThreadPool(threadCount,
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("transformer-%d").build());
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int index = 0; index < totalVnodes; ++index) {
+                    final int vnodeIndex = index;
+                    final long[] range = ranges.get(index);
+                    if (vnodeIndex < vnodeStart) {
+                        log.debug(String.format("Token Range: %d => %d | Vnode %d/%d [skipped - before vnodeStart]",
+                                range[0], range[1], vnodeIndex, totalVnodes));
+                        continue;
                     }
-                }
-                log.debug("tokensToEndpointsForDc:" + tokensToEndpointsForDc);
-
-                // Finally - we've got the list of tokens on this DC.
-                Long totalCounter = 0L;
-                int vnodeIndex = 0;
-                int totalVnodes = tokensToEndpointsForDc.entrySet().size();
-                for (Entry<String, String> vnode : tokensToEndpointsForDc.entrySet()) {
-                    Long endToken = Long.parseLong(vnode.getKey());
-                    String endpoint = vnode.getValue();
-                    Double percentage = 100.0 * vnodeIndex / totalVnodes;
-                    String progressMessage = String.format("Token Range: %d => %d | Vnode %d/%d (%3.1f%%)", startToken,
-                            endToken, vnodeIndex, totalVnodes, percentage);
-                    if (vnodeIndex >= vnodeStart && endpoint.equals(vnodeHost)) {
-                        while (true) {
-                            try {
-                                log.info(progressMessage);
-
-                                Long recordsProcessed = recordTransformer.transformRecords(startToken, endToken);
-                                totalCounter += recordsProcessed;
-
-                            } catch (Exception e) {
-                                log.debug(
-                                        "Caught exception while processing vnode. Waiting 30 seconds and trying again.",
-                                        e);
-                                Thread.sleep(30000);
+                    futures.add(workers.submit(new Callable<Void>() {
+
+                        @Override
+                        public Void call() throws InterruptedException {
+                            if (transformRange(recordTransformer, range, vnodeIndex, totalVnodes, totalCounter)) {
+                                int completed = completedVnodes.incrementAndGet();
+                                log.info(String.format("Vnode %d/%d done (%d completed, %3.1f%%)", vnodeIndex,
+                                        totalVnodes, completed, 100.0 * completed / scheduledVnodes));
+                            } else {
+                                failedVnodes.incrementAndGet();
                             }
+                            return null;
                         }
-                    } else {
-                        log.debug(progressMessage + " [skipped - owned by " + endpoint + "]");
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                workers.shutdownNow();
+            }
+            log.info(String.format("Total Records Processed: (total:%d)", totalCounter.get()));
+            if (failedVnodes.get() > 0) {
+                throw new CassandraException(failedVnodes.get() + " vnode(s) failed after " + vnodeMaxAttempts
+                        + " attempts each; rerun with the same options"
+                        + (checkpointStore == null ? "." : " to resume from their checkpoints."));
+            }
+            return totalCounter.get();
+        }
+
+        /**
+         * Transform one range, retrying failures up to {@code vnodeMaxAttempts} times in all.
+         * 
+         * @return false if every attempt failed.
+         */
+        private boolean transformRange(RecordTransformer recordTransformer, long[] range, int vnodeIndex,
+                int totalVnodes, AtomicLong totalCounter) throws InterruptedException {
+            String progressMessage = String.format("Token Range: %d => %d | Vnode %d/%d", range[0], range[1],
+                    vnodeIndex, totalVnodes);
+            for (int attempt = 1;; ++attempt) {
+                try {
+                    log.info(progressMessage);
+                    totalCounter.addAndGet(recordTransformer.transformRecords(range[0], range[1]));
+                    return true;
+                } catch (Exception e) {
+                    if (attempt >= vnodeMaxAttempts) {
+                        log.error(progressMessage + " failed " + attempt + " times; giving up", e);
+                        return false;
                     }
+                    log.debug("Caught exception while processing vnode. Waiting " + vnodeRetryDelayMillis
+                            + "ms and trying again" + (checkpointStore == null ? "." : " from the last checkpoint."),
+                            e);
+                    Thread.sleep(vnodeRetryDelayMillis);
+                }
+            }
+        }
 
-                    startToken = endToken + 1L;
-                    vnodeIndex++;
+        /**
+         * The inclusive token bounds to walk for the ring's token ranges, in token order, filtered by
+         * {@code vnodeHost}.
+         */
+        private List<long[]> getVnodeRanges() throws AssertException, UnknownHostException {
+            RingClient ringClient = vnodeRing == null ? multiRingClientManager.getDefaultRingClient()
+                    : multiRingClientManager.getRingClientForRing(vnodeRing);
+            // Metadata is only populated once the cluster has connected.
+            ringClient.getSession();
+            Metadata metadata = ringClient.getCluster().getMetadata();
+
+            List<TokenRange> ranges = new ArrayList<>(new TreeSet<>(metadata.getTokenRanges()));
+            for (TokenRange range : ranges) {
+                AssertHelpers.isTrue(DataType.bigint().equals(range.getStart().getType()),
+                        "vnode mode requires Murmur3Partitioner");
+            }
+            log.debug("Token ranges: " + ranges.size());
+
+            if (vnodeHost != null) {
+                String keyspace = vnodeKeyspace != null ? vnodeKeyspace : ringClient.getPreferredKeyspaceName();
+                InetAddress host = InetAddress.getByName(vnodeHost);
+                List<TokenRange> assigned = new ArrayList<>();
+                for (TokenRange range : ranges) {
+                    Host owner = null;
+                    for (Host replica : metadata.getReplicas(Metadata.quote(keyspace), range)) {
+                        if (vnodeDC == null || vnodeDC.equals(replica.getDatacenter())) {
+                            owner = replica;
+                            break;
+                        }
+                    }
+                    if (owner != null && host.equals(owner.getAddress())) {
+                        assigned.add(range);
+                    } else {
+                        log.debug("Token Range: " + range + " [skipped - assigned to " + owner + "]");
+                    }
                 }
-                log.info(String.format("Total Records Processed: (total:%d)", totalCounter));
+                log.debug("Token ranges assigned to " + vnodeHost + ": " + assigned.size());
+                ranges = assigned;
             }
 
+            List<long[]> result = new ArrayList<>();
+            for (TokenRange range : ranges) {
+                result.addAll(toWalkerBounds((Long) range.getStart().getValue(), (Long) range.getEnd().getValue()));
+            }
+            Collections.sort(result, new Comparator<long[]>() {
+
+                @Override
+                public int compare(long[] left, long[] right) {
+                    return Long.compare(left[0], right[0]);
+                }
+            });
+            return result;
         }
 
         private void executeTransformerWithoutVnodes(RecordTransformer recordTransformer) throws Exception {
@@ -222,18 +523,69 @@ public class TransformerProcessor<T extends WithMultiRingConfiguration> {
             return this;
         }
 
+        /**
+         * Only transform ranges assigned to replicas in this data center; see {@link #setVnodeHost(String)}.
+         */
         public Builder setVnodeDC(String value) {
             vnodeDC = value;
             return this;
         }
 
+        /**
+         * Only transform ranges assigned to this host; null (the default) for every range. The transformer itself may
+         * run anywhere.
+         */
         public Builder setVnodeHost(String value) {
             vnodeHost = value;
             return this;
         }
 
+        /**
+         * Skip this many ranges, in token order.
+         */
         public Builder setVnodeStart(Integer value) {
-            vnodeStart = value;
+            vnodeStart = value == null ? 0 : value;
+            return this;
+        }
+
+        /**
+         * The ring to read token ranges from; null (the default) for the default ring.
+         */
+        public Builder setVnodeRing(String value) {
+            vnodeRing = value;
+            return this;
+        }
+
+        /**
+         * The keyspace whose replication decides which host each range is assigned to; null (the default) for the
+         * ring's preferred keyspace. Only needed with {@link #setVnodeHost(String)}.
+         */
+        public Builder setVnodeKeyspace(String value) {
+            vnodeKeyspace = value;
+            return this;
+        }
+
+        /**
+         * Number of ranges transformed at once; defaults to 1, one range after another. With more than one thread,
+         * {@link RecordTransformer#transformRecords(Long, Long)} is called concurrently, so only opt in for
+         * transformers which are thread-safe.
+         */
+        public Builder setThreadCount(int value) {
+            threadCount = value;
+            return this;
+        }
+
+        /**
+         * Number of attempts at each range before giving up on it. The remaining ranges are still transformed, and
+         * {@link #execute()} fails at the end.
+         */
+        public Builder setVnodeMaxAttempts(int value) {
+            vnodeMaxAttempts = value;
+            return this;
+        }
+
+        public Builder setVnodeRetryDelayMillis(long value) {
+            vnodeRetryDelayMillis = value;
             return this;
         }
 
@@ -251,6 +603,46 @@ public class TransformerProcessor<T extends WithMultiRingConfiguration> {
             this.configuration = value;
             return this;
         }
+
+        /**
+         * Let the transformer checkpoint its progress, so that a vnode which fails part-way through is retried from
+         * the last checkpoint rather than from its start, and a rerun after a failure skips vnodes which have already
+         * completed. A vnode mode run which transforms the whole ring clears the checkpoints when it succeeds; see
+         * {@link #setResume(boolean)} for other runs.
+         */
+        public Builder setCheckpointStore(CheckpointStore value) {
+            this.checkpointStore = value;
+            return this;
+        }
+
+        /**
+         * Whether to resume from the checkpoints of earlier runs (the default), or to clear them and start over. Runs
+         * which only cover part of the ring (per host, with a {@code vnodeStart}, or in non-vnode mode) never clear
+         * their checkpoints themselves, so the next full pass over those ranges needs {@code false}. Clearing forgets
+         * the checkpoints of every run of the transformer sharing the store, so don't do it while others are running.
+         */
+        public Builder setResume(boolean value) {
+            this.resume = value;
+            return this;
+        }
+
+        /**
+         * Also scan the classpath for transformers in jars and directories without an {@link #INDEX_RESOURCE}, when
+         * some other location has one. Off by default: scanning the whole classpath is what the index avoids.
+         */
+        public Builder setScanUnindexed(boolean value) {
+            this.scanUnindexed = value;
+            return this;
+        }
+
+        /**
+         * Throttle the transformer's scan. The throttle is shared by every thread, so its limits apply to the run as a
+         * whole.
+         */
+        public Builder setThrottle(ScanThrottle value) {
+            this.throttle = value;
+            return this;
+        }
     }
 
 }
@@ -65,4 +65,10 @@ public @interface CassandraTable {
     AdditionalIndex[] additionalIndexes() default {};
 
     SolrOptions solrOptions() default @SolrOptions(enabled = false);
+
+    /**
+     * Cache {@link com.clearcapital.oss.cassandra.CassandraTableImpl#readFirst(com.datastax.driver.core.Statement)}
+     * results locally. Only suitable for read-mostly tables.
+     */
+    NearCacheOptions nearCache() default @NearCacheOptions(enabled = false);
 }
@@ -0,0 +1,29 @@
+package com.clearcapital.oss.cassandra.annotations;
+
+import com.clearcapital.oss.cassandra.cache.NearCache;
+
+/**
+ * Settings for a table's {@link NearCache}.
+ */
+public @interface NearCacheOptions {
+
+    boolean enabled() default true;
+
+    /**
+     * Maximum number of cached reads. Leave at 0 to use {@link #maxBytes()} instead, or
+     * {@link NearCache#DEFAULT_MAX_ENTRIES} if that is 0 too.
+     */
+    long maxEntries() default 0;
+
+    /**
+     * Maximum estimated size, in bytes, of the cached rows and their keys. Mutually exclusive with
+     * {@link #maxEntries()}.
+     */
+    long maxBytes() default 0;
+
+    /**
+     * Drop cached reads this long after they were loaded, so that writes made elsewhere (other processes, or statements
+     * not executed through the table class) become visible. 0 to keep them until evicted or invalidated.
+     */
+    long expireAfterWriteMillis() default 60000;
+}
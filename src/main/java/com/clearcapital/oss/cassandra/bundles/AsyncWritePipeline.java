@@ -0,0 +1,261 @@
+package com.clearcapital.oss.cassandra.bundles;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.clearcapital.oss.cassandra.CQLHelpers;
+import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.datastax.driver.core.ResultSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Executes {@link CassandraCommand}s asynchronously, with a bounded number of requests in flight.
+ *
+ * <p>
+ * {@link #submit(CassandraCommand)} returns as soon as the command has been sent, unless {@code maxInFlight} commands
+ * are already outstanding; then it either waits for one of them to complete ({@link WhenSaturated#BLOCK}, the default)
+ * or fails ({@link WhenSaturated#REJECT}). Either way a fast producer can't queue up unbounded work in the driver.
+ * Commands are retried exactly as {@link com.clearcapital.oss.cassandra.SessionHelper#executeAsync(
+ * com.datastax.driver.core.Statement, String)} retries them.
+ * </p>
+ *
+ * <p>
+ * Failed commands are reported to the {@link FailureCallback}, if any, and logged. {@link #flush()} waits for every
+ * outstanding command, and throws if any command has failed since the previous flush. {@link #close()} flushes and
+ * then refuses further commands.
+ * </p>
+ *
+ * <pre>
+ * try (AsyncWritePipeline pipeline = AsyncWritePipeline.builder().setMaxInFlight(256).build()) {
+ *     for (CassandraCommand command : commands) {
+ *         pipeline.submit(command);
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>
+ * Pipelines are thread-safe. Use one per ring; the limit applies to everything submitted to it.
+ * </p>
+ */
+public class AsyncWritePipeline implements AutoCloseable {
+
+    private static Logger log = LoggerFactory.getLogger(AsyncWritePipeline.class);
+
+    public enum WhenSaturated {
+        /**
+         * Wait for an in-flight command to complete.
+         */
+        BLOCK,
+        /**
+         * Throw a {@link CassandraException} from {@link AsyncWritePipeline#submit(CassandraCommand)}.
+         */
+        REJECT
+    }
+
+    /**
+     * Called, from a driver thread, for every command which fails. Must not block.
+     */
+    public interface FailureCallback {
+
+        void onFailure(CassandraCommand command, Throwable cause);
+    }
+
+    private int maxInFlight;
+    private WhenSaturated whenSaturated;
+    private FailureCallback failureCallback;
+    private Semaphore permits;
+    private volatile boolean closed;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong failedSinceFlush = new AtomicLong();
+    private final AtomicReference<Throwable> firstFailureSinceFlush = new AtomicReference<>();
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int maxInFlight = 128;
+        private WhenSaturated whenSaturated = WhenSaturated.BLOCK;
+        private FailureCallback failureCallback;
+
+        Builder() {
+        }
+
+        /**
+         * Maximum number of commands executing at once.
+         */
+        public Builder setMaxInFlight(int value) {
+            maxInFlight = value;
+            return this;
+        }
+
+        public Builder setWhenSaturated(WhenSaturated value) {
+            whenSaturated = value;
+            return this;
+        }
+
+        public Builder setFailureCallback(FailureCallback value) {
+            failureCallback = value;
+            return this;
+        }
+
+        public AsyncWritePipeline build() throws AssertException {
+            AssertHelpers.isTrue(maxInFlight > 0, "maxInFlight > 0");
+            AssertHelpers.notNull(whenSaturated, "whenSaturated");
+
+            AsyncWritePipeline result = new AsyncWritePipeline();
+            result.maxInFlight = maxInFlight;
+            result.whenSaturated = whenSaturated;
+            result.failureCallback = failureCallback;
+            // Fair, so that flush() isn't starved by a steady stream of submissions.
+            result.permits = new Semaphore(maxInFlight, true);
+            return result;
+        }
+    }
+
+    private AsyncWritePipeline() {
+    }
+
+    /**
+     * Start executing {@code command}. The returned future fails wherever {@link CassandraCommand#execute()} would
+     * have thrown; the failure is also reported to the {@link FailureCallback} and to the next {@link #flush()}.
+     *
+     * @throws CassandraException
+     *             if the pipeline is closed, if it is saturated and set to {@link WhenSaturated#REJECT}, or if the
+     *             thread is interrupted while waiting (its interrupt status is restored).
+     */
+    public ListenableFuture<ResultSet> submit(final CassandraCommand command) throws CassandraException {
+        if (closed) {
+            throw new CassandraException("AsyncWritePipeline is closed");
+        }
+        acquire();
+
+        submitted.incrementAndGet();
+        ListenableFuture<ResultSet> result;
+        try {
+            result = command.getSession().executeAsync(command.getStatement(), command.getTableName());
+        } catch (RuntimeException e) {
+            try {
+                recordFailure(command, e);
+            } finally {
+                command.fireExecuted();
+                permits.release();
+            }
+            throw e;
+        }
+        Futures.addCallback(result, new FutureCallback<ResultSet>() {
+
+            @Override
+            public void onSuccess(ResultSet resultSet) {
+                try {
+                    command.fireExecuted();
+                } finally {
+                    permits.release();
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                // Record first, so that a flush() which this release unblocks sees the failure.
+                try {
+                    recordFailure(command, t);
+                } finally {
+                    command.fireExecuted();
+                    permits.release();
+                }
+            }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+
+    /**
+     * Wait for every command submitted so far to complete.
+     *
+     * @throws CassandraException
+     *             if any command has failed since the last flush, with the first such failure as its cause; or if the
+     *             thread is interrupted while waiting.
+     */
+    public void flush() throws CassandraException {
+        try {
+            permits.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CassandraException("Interrupted while flushing writes", e);
+        }
+        permits.release(maxInFlight);
+
+        long failures = failedSinceFlush.getAndSet(0);
+        Throwable firstFailure = firstFailureSinceFlush.getAndSet(null);
+        if (failures > 0) {
+            throw new CassandraException(failures + " write(s) failed", firstFailure);
+        }
+    }
+
+    /**
+     * Flush, and refuse any further commands.
+     */
+    @Override
+    public void close() throws CassandraException {
+        closed = true;
+        flush();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    private void acquire() throws CassandraException {
+        if (whenSaturated == WhenSaturated.REJECT) {
+            if (!permits.tryAcquire()) {
+                throw new CassandraException("AsyncWritePipeline saturated: " + maxInFlight + " writes in flight");
+            }
+            return;
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CassandraException("Interrupted while waiting to submit write", e);
+        }
+    }
+
+    private void recordFailure(CassandraCommand command, Throwable cause) {
+        firstFailureSinceFlush.compareAndSet(null, cause);
+        failedSinceFlush.incrementAndGet();
+        failed.incrementAndGet();
+        log.error("Asynchronous write failed, built here:" + command.getLocation() + "\n debugInfo:"
+                + command.getDebugInfo() + "\n queryText:" + CQLHelpers.getQueryText(command.getStatement()), cause);
+        if (failureCallback != null) {
+            try {
+                failureCallback.onFailure(command, cause);
+            } catch (RuntimeException e) {
+                log.warn("FailureCallback threw", e);
+            }
+        }
+    }
+
+}
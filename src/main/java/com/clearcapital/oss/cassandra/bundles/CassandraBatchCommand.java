@@ -0,0 +1,326 @@
+package com.clearcapital.oss.cassandra.bundles;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.clearcapital.oss.cassandra.CQLHelpers;
+import com.clearcapital.oss.cassandra.SessionHelper;
+import com.clearcapital.oss.commands.Command;
+import com.clearcapital.oss.commands.CommandExecutionException;
+import com.clearcapital.oss.executors.CommandExecutor;
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.StackHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.Statement;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Executes a number of {@link CassandraCommand}s as few UNLOGGED batches as possible, e.g. when queued on a
+ * {@link CommandExecutor} by a bulk update.
+ *
+ * <p>
+ * Commands are grouped by session, table and partition (routing key), so that every batch is a single-partition
+ * batch which the coordinator applies as one mutation. Each batch is capped by statement count and by an estimate of
+ * its serialized size; Cassandra warns about, and eventually rejects, batches larger than
+ * {@code batch_size_warn_threshold_in_kb} / {@code batch_size_fail_threshold_in_kb}. Commands whose statements have no
+ * routing key, or which are themselves batches, are executed individually.
+ * </p>
+ *
+ * <p>
+ * Statements keep the order in which they were added within a partition, but not across partitions. Because UNLOGGED
+ * batches are not atomic across partitions, a failure may leave some partitions written and others not, just as
+ * executing the commands one at a time would. Counter updates must not be mixed with other writes in the same
+ * partition.
+ * </p>
+ *
+ * <pre>
+ * CassandraBatchCommand.Builder batch = CassandraBatchCommand.builder();
+ * for (Statement statement : statements) {
+ *     batch.add(CassandraCommand.builder(session).setStatement(statement).setTableName(tableName).build());
+ * }
+ * executor.addCommand(batch.build());
+ * </pre>
+ */
+public class CassandraBatchCommand implements Command {
+
+    private static Logger log = LoggerFactory.getLogger(CassandraBatchCommand.class);
+
+    /**
+     * Cassandra's default {@code batch_size_warn_threshold_in_kb}.
+     */
+    public static final int DEFAULT_MAX_BATCH_BYTES = 5 * 1024;
+    public static final int DEFAULT_MAX_STATEMENTS = 100;
+
+    /**
+     * Per-statement overhead in a batch message: kind, query id or string length, value count.
+     */
+    private static final int STATEMENT_OVERHEAD_BYTES = 24;
+
+    private String location;
+    private ImmutableList<CassandraCommand> commands;
+    private int maxStatements;
+    private int maxBatchBytes;
+
+    public String getLocation() {
+        return location;
+    }
+
+    public static Builder builder() {
+        // relative to *this* line of code,
+        // 1 stack frames up will be whoever is saying "CassandraBatchCommand.builder()"
+        String location = StackHelpers.getRelativeStackLocation(1);
+        return new Builder(location);
+    }
+
+    public static class Builder {
+
+        private String location;
+        private final ImmutableList.Builder<CassandraCommand> commands = ImmutableList.<CassandraCommand> builder();
+        private int maxStatements = DEFAULT_MAX_STATEMENTS;
+        private int maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
+
+        Builder(String location) {
+            this.location = location;
+        }
+
+        public Builder setLocation(String value) {
+            location = value;
+            return this;
+        }
+
+        /**
+         * Queue {@code command} to be executed as part of this batch.
+         */
+        public Builder add(final CassandraCommand command) {
+            commands.add(command);
+            return this;
+        }
+
+        public Builder addAll(final Collection<CassandraCommand> values) {
+            commands.addAll(values);
+            return this;
+        }
+
+        /**
+         * Maximum number of statements in one batch.
+         */
+        public Builder setMaxStatements(int value) {
+            maxStatements = value;
+            return this;
+        }
+
+        /**
+         * Maximum estimated size, in bytes, of the values and query text in one batch. A single statement larger than
+         * this is executed on its own.
+         */
+        public Builder setMaxBatchBytes(int value) {
+            maxBatchBytes = value;
+            return this;
+        }
+
+        public CassandraBatchCommand build() throws AssertException {
+            AssertHelpers.notNull(location,
+                    "Attempted to create a CassandraBatchCommand without providing a location.");
+            AssertHelpers.isTrue(maxStatements > 0, "maxStatements > 0");
+            AssertHelpers.isTrue(maxBatchBytes > 0, "maxBatchBytes > 0");
+
+            CassandraBatchCommand result = new CassandraBatchCommand();
+            result.location = location;
+            result.commands = commands.build();
+            result.maxStatements = maxStatements;
+            result.maxBatchBytes = maxBatchBytes;
+            for (CassandraCommand command : result.commands) {
+                AssertHelpers.notNull(command, "command");
+            }
+            return result;
+        }
+    }
+
+    private CassandraBatchCommand() {
+    }
+
+    public ImmutableList<CassandraCommand> getCommands() {
+        return commands;
+    }
+
+    @Override
+    public void execute() throws CommandExecutionException {
+        for (Batch batch : plan()) {
+            batch.execute();
+        }
+    }
+
+    /**
+     * The batches {@link #execute()} runs, in order.
+     */
+    List<Batch> plan() {
+        Map<List<Object>, List<CassandraCommand>> partitions = new LinkedHashMap<>();
+        List<Batch> result = new ArrayList<>();
+        for (CassandraCommand command : commands) {
+            List<Object> key = getPartitionKey(command);
+            if (key == null) {
+                result.add(new Batch(ImmutableList.of(command)));
+                continue;
+            }
+            List<CassandraCommand> partition = partitions.get(key);
+            if (partition == null) {
+                partition = new ArrayList<>();
+                partitions.put(key, partition);
+            }
+            partition.add(command);
+        }
+
+        for (List<CassandraCommand> partition : partitions.values()) {
+            Configuration configuration = getConfiguration(partition.get(0));
+            ProtocolVersion protocolVersion = configuration.getProtocolOptions().getProtocolVersion();
+            CodecRegistry codecRegistry = configuration.getCodecRegistry();
+
+            List<CassandraCommand> current = new ArrayList<>();
+            int currentBytes = 0;
+            for (CassandraCommand command : partition) {
+                int bytes = estimateSize(command.getStatement(), protocolVersion, codecRegistry);
+                if (!current.isEmpty() && (current.size() >= maxStatements || currentBytes + bytes > maxBatchBytes)) {
+                    result.add(new Batch(ImmutableList.copyOf(current)));
+                    current.clear();
+                    currentBytes = 0;
+                }
+                current.add(command);
+                currentBytes += bytes;
+            }
+            if (!current.isEmpty()) {
+                result.add(new Batch(ImmutableList.copyOf(current)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Commands with equal keys write to the same partition of the same table, through the same session; null if the
+     * command can't be batched.
+     */
+    private static List<Object> getPartitionKey(CassandraCommand command) {
+        Statement statement = command.getStatement();
+        if (statement instanceof BatchStatement) {
+            return null;
+        }
+        Configuration configuration = getConfiguration(command);
+        ByteBuffer routingKey = statement.getRoutingKey(configuration.getProtocolOptions().getProtocolVersion(),
+                configuration.getCodecRegistry());
+        if (routingKey == null) {
+            return null;
+        }
+        return Arrays.<Object> asList(command.getSession(), statement.getKeyspace(), command.getTableName(),
+                routingKey);
+    }
+
+    private static Configuration getConfiguration(CassandraCommand command) {
+        return command.getSession().getSession().getCluster().getConfiguration();
+    }
+
+    /**
+     * A rough estimate of the bytes {@code statement} adds to a batch message.
+     */
+    static int estimateSize(Statement statement, ProtocolVersion protocolVersion, CodecRegistry codecRegistry) {
+        int result = STATEMENT_OVERHEAD_BYTES;
+        if (statement instanceof BoundStatement) {
+            BoundStatement bound = (BoundStatement) statement;
+            int count = bound.preparedStatement().getVariables().size();
+            for (int index = 0; index < count; ++index) {
+                result += 4;
+                if (bound.isSet(index)) {
+                    ByteBuffer value = bound.getBytesUnsafe(index);
+                    result += value == null ? 0 : value.remaining();
+                }
+            }
+        } else if (statement instanceof RegularStatement) {
+            RegularStatement regular = (RegularStatement) statement;
+            result += regular.getQueryString(codecRegistry).length();
+            ByteBuffer[] values = regular.getValues(protocolVersion, codecRegistry);
+            if (values != null) {
+                for (ByteBuffer value : values) {
+                    result += 4 + (value == null ? 0 : value.remaining());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * One or more commands executed as a single statement.
+     */
+    class Batch {
+
+        final ImmutableList<CassandraCommand> commands;
+
+        Batch(ImmutableList<CassandraCommand> commands) {
+            this.commands = commands;
+        }
+
+        Statement getStatement() {
+            if (commands.size() == 1) {
+                return commands.get(0).getStatement();
+            }
+            BatchStatement result = new BatchStatement(BatchStatement.Type.UNLOGGED);
+            for (CassandraCommand command : commands) {
+                result.add(command.getStatement());
+            }
+            Statement first = commands.get(0).getStatement();
+            if (first.getConsistencyLevel() != null) {
+                result.setConsistencyLevel(first.getConsistencyLevel());
+            }
+            if (first.getSerialConsistencyLevel() != null) {
+                result.setSerialConsistencyLevel(first.getSerialConsistencyLevel());
+            }
+            return result;
+        }
+
+        void execute() throws CommandExecutionException {
+            CassandraCommand first = commands.get(0);
+            Statement statement = getStatement();
+            try {
+                if (log.isDebugEnabled()) {
+                    log.debug("Executing " + commands.size() + " statement(s):" + CQLHelpers.getQueryText(statement));
+                }
+                SessionHelper session = first.getSession();
+                session.execute(statement, first.getTableName());
+            } catch (Throwable e) {
+                List<Object> debugInfo = new ArrayList<>();
+                for (CassandraCommand command : commands) {
+                    debugInfo.addAll(command.getDebugInfo());
+                }
+                log.error("The following batch caused an exception, built here:" + getLocation()
+                        + "\n commands built at:" + getLocations() + "\n debugInfo:" + debugInfo + "\n queryText:"
+                        + CQLHelpers.getQueryText(statement), e);
+                throw new CommandExecutionException("Could not execute batch statements from bundle, built here:"
+                        + getLocation(), e);
+            } finally {
+                for (CassandraCommand command : commands) {
+                    command.fireExecuted();
+                }
+            }
+        }
+
+        private List<String> getLocations() {
+            List<String> result = new ArrayList<>();
+            for (CassandraCommand command : commands) {
+                result.add(command.getLocation());
+            }
+            return result;
+        }
+    }
+
+}
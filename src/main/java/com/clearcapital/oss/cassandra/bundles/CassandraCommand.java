@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 
 import com.clearcapital.oss.cassandra.CQLHelpers;
 import com.clearcapital.oss.cassandra.SessionHelper;
+import com.clearcapital.oss.cassandra.metrics.SessionInstrumentation;
 import com.clearcapital.oss.commands.Command;
 import com.clearcapital.oss.commands.CommandExecutionException;
 import com.clearcapital.oss.executors.CommandExecutor;
@@ -26,8 +27,10 @@ public class CassandraCommand implements Command {
     private String location;
     private SessionHelper session;
     private Statement statement;
+    private String tableName;
 
     private final Collection<Object> debugInfo = new ArrayList<Object>();
+    private final Collection<Runnable> executionListeners = new ArrayList<Runnable>();
 
     public String getLocation() {
         return location;
@@ -80,6 +83,14 @@ public class CassandraCommand implements Command {
             return this;
         }
 
+        /**
+         * The table the statement is for, as reported to {@link SessionInstrumentation}. Optional.
+         */
+        public Builder setTableName(final String value) {
+            result.tableName = value;
+            return this;
+        }
+
         /**
          * Add debug info to the bundle; if the bundle fails to execute, this will be written as a part of the log
          * message. Useful for example, for getting the values bound to a query.
@@ -92,6 +103,15 @@ public class CassandraCommand implements Command {
             result.debugInfo.add(object);
             return this;
         }
+
+        /**
+         * Run {@code listener} once the statement has been executed, whether or not it succeeded (a write which fails
+         * may still have been applied). Used to invalidate caches of the data written.
+         */
+        public Builder addExecutionListener(final Runnable listener) {
+            result.executionListeners.add(listener);
+            return this;
+        }
     }
 
 
@@ -99,18 +119,46 @@ public class CassandraCommand implements Command {
         return session;
     }
 
+    public Statement getStatement() {
+        return statement;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    Collection<Object> getDebugInfo() {
+        return debugInfo;
+    }
+
+    /**
+     * Run the execution listeners. Called by whatever executed the statement: this command, or a batch or pipeline
+     * which executed it on the command's behalf.
+     */
+    void fireExecuted() {
+        for (Runnable listener : executionListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.warn("Execution listener threw, built here:" + getLocation(), e);
+            }
+        }
+    }
+
     @Override
     public void execute() throws CommandExecutionException {
         try {
             if (log.isDebugEnabled()) {
                 log.debug("Executing statement:" + CQLHelpers.getQueryText(statement));
             }
-            getSession().execute(statement);
+            getSession().execute(statement, tableName);
         } catch (Throwable e) {
             log.error("The following statement caused an exception, built here:" + getLocation() + "\n debugInfo:"
                     + debugInfo + "\n queryText:" + CQLHelpers.getQueryText(statement), e);
             throw new CommandExecutionException("Could not execute batch statements from bundle, built here:"
                     + getLocation(), e);
+        } finally {
+            fireExecuted();
         }
     }
 }
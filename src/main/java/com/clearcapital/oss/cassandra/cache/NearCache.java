@@ -0,0 +1,326 @@
+package com.clearcapital.oss.cassandra.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.clearcapital.oss.cassandra.SessionHelper;
+import com.clearcapital.oss.cassandra.annotations.NearCacheOptions;
+import com.clearcapital.oss.cassandra.exceptions.CassandraDeserializationException;
+import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.cassandra.iterate.CassandraRowDeserializer;
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+
+/**
+ * A local, read-through cache of single-row reads from one table.
+ *
+ * <p>
+ * Reads are keyed by their query and bound values, so any statement which selects by primary key (prepared or not)
+ * can be cached; a missing row is cached too. Entries are evicted by count or by estimated size, and expire a fixed
+ * time after being loaded.
+ * </p>
+ *
+ * <p>
+ * {@link #invalidate(ByteBuffer)} drops every cached read of a partition, and is called once a write to that partition
+ * made through any instance of the table class has executed; the cache is shared by those instances (see
+ * {@link com.clearcapital.oss.cassandra.RingClient#getNearCache(Class, NearCacheOptions)}). Invalidation scans the
+ * cache, which is cheap for the read-mostly tables this cache is meant for. A read which was in flight while any write
+ * executed is dropped again right after being cached, so a stale row can't outlive its invalidation. Writes made by
+ * other processes, or with statements which don't go through the table class, are only seen once entries expire.
+ * </p>
+ *
+ * <p>
+ * Cached objects are shared by every caller, and must not be modified.
+ * </p>
+ */
+public class NearCache<E> {
+
+    private static Logger log = LoggerFactory.getLogger(NearCache.class);
+
+    public static final long DEFAULT_MAX_ENTRIES = 10000;
+
+    /**
+     * Estimated per-entry overhead of the cache itself, for size-based eviction.
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private Cache<Key, Entry<E>> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong uncacheable = new AtomicLong();
+
+    public static <E> Builder<E> builder() {
+        return new Builder<E>();
+    }
+
+    public static class Builder<E> {
+
+        private long maxEntries;
+        private long maxBytes;
+        private long expireAfterWriteMillis;
+
+        Builder() {
+        }
+
+        /**
+         * Copy the settings from {@code options}.
+         */
+        public Builder<E> setOptions(NearCacheOptions options) {
+            maxEntries = options.maxEntries();
+            maxBytes = options.maxBytes();
+            expireAfterWriteMillis = options.expireAfterWriteMillis();
+            return this;
+        }
+
+        public Builder<E> setMaxEntries(long value) {
+            maxEntries = value;
+            return this;
+        }
+
+        public Builder<E> setMaxBytes(long value) {
+            maxBytes = value;
+            return this;
+        }
+
+        public Builder<E> setExpireAfterWriteMillis(long value) {
+            expireAfterWriteMillis = value;
+            return this;
+        }
+
+        public NearCache<E> build() throws AssertException {
+            AssertHelpers.isTrue(maxEntries >= 0, "maxEntries >= 0");
+            AssertHelpers.isTrue(maxBytes >= 0, "maxBytes >= 0");
+            AssertHelpers.isTrue(maxEntries == 0 || maxBytes == 0, "set maxEntries or maxBytes, not both");
+            AssertHelpers.isTrue(expireAfterWriteMillis >= 0, "expireAfterWriteMillis >= 0");
+
+            CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().recordStats();
+            if (maxBytes > 0) {
+                cacheBuilder.maximumWeight(maxBytes).weigher(new Weigher<Key, Entry<E>>() {
+
+                    @Override
+                    public int weigh(Key key, Entry<E> entry) {
+                        return entry.bytes;
+                    }
+                });
+            } else {
+                cacheBuilder.maximumSize(maxEntries > 0 ? maxEntries : DEFAULT_MAX_ENTRIES);
+            }
+            if (expireAfterWriteMillis > 0) {
+                cacheBuilder.expireAfterWrite(expireAfterWriteMillis, TimeUnit.MILLISECONDS);
+            }
+
+            NearCache<E> result = new NearCache<E>();
+            result.cache = cacheBuilder.build();
+            return result;
+        }
+    }
+
+    private NearCache() {
+    }
+
+    /**
+     * The first row {@code statement} returns, deserialized with {@code deserializer}, or null if there is none. Served
+     * from the cache if possible; otherwise read through {@code session} and cached. Statements which can't be keyed
+     * (batches, and statement wrappers) are always read through.
+     */
+    public E read(Statement statement, SessionHelper session, String tableName,
+            CassandraRowDeserializer<E> deserializer) throws CassandraException, AssertException {
+        Configuration configuration = session.getSession().getCluster().getConfiguration();
+        Key key = Key.of(statement, configuration.getProtocolOptions().getProtocolVersion(),
+                configuration.getCodecRegistry());
+        if (key == null) {
+            uncacheable.incrementAndGet();
+            return deserialize(session.execute(statement, tableName).one(), deserializer);
+        }
+
+        Entry<E> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.value.orNull();
+        }
+
+        long loadGeneration = generation.get();
+        Row row = session.execute(statement, tableName).one();
+        E result = deserialize(row, deserializer);
+        if (row != null && result == null) {
+            return null; // Not worth caching; deserialize() has logged it.
+        }
+        cache.put(key, new Entry<E>(Optional.fromNullable(result), key.bytes + sizeOf(row)));
+        if (generation.get() != loadGeneration) {
+            // A write executed while reading, and its invalidation may have scanned the cache before the put.
+            cache.invalidate(key);
+        }
+        return result;
+    }
+
+    /**
+     * Drop every cached read of the partition with {@code routingKey}, and every read whose partition isn't known. A
+     * null {@code routingKey} drops everything.
+     */
+    public void invalidate(ByteBuffer routingKey) {
+        generation.incrementAndGet();
+        if (routingKey == null) {
+            cache.invalidateAll();
+            return;
+        }
+        for (Iterator<Key> keys = cache.asMap().keySet().iterator(); keys.hasNext();) {
+            ByteBuffer keyRoutingKey = keys.next().routingKey;
+            if (keyRoutingKey == null || keyRoutingKey.equals(routingKey)) {
+                keys.remove();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        invalidate(null);
+    }
+
+    /**
+     * Hits, misses and evictions. Reads which bypassed the cache are counted by {@link #getUncacheableCount()}.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public long getUncacheableCount() {
+        return uncacheable.get();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("size", size()).add("stats", getStats())
+                .add("uncacheable", getUncacheableCount()).toString();
+    }
+
+    private static <E> E deserialize(Row row, CassandraRowDeserializer<E> deserializer) {
+        try {
+            return deserializer.deserializeRow(row);
+        } catch (CassandraDeserializationException e) {
+            log.warn("Could not deserializeRow", e);
+            return null;
+        }
+    }
+
+    private static int sizeOf(Row row) {
+        int result = ENTRY_OVERHEAD_BYTES;
+        if (row != null) {
+            for (int index = 0; index < row.getColumnDefinitions().size(); ++index) {
+                ByteBuffer value = row.getBytesUnsafe(index);
+                result += value == null ? 0 : value.remaining();
+            }
+        }
+        return result;
+    }
+
+    private static class Entry<E> {
+
+        final Optional<E> value;
+        final int bytes;
+
+        Entry(Optional<E> value, int bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Identifies a read by its keyspace, query and serialized bound values. The routing key, if the driver can compute
+     * one, identifies the partition read.
+     */
+    static class Key {
+
+        /**
+         * Distinct from any value, including null and an empty buffer.
+         */
+        private static final Object UNSET = new Object();
+
+        final String keyspace;
+        final String query;
+        final List<Object> values;
+        final ByteBuffer routingKey;
+        final int bytes;
+
+        private Key(String keyspace, String query, List<Object> values, ByteBuffer routingKey) {
+            this.keyspace = keyspace;
+            this.query = query;
+            this.values = values;
+            this.routingKey = routingKey;
+            int size = query.length();
+            for (Object value : values) {
+                size += value instanceof ByteBuffer ? ((ByteBuffer) value).remaining() : 0;
+            }
+            this.bytes = size;
+        }
+
+        /**
+         * @return null if {@code statement} can't be cached.
+         */
+        static Key of(Statement statement, ProtocolVersion protocolVersion, CodecRegistry codecRegistry) {
+            List<Object> values = new ArrayList<>();
+            String query;
+            if (statement instanceof BoundStatement) {
+                BoundStatement bound = (BoundStatement) statement;
+                query = bound.preparedStatement().getQueryString();
+                int count = bound.preparedStatement().getVariables().size();
+                for (int index = 0; index < count; ++index) {
+                    values.add(bound.isSet(index) ? bound.getBytesUnsafe(index) : UNSET);
+                }
+            } else if (statement instanceof RegularStatement) {
+                RegularStatement regular = (RegularStatement) statement;
+                query = regular.getQueryString(codecRegistry);
+                ByteBuffer[] regularValues = regular.getValues(protocolVersion, codecRegistry);
+                if (regularValues != null) {
+                    for (ByteBuffer value : regularValues) {
+                        values.add(value);
+                    }
+                }
+            } else {
+                return null;
+            }
+            return new Key(statement.getKeyspace(), query, values,
+                    statement.getRoutingKey(protocolVersion, codecRegistry));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Objects.equal(keyspace, other.keyspace) && query.equals(other.query)
+                    && values.equals(other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(keyspace, query, values);
+        }
+    }
+
+}
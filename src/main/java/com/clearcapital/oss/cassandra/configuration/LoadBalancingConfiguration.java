@@ -0,0 +1,212 @@
+package com.clearcapital.oss.cassandra.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * Describes a ring's load balancing policy: a {@link com.datastax.driver.core.policies.DCAwareRoundRobinPolicy},
+ * optionally wrapped in a {@link com.datastax.driver.core.policies.LatencyAwarePolicy}, wrapped in a
+ * {@link com.datastax.driver.core.policies.TokenAwarePolicy} unless {@code tokenAware} is false.
+ * 
+ * <pre>
+ * "loadBalancing" : { "localDc" : "us-west", "usedHostsPerRemoteDc" : 2, "latencyAware" : true }
+ * </pre>
+ */
+public class LoadBalancingConfiguration {
+
+    @JsonProperty
+    private String localDc;
+
+    @JsonProperty
+    private Integer usedHostsPerRemoteDc;
+
+    @JsonProperty
+    private Boolean allowRemoteDcsForLocalConsistencyLevel;
+
+    @JsonProperty
+    private Boolean tokenAware;
+
+    @JsonProperty
+    private Boolean shuffleReplicas;
+
+    @JsonProperty
+    private Boolean latencyAware;
+
+    @JsonProperty
+    private Double latencyExclusionThreshold;
+
+    @JsonProperty
+    private Long latencyScaleMillis;
+
+    @JsonProperty
+    private Long latencyRetryPeriodMillis;
+
+    @JsonProperty
+    private Integer latencyMinimumMeasurements;
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(localDc, usedHostsPerRemoteDc, allowRemoteDcsForLocalConsistencyLevel, tokenAware,
+                shuffleReplicas, latencyAware, latencyExclusionThreshold, latencyScaleMillis,
+                latencyRetryPeriodMillis, latencyMinimumMeasurements);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof LoadBalancingConfiguration) {
+            LoadBalancingConfiguration that = (LoadBalancingConfiguration) obj;
+            return Objects.equal(localDc, that.localDc)
+                    && Objects.equal(usedHostsPerRemoteDc, that.usedHostsPerRemoteDc)
+                    && Objects.equal(allowRemoteDcsForLocalConsistencyLevel,
+                            that.allowRemoteDcsForLocalConsistencyLevel)
+                    && Objects.equal(tokenAware, that.tokenAware)
+                    && Objects.equal(shuffleReplicas, that.shuffleReplicas)
+                    && Objects.equal(latencyAware, that.latencyAware)
+                    && Objects.equal(latencyExclusionThreshold, that.latencyExclusionThreshold)
+                    && Objects.equal(latencyScaleMillis, that.latencyScaleMillis)
+                    && Objects.equal(latencyRetryPeriodMillis, that.latencyRetryPeriodMillis)
+                    && Objects.equal(latencyMinimumMeasurements, that.latencyMinimumMeasurements);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).omitNullValues().add("localDc", localDc)
+                .add("usedHostsPerRemoteDc", usedHostsPerRemoteDc)
+                .add("allowRemoteDcsForLocalConsistencyLevel", allowRemoteDcsForLocalConsistencyLevel)
+                .add("tokenAware", tokenAware).add("shuffleReplicas", shuffleReplicas)
+                .add("latencyAware", latencyAware).add("latencyExclusionThreshold", latencyExclusionThreshold)
+                .add("latencyScaleMillis", latencyScaleMillis).add("latencyRetryPeriodMillis", latencyRetryPeriodMillis)
+                .add("latencyMinimumMeasurements", latencyMinimumMeasurements).toString();
+    }
+
+    /**
+     * The data center whose hosts are queried first. If null, the driver uses the data center of the first contact
+     * point it reaches.
+     */
+    public String getLocalDc() {
+        return localDc;
+    }
+
+    public Integer getUsedHostsPerRemoteDc() {
+        return usedHostsPerRemoteDc;
+    }
+
+    public Boolean getAllowRemoteDcsForLocalConsistencyLevel() {
+        return allowRemoteDcsForLocalConsistencyLevel;
+    }
+
+    public Boolean getTokenAware() {
+        return tokenAware;
+    }
+
+    public Boolean getShuffleReplicas() {
+        return shuffleReplicas;
+    }
+
+    public Boolean getLatencyAware() {
+        return latencyAware;
+    }
+
+    public Double getLatencyExclusionThreshold() {
+        return latencyExclusionThreshold;
+    }
+
+    public Long getLatencyScaleMillis() {
+        return latencyScaleMillis;
+    }
+
+    public Long getLatencyRetryPeriodMillis() {
+        return latencyRetryPeriodMillis;
+    }
+
+    public Integer getLatencyMinimumMeasurements() {
+        return latencyMinimumMeasurements;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        LoadBalancingConfiguration result;
+
+        Builder() {
+            result = new LoadBalancingConfiguration();
+        }
+
+        public LoadBalancingConfiguration build() {
+            return result;
+        }
+
+        public Builder setLocalDc(String value) {
+            result.localDc = value;
+            return this;
+        }
+
+        /**
+         * Number of hosts in each remote data center to fall back on when no local host is available.
+         */
+        public Builder setUsedHostsPerRemoteDc(Integer value) {
+            result.usedHostsPerRemoteDc = value;
+            return this;
+        }
+
+        /**
+         * Whether remote hosts may be used for LOCAL_ONE / LOCAL_QUORUM requests.
+         */
+        public Builder setAllowRemoteDcsForLocalConsistencyLevel(Boolean value) {
+            result.allowRemoteDcsForLocalConsistencyLevel = value;
+            return this;
+        }
+
+        /**
+         * Whether to send each request to a replica of its partition first. Defaults to true.
+         */
+        public Builder setTokenAware(Boolean value) {
+            result.tokenAware = value;
+            return this;
+        }
+
+        /**
+         * Whether to spread requests across a partition's replicas, rather than always trying them in the same order.
+         * Defaults to true.
+         */
+        public Builder setShuffleReplicas(Boolean value) {
+            result.shuffleReplicas = value;
+            return this;
+        }
+
+        /**
+         * Whether to avoid hosts which are much slower than the fastest one.
+         */
+        public Builder setLatencyAware(Boolean value) {
+            result.latencyAware = value;
+            return this;
+        }
+
+        public Builder setLatencyExclusionThreshold(Double value) {
+            result.latencyExclusionThreshold = value;
+            return this;
+        }
+
+        public Builder setLatencyScaleMillis(Long value) {
+            result.latencyScaleMillis = value;
+            return this;
+        }
+
+        public Builder setLatencyRetryPeriodMillis(Long value) {
+            result.latencyRetryPeriodMillis = value;
+            return this;
+        }
+
+        public Builder setLatencyMinimumMeasurements(Integer value) {
+            result.latencyMinimumMeasurements = value;
+            return this;
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.clearcapital.oss.cassandra.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * Connection pool settings for a ring; see the driver's {@link com.datastax.driver.core.PoolingOptions}. "Local" and
+ * "remote" are host distances as decided by the load balancing policy: hosts in the local DC, and hosts in other DCs
+ * which it may still use. Unset values keep the driver's defaults.
+ */
+public class PoolingConfiguration {
+
+    @JsonProperty
+    private Integer coreConnectionsLocal;
+
+    @JsonProperty
+    private Integer maxConnectionsLocal;
+
+    @JsonProperty
+    private Integer coreConnectionsRemote;
+
+    @JsonProperty
+    private Integer maxConnectionsRemote;
+
+    @JsonProperty
+    private Integer maxRequestsPerConnectionLocal;
+
+    @JsonProperty
+    private Integer maxRequestsPerConnectionRemote;
+
+    @JsonProperty
+    private Integer poolTimeoutMillis;
+
+    @JsonProperty
+    private Integer heartbeatIntervalSeconds;
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(coreConnectionsLocal, maxConnectionsLocal, coreConnectionsRemote, maxConnectionsRemote,
+                maxRequestsPerConnectionLocal, maxRequestsPerConnectionRemote, poolTimeoutMillis,
+                heartbeatIntervalSeconds);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof PoolingConfiguration) {
+            PoolingConfiguration that = (PoolingConfiguration) obj;
+            return Objects.equal(coreConnectionsLocal, that.coreConnectionsLocal)
+                    && Objects.equal(maxConnectionsLocal, that.maxConnectionsLocal)
+                    && Objects.equal(coreConnectionsRemote, that.coreConnectionsRemote)
+                    && Objects.equal(maxConnectionsRemote, that.maxConnectionsRemote)
+                    && Objects.equal(maxRequestsPerConnectionLocal, that.maxRequestsPerConnectionLocal)
+                    && Objects.equal(maxRequestsPerConnectionRemote, that.maxRequestsPerConnectionRemote)
+                    && Objects.equal(poolTimeoutMillis, that.poolTimeoutMillis)
+                    && Objects.equal(heartbeatIntervalSeconds, that.heartbeatIntervalSeconds);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).omitNullValues().add("coreConnectionsLocal", coreConnectionsLocal)
+                .add("maxConnectionsLocal", maxConnectionsLocal).add("coreConnectionsRemote", coreConnectionsRemote)
+                .add("maxConnectionsRemote", maxConnectionsRemote)
+                .add("maxRequestsPerConnectionLocal", maxRequestsPerConnectionLocal)
+                .add("maxRequestsPerConnectionRemote", maxRequestsPerConnectionRemote)
+                .add("poolTimeoutMillis", poolTimeoutMillis).add("heartbeatIntervalSeconds", heartbeatIntervalSeconds)
+                .toString();
+    }
+
+    public Integer getCoreConnectionsLocal() {
+        return coreConnectionsLocal;
+    }
+
+    public Integer getMaxConnectionsLocal() {
+        return maxConnectionsLocal;
+    }
+
+    public Integer getCoreConnectionsRemote() {
+        return coreConnectionsRemote;
+    }
+
+    public Integer getMaxConnectionsRemote() {
+        return maxConnectionsRemote;
+    }
+
+    public Integer getMaxRequestsPerConnectionLocal() {
+        return maxRequestsPerConnectionLocal;
+    }
+
+    public Integer getMaxRequestsPerConnectionRemote() {
+        return maxRequestsPerConnectionRemote;
+    }
+
+    public Integer getPoolTimeoutMillis() {
+        return poolTimeoutMillis;
+    }
+
+    public Integer getHeartbeatIntervalSeconds() {
+        return heartbeatIntervalSeconds;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        PoolingConfiguration result;
+
+        Builder() {
+            result = new PoolingConfiguration();
+        }
+
+        public PoolingConfiguration build() {
+            return result;
+        }
+
+        public Builder setCoreConnectionsLocal(Integer value) {
+            result.coreConnectionsLocal = value;
+            return this;
+        }
+
+        public Builder setMaxConnectionsLocal(Integer value) {
+            result.maxConnectionsLocal = value;
+            return this;
+        }
+
+        public Builder setCoreConnectionsRemote(Integer value) {
+            result.coreConnectionsRemote = value;
+            return this;
+        }
+
+        public Builder setMaxConnectionsRemote(Integer value) {
+            result.maxConnectionsRemote = value;
+            return this;
+        }
+
+        public Builder setMaxRequestsPerConnectionLocal(Integer value) {
+            result.maxRequestsPerConnectionLocal = value;
+            return this;
+        }
+
+        public Builder setMaxRequestsPerConnectionRemote(Integer value) {
+            result.maxRequestsPerConnectionRemote = value;
+            return this;
+        }
+
+        /**
+         * How long a request waits for a free connection to a host before moving on to the next host.
+         */
+        public Builder setPoolTimeoutMillis(Integer value) {
+            result.poolTimeoutMillis = value;
+            return this;
+        }
+
+        public Builder setHeartbeatIntervalSeconds(Integer value) {
+            result.heartbeatIntervalSeconds = value;
+            return this;
+        }
+    }
+
+}
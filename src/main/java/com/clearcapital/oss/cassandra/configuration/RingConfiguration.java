@@ -1,5 +1,6 @@
 package com.clearcapital.oss.cassandra.configuration;
 
+import com.datastax.driver.core.ProtocolOptions.Compression;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
@@ -8,6 +9,11 @@ import com.google.common.collect.ImmutableList;
 /**
  * Provide configuration to tell the DSE Cassandra driver how to connect to a ring.
  * 
+ * <p>
+ * Only {@code hosts} is required. Driver tuning settings which are left unset keep the driver's defaults; see
+ * {@link com.clearcapital.oss.cassandra.ClusterBuilderHelpers}.
+ * </p>
+ * 
  * @author eehlinger
  *
  */
@@ -25,9 +31,28 @@ public class RingConfiguration {
     @JsonProperty
     private String solrUri;
 
+    @JsonProperty
+    private Compression compression;
+
+    @JsonProperty
+    private Integer connectTimeoutMillis;
+
+    @JsonProperty
+    private Integer readTimeoutMillis;
+
+    @JsonProperty
+    private PoolingConfiguration pooling;
+
+    @JsonProperty
+    private LoadBalancingConfiguration loadBalancing;
+
+    @JsonProperty
+    private SpeculativeExecutionConfiguration speculativeExecution;
+
     @Override
     public int hashCode() {
-        return Objects.hashCode(this, hosts, port, preferredKeyspace, solrUri);
+        return Objects.hashCode(hosts, port, preferredKeyspace, solrUri, compression, connectTimeoutMillis,
+                readTimeoutMillis, pooling, loadBalancing, speculativeExecution);
     }
 
     @Override
@@ -35,7 +60,12 @@ public class RingConfiguration {
         if (obj instanceof RingConfiguration) {
             RingConfiguration that = (RingConfiguration) obj;
             return Objects.equal(hosts, that.hosts) && Objects.equal(port, that.port)
-                    && Objects.equal(preferredKeyspace, that.preferredKeyspace) && Objects.equal(solrUri, that.solrUri);
+                    && Objects.equal(preferredKeyspace, that.preferredKeyspace) && Objects.equal(solrUri, that.solrUri)
+                    && Objects.equal(compression, that.compression)
+                    && Objects.equal(connectTimeoutMillis, that.connectTimeoutMillis)
+                    && Objects.equal(readTimeoutMillis, that.readTimeoutMillis)
+                    && Objects.equal(pooling, that.pooling) && Objects.equal(loadBalancing, that.loadBalancing)
+                    && Objects.equal(speculativeExecution, that.speculativeExecution);
         }
         return false;
     }
@@ -43,7 +73,10 @@ public class RingConfiguration {
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this).add("hosts", hosts).add("port", port)
-                .add("preferredKeyspace", preferredKeyspace).add("solrUri", solrUri).toString();
+                .add("preferredKeyspace", preferredKeyspace).add("solrUri", solrUri).add("compression", compression)
+                .add("connectTimeoutMillis", connectTimeoutMillis).add("readTimeoutMillis", readTimeoutMillis)
+                .add("pooling", pooling).add("loadBalancing", loadBalancing)
+                .add("speculativeExecution", speculativeExecution).toString();
     }
 
     public ImmutableList<String> getHosts() {
@@ -62,6 +95,38 @@ public class RingConfiguration {
         return solrUri;
     }
 
+    /**
+     * Protocol compression. LZ4 requires net.jpountz.lz4:lz4, and SNAPPY org.xerial.snappy:snappy-java, on the
+     * classpath.
+     */
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public Integer getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    /**
+     * How long the driver waits for a response from a host before trying the next one. Should be longer than the
+     * server's own read and write timeouts.
+     */
+    public Integer getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public PoolingConfiguration getPooling() {
+        return pooling;
+    }
+
+    public LoadBalancingConfiguration getLoadBalancing() {
+        return loadBalancing;
+    }
+
+    public SpeculativeExecutionConfiguration getSpeculativeExecution() {
+        return speculativeExecution;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -97,6 +162,36 @@ public class RingConfiguration {
             result.solrUri = solrUri;
             return this;
         }
+
+        public Builder setCompression(Compression value) {
+            result.compression = value;
+            return this;
+        }
+
+        public Builder setConnectTimeoutMillis(Integer value) {
+            result.connectTimeoutMillis = value;
+            return this;
+        }
+
+        public Builder setReadTimeoutMillis(Integer value) {
+            result.readTimeoutMillis = value;
+            return this;
+        }
+
+        public Builder setPooling(PoolingConfiguration value) {
+            result.pooling = value;
+            return this;
+        }
+
+        public Builder setLoadBalancing(LoadBalancingConfiguration value) {
+            result.loadBalancing = value;
+            return this;
+        }
+
+        public Builder setSpeculativeExecution(SpeculativeExecutionConfiguration value) {
+            result.speculativeExecution = value;
+            return this;
+        }
     }
 
 }
@@ -0,0 +1,75 @@
+package com.clearcapital.oss.cassandra.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * Send an idempotent request to another host if the first one hasn't answered after {@code delayMillis}, up to
+ * {@code maxExecutions} times in all; see {@link com.datastax.driver.core.policies.ConstantSpeculativeExecutionPolicy}.
+ * The driver never speculatively executes statements which aren't marked idempotent.
+ */
+public class SpeculativeExecutionConfiguration {
+
+    @JsonProperty
+    private Long delayMillis;
+
+    @JsonProperty
+    private Integer maxExecutions;
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(delayMillis, maxExecutions);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof SpeculativeExecutionConfiguration) {
+            SpeculativeExecutionConfiguration that = (SpeculativeExecutionConfiguration) obj;
+            return Objects.equal(delayMillis, that.delayMillis) && Objects.equal(maxExecutions, that.maxExecutions);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("delayMillis", delayMillis).add("maxExecutions", maxExecutions)
+                .toString();
+    }
+
+    public Long getDelayMillis() {
+        return delayMillis;
+    }
+
+    public Integer getMaxExecutions() {
+        return maxExecutions;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        SpeculativeExecutionConfiguration result;
+
+        Builder() {
+            result = new SpeculativeExecutionConfiguration();
+        }
+
+        public SpeculativeExecutionConfiguration build() {
+            return result;
+        }
+
+        public Builder setDelayMillis(Long value) {
+            result.delayMillis = value;
+            return this;
+        }
+
+        public Builder setMaxExecutions(Integer value) {
+            result.maxExecutions = value;
+            return this;
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.clearcapital.oss.cassandra.iterate;
+
+import com.clearcapital.oss.cassandra.SessionHelper;
+import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.querybuilder.Delete;
+import com.datastax.driver.core.querybuilder.Insert;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+
+/**
+ * Keeps checkpoints in a Cassandra table, so that a walk can be resumed from a different host. The table is created if
+ * it doesn't exist:
+ * 
+ * <pre>
+ * CREATE TABLE walker_checkpoints (
+ *     walk_name text, start_token bigint, end_token bigint,
+ *     last_token bigint, query_start_token bigint, paging_state text, completed boolean,
+ *     PRIMARY KEY ((walk_name), start_token, end_token));
+ * </pre>
+ */
+public class CassandraCheckpointStore implements CheckpointStore {
+
+    private SessionHelper session;
+    private String tableName;
+    private ConsistencyLevel consistencyLevel;
+
+    private PreparedStatement loadStatement;
+    private PreparedStatement saveStatement;
+    private PreparedStatement clearStatement;
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private SessionHelper session;
+        private String tableName = "walker_checkpoints";
+        private ConsistencyLevel consistencyLevel = ConsistencyLevel.LOCAL_QUORUM;
+
+        Builder() {
+        }
+
+        public Builder setSession(SessionHelper value) {
+            session = value;
+            return this;
+        }
+
+        public Builder setTableName(String value) {
+            tableName = value;
+            return this;
+        }
+
+        public Builder setConsistencyLevel(ConsistencyLevel value) {
+            consistencyLevel = value;
+            return this;
+        }
+
+        public CassandraCheckpointStore build() throws AssertException, CassandraException {
+            AssertHelpers.notNull(session, "session");
+            AssertHelpers.notNull(tableName, "tableName");
+            AssertHelpers.notNull(consistencyLevel, "consistencyLevel");
+
+            CassandraCheckpointStore result = new CassandraCheckpointStore();
+            result.session = session;
+            result.tableName = tableName;
+            result.consistencyLevel = consistencyLevel;
+            result.prepareStatements();
+            return result;
+        }
+    }
+
+    private CassandraCheckpointStore() {
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    @Override
+    public WalkerCheckpoint load(String walkName, long startToken, long endToken) throws CassandraException {
+        Row row = session.execute(loadStatement.bind(walkName, startToken, endToken)).one();
+        if (row == null) {
+            return null;
+        }
+        return WalkerCheckpoint.builder().setStartToken(startToken).setEndToken(endToken)
+                .setLastToken(row.isNull("last_token") ? null : row.getLong("last_token"))
+                .setQueryStartToken(row.isNull("query_start_token") ? null : row.getLong("query_start_token"))
+                .setPagingState(row.getString("paging_state")).setCompleted(row.getBool("completed")).build();
+    }
+
+    @Override
+    public void save(String walkName, WalkerCheckpoint checkpoint) throws CassandraException {
+        session.execute(saveStatement.bind(walkName, checkpoint.getStartToken(), checkpoint.getEndToken(),
+                checkpoint.getLastToken(), checkpoint.getQueryStartToken(), checkpoint.getPagingState(),
+                checkpoint.isCompleted()));
+    }
+
+    @Override
+    public void clear(String walkName) throws CassandraException {
+        session.execute(clearStatement.bind(walkName));
+    }
+
+    private void prepareStatements() throws CassandraException {
+        session.execute("CREATE TABLE IF NOT EXISTS " + tableName
+                + " (walk_name text, start_token bigint, end_token bigint, last_token bigint,"
+                + " query_start_token bigint, paging_state text, completed boolean,"
+                + " PRIMARY KEY ((walk_name), start_token, end_token))");
+
+        // Prepared statements may be shared, so the consistency level goes on the statement being prepared.
+        Select.Where load = QueryBuilder.select("last_token", "query_start_token", "paging_state", "completed")
+                .from(tableName).where(QueryBuilder.eq("walk_name", QueryBuilder.bindMarker()))
+                .and(QueryBuilder.eq("start_token", QueryBuilder.bindMarker()))
+                .and(QueryBuilder.eq("end_token", QueryBuilder.bindMarker()));
+        load.setConsistencyLevel(consistencyLevel);
+        loadStatement = session.prepare(load);
+
+        Insert save = QueryBuilder.insertInto(tableName).value("walk_name", QueryBuilder.bindMarker())
+                .value("start_token", QueryBuilder.bindMarker()).value("end_token", QueryBuilder.bindMarker())
+                .value("last_token", QueryBuilder.bindMarker()).value("query_start_token", QueryBuilder.bindMarker())
+                .value("paging_state", QueryBuilder.bindMarker()).value("completed", QueryBuilder.bindMarker());
+        save.setConsistencyLevel(consistencyLevel);
+        saveStatement = session.prepare(save);
+
+        Delete.Where clear = QueryBuilder.delete().from(tableName)
+                .where(QueryBuilder.eq("walk_name", QueryBuilder.bindMarker()));
+        clear.setConsistencyLevel(consistencyLevel);
+        clearStatement = session.prepare(clear);
+    }
+
+}
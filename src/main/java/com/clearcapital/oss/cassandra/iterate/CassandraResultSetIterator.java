@@ -1,34 +1,109 @@
 package com.clearcapital.oss.cassandra.iterate;
 
 import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.clearcapital.oss.cassandra.exceptions.CassandraDeserializationException;
+import com.clearcapital.oss.cassandra.limits.AdaptiveConcurrencyLimiter;
+import com.clearcapital.oss.cassandra.limits.ScanThrottle;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
 
+/**
+ * Iterate a {@link ResultSet}, deserializing each row.
+ * 
+ * <p>
+ * By default the driver only fetches the next page once the current one is exhausted, blocking {@link #next()} for a
+ * round trip every page. With a {@code prefetchThreshold} greater than zero, the next page is requested asynchronously
+ * as soon as no more than that many rows remain in the current one, so it arrives while those rows are being
+ * deserialized and consumed.
+ * </p>
+ * 
+ * <p>
+ * With an {@link AdaptiveConcurrencyLimiter}, every page fetch waits for a permit, so that walks share the ring's
+ * concurrency limit with everything else executed through its sessions. Likewise, with a {@link ScanThrottle}, every
+ * page fetch waits for the throttle, and reports its latency to it.
+ * </p>
+ */
 public class CassandraResultSetIterator<E> implements Iterator<E>, Iterable<E> {
 
     private static Logger log = LoggerFactory.getLogger(CassandraResultSetIterator.class);
+    private final ResultSet resultSet;
     private final Iterator<Row> iterator;
     private final CassandraRowDeserializer<E> deserializer;
+    private final int prefetchThreshold;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ScanThrottle throttle;
+    private ListenableFuture<ResultSet> pendingFetch;
     private Row row;
 
     public CassandraResultSetIterator(ResultSet resultSet, CassandraRowDeserializer<E> deserializer) {
+        this(resultSet, deserializer, 0);
+    }
+
+    /**
+     * @param prefetchThreshold
+     *            request the next page once this many rows or fewer remain in the current one; 0 disables prefetching.
+     */
+    public CassandraResultSetIterator(ResultSet resultSet, CassandraRowDeserializer<E> deserializer,
+            int prefetchThreshold) {
+        this(resultSet, deserializer, prefetchThreshold, null);
+    }
+
+    /**
+     * @param limiter
+     *            limits concurrent page fetches; may be null.
+     */
+    public CassandraResultSetIterator(ResultSet resultSet, CassandraRowDeserializer<E> deserializer,
+            int prefetchThreshold, AdaptiveConcurrencyLimiter limiter) {
+        this(resultSet, deserializer, prefetchThreshold, limiter, null);
+    }
+
+    /**
+     * @param throttle
+     *            throttles page fetches; may be null.
+     */
+    public CassandraResultSetIterator(ResultSet resultSet, CassandraRowDeserializer<E> deserializer,
+            int prefetchThreshold, AdaptiveConcurrencyLimiter limiter, ScanThrottle throttle) {
+        this.resultSet = resultSet;
         this.iterator = resultSet.iterator();
         this.deserializer = deserializer;
+        this.prefetchThreshold = prefetchThreshold;
+        this.limiter = limiter;
+        this.throttle = throttle;
     }
 
     @Override
     public boolean hasNext() {
+        if ((limiter != null || throttle != null) && resultSet.getAvailableWithoutFetching() == 0
+                && !resultSet.isFullyFetched()) {
+            // Otherwise the driver would fetch the next page itself, bypassing the limiter and throttle.
+            try {
+                Uninterruptibles.getUninterruptibly(fetchMoreResults());
+            } catch (ExecutionException e) {
+                // The driver's iterator retries the fetch, and throws if that fails too.
+                log.debug("Could not fetch next page", e.getCause());
+            }
+        }
         return iterator.hasNext();
     }
 
     @Override
     public E next() {
         row = iterator.next();
+        if (prefetchThreshold > 0 && !resultSet.isFullyFetched()
+                && resultSet.getAvailableWithoutFetching() <= prefetchThreshold) {
+            // A no-op if the next page has already been requested.
+            fetchMoreResults();
+        }
         try {
             return deserializer.deserializeRow(row);
         } catch (CassandraDeserializationException e) {
@@ -37,6 +112,47 @@ public class CassandraResultSetIterator<E> implements Iterator<E>, Iterable<E> {
         }
     }
 
+    private ListenableFuture<ResultSet> fetchMoreResults() {
+        if (pendingFetch != null && !pendingFetch.isDone()) {
+            return pendingFetch;
+        }
+        if (throttle != null) {
+            throttle.acquirePage();
+        }
+        final long fetchStart = System.nanoTime();
+        if (limiter == null) {
+            pendingFetch = resultSet.fetchMoreResults();
+        } else {
+            pendingFetch = Futures.transformAsync(limiter.acquire(), new AsyncFunction<Void, ResultSet>() {
+
+                @Override
+                public ListenableFuture<ResultSet> apply(Void value) {
+                    long start = System.nanoTime();
+                    ListenableFuture<ResultSet> result;
+                    try {
+                        result = resultSet.fetchMoreResults();
+                    } catch (RuntimeException e) {
+                        limiter.onFailure(e);
+                        throw e;
+                    }
+                    limiter.releaseWhenDone(result, start);
+                    return result;
+                }
+            }, MoreExecutors.directExecutor());
+        }
+        if (throttle != null) {
+            // Includes any wait for the limiter, which is itself a sign of load.
+            pendingFetch.addListener(new Runnable() {
+
+                @Override
+                public void run() {
+                    throttle.onPageFetched(System.nanoTime() - fetchStart);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+        return pendingFetch;
+    }
+
     public Row getRow() {
         return row;
     }
@@ -1,14 +1,54 @@
 package com.clearcapital.oss.cassandra.iterate;
 
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.clearcapital.oss.cassandra.RoutingKeys;
 import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.cassandra.limits.ScanThrottle;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PagingState;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.exceptions.PagingStateException;
 
+/**
+ * Iterate the token range of a {@link CassandraTableWalker}.
+ * 
+ * <p>
+ * If the walker has a {@link CheckpointStore}, iteration starts from the range's checkpoint, and a new checkpoint is
+ * recorded after every page (or every {@code fetchSize} rows, when prefetching means page boundaries are never seen).
+ * A checkpoint covering a record is only saved once the caller comes back for the next one, i.e. once that record has
+ * been processed; a record is therefore never skipped on resumption, but may be seen twice.
+ * </p>
+ * 
+ * <p>
+ * A token range query has no partition key, so the driver can't route its first page. Rows are read in token order,
+ * though, so the replicas of the last partition read are (almost always) the replicas of the next page: just before
+ * each page is fetched, the statement's routing key is set to that partition's key.
+ * </p>
+ * 
+ * <p>
+ * If the walker has a {@link ScanThrottle}, every row and every page fetch (including the first) goes through it.
+ * </p>
+ */
 public class CassandraTableIterator<E> implements Iterator<E> {
 
+    private static Logger log = LoggerFactory.getLogger(CassandraTableIterator.class);
+
     private final CassandraTableWalker<E> walker;
     private CassandraResultSetIterator<E> iterator;
+    private BoundStatement statement;
+    private ResultSet resultSet;
+    private ByteBuffer[] routingComponents;
+    private boolean finished;
+
+    private Long queryStartToken;
+    private Long lastToken;
+    private int rowsSinceCheckpoint;
+    private WalkerCheckpoint pendingCheckpoint;
 
     public CassandraTableIterator(final CassandraTableWalker<E> cassandraTableWalker) {
         this.walker = cassandraTableWalker;
@@ -16,34 +56,156 @@ public class CassandraTableIterator<E> implements Iterator<E> {
     }
 
     private CassandraResultSetIterator<E> needCurrentIterator() throws CassandraException {
-        ResultSet resultSet = null;
-        if (this.iterator == null) {
-            /**
-             * Lesson learned. PreparedStatement interface doesn't have getFetchSize(). So when a prepared statement is
-             * generated of the regular statement, the fetchSize information is lost. So at the time of creation of
-             * boundStement it is set back to 0, big problem for query. So when we bind prepared statement, the
-             * fetchSize also needs to be set again.
-             */
-            resultSet = walker.getSession().execute(walker.getReadStatement()
-                    .bind(walker.getStartToken(), walker.getEndToken()).setFetchSize(walker.getFetchSize()));
+        if (this.iterator == null && !finished) {
+            WalkerCheckpoint checkpoint = loadCheckpoint();
+            if (checkpoint != null && checkpoint.isCompleted()) {
+                log.debug("Token range already completed: " + checkpoint);
+                finished = true;
+                return null;
+            }
+            statement = bindReadStatement(checkpoint);
+            ScanThrottle throttle = walker.getThrottle();
+            if (throttle != null) {
+                throttle.acquirePage();
+            }
+            long start = System.nanoTime();
+            resultSet = walker.getSession().execute(statement);
+            if (throttle != null) {
+                throttle.onPageFetched(System.nanoTime() - start);
+            }
+            this.iterator = new CassandraResultSetIterator<E>(resultSet, walker.getDeserializer(),
+                    walker.getPrefetchThreshold(), walker.getSession().getConcurrencyLimiter(), throttle);
         }
 
-        if (resultSet != null) {
-            this.iterator = new CassandraResultSetIterator<E>(resultSet, walker.getDeserializer());
+        return this.iterator;
+    }
+
+    /**
+     * Lesson learned. PreparedStatement interface doesn't have getFetchSize(). So when a prepared statement is
+     * generated of the regular statement, the fetchSize information is lost. So at the time of creation of boundStement
+     * it is set back to 0, big problem for query. So when we bind prepared statement, the fetchSize also needs to be
+     * set again.
+     */
+    private BoundStatement bindReadStatement(WalkerCheckpoint checkpoint) {
+        queryStartToken = walker.getStartToken();
+        if (checkpoint != null && checkpoint.getLastToken() != null) {
+            lastToken = checkpoint.getLastToken();
+            walker.setToken(lastToken);
+
+            if (checkpoint.getPagingState() != null && checkpoint.getQueryStartToken() != null) {
+                BoundStatement result = walker.getReadStatement().bind(checkpoint.getQueryStartToken(),
+                        walker.getEndToken());
+                result.setFetchSize(walker.getFetchSize());
+                try {
+                    result.setPagingState(PagingState.fromString(checkpoint.getPagingState()));
+                    queryStartToken = checkpoint.getQueryStartToken();
+                    return result;
+                } catch (PagingStateException e) {
+                    log.warn("Could not resume from paging state; resuming from token " + lastToken, e);
+                }
+            }
+            queryStartToken = lastToken;
         }
+        BoundStatement result = walker.getReadStatement().bind(queryStartToken, walker.getEndToken());
+        result.setFetchSize(walker.getFetchSize());
+        return result;
+    }
 
-        return this.iterator;
+    private WalkerCheckpoint loadCheckpoint() throws CassandraException {
+        if (walker.getCheckpointStore() == null) {
+            return null;
+        }
+        WalkerCheckpoint result = walker.getCheckpointStore().load(walker.getWalkName(), walker.getStartToken(),
+                walker.getEndToken());
+        if (result != null) {
+            log.info("Resuming token range from checkpoint: " + result);
+        }
+        return result;
+    }
+
+    /**
+     * Note progress after returning a row. At a page boundary the driver's paging state points just past that row;
+     * elsewhere only its token is known.
+     */
+    private void recordProgress() {
+        lastToken = iterator.getRow().getLong(0);
+        walker.setToken(lastToken);
+        if (resultSet.getAvailableWithoutFetching() <= walker.getPrefetchThreshold() + 1) {
+            updateRoutingKey();
+        }
+        if (walker.getCheckpointStore() == null) {
+            return;
+        }
+
+        ++rowsSinceCheckpoint;
+        boolean pageBoundary = resultSet.getAvailableWithoutFetching() == 0;
+        if (pageBoundary || rowsSinceCheckpoint >= walker.getFetchSize()) {
+            PagingState pagingState = pageBoundary ? resultSet.getExecutionInfo().getPagingState() : null;
+            pendingCheckpoint = newCheckpoint().setPagingState(pagingState == null ? null : pagingState.toString())
+                    .build();
+            rowsSinceCheckpoint = 0;
+        }
+    }
+
+    /**
+     * Route the next page to the replicas of the current row's partition. The next page is fetched, using the same
+     * statement, once the current page runs out (or, with prefetching, once it runs low).
+     */
+    private void updateRoutingKey() {
+        String[] routingColumnNames = walker.getRoutingColumnNames();
+        if (routingColumnNames == null || resultSet.isFullyFetched()) {
+            return;
+        }
+        if (routingComponents == null) {
+            routingComponents = new ByteBuffer[routingColumnNames.length];
+        }
+        for (int index = 0; index < routingColumnNames.length; ++index) {
+            routingComponents[index] = iterator.getRow().getBytesUnsafe(routingColumnNames[index]);
+        }
+        ByteBuffer routingKey = RoutingKeys.compose(routingComponents);
+        if (routingKey != null) {
+            statement.setRoutingKey(routingKey);
+        }
+    }
+
+    private WalkerCheckpoint.Builder newCheckpoint() {
+        return WalkerCheckpoint.builder().setStartToken(walker.getStartToken()).setEndToken(walker.getEndToken())
+                .setLastToken(lastToken).setQueryStartToken(queryStartToken);
+    }
+
+    /**
+     * Save the pending checkpoint, if any. Called when the caller asks for the next record, so that the records it
+     * covers have been processed. A failure to save only means more records are read again on resumption, so it is
+     * logged rather than thrown.
+     */
+    private void flushCheckpoint() {
+        if (pendingCheckpoint == null) {
+            return;
+        }
+        try {
+            walker.getCheckpointStore().save(walker.getWalkName(), pendingCheckpoint);
+        } catch (CassandraException e) {
+            log.warn("Could not save checkpoint: " + pendingCheckpoint, e);
+        }
+        pendingCheckpoint = null;
     }
 
     @Override
     public boolean hasNext() {
         try {
+            flushCheckpoint();
             CassandraResultSetIterator<E> iterator = needCurrentIterator();
-            if (iterator != null) {
-                return iterator.hasNext();
-            } else {
-                return false;
+            if (iterator != null && iterator.hasNext()) {
+                return true;
             }
+            if (iterator != null && !finished) {
+                finished = true;
+                if (walker.getCheckpointStore() != null) {
+                    pendingCheckpoint = newCheckpoint().setCompleted(true).build();
+                    flushCheckpoint();
+                }
+            }
+            return false;
         } catch (CassandraException e) {
             return false;
         }
@@ -52,11 +214,15 @@ public class CassandraTableIterator<E> implements Iterator<E> {
     @Override
     public E next() {
         try {
+            flushCheckpoint();
             CassandraResultSetIterator<E> iterator = needCurrentIterator();
             if (iterator != null) {
+                if (walker.getThrottle() != null) {
+                    walker.getThrottle().acquireRows(1);
+                }
                 E result = iterator.next(); // side effect: iterator remembers
                                             // next row as row()
-                walker.setToken(iterator.getRow().getLong(0));
+                recordProgress();
                 return result;
             } else {
                 return null;
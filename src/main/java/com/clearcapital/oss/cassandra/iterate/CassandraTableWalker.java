@@ -1,12 +1,15 @@
 package com.clearcapital.oss.cassandra.iterate;
 
+import java.math.BigInteger;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
 import com.clearcapital.oss.cassandra.SessionHelper;
+import com.clearcapital.oss.cassandra.limits.ScanThrottle;
 import com.clearcapital.oss.java.AssertHelpers;
 import com.clearcapital.oss.java.exceptions.AssertException;
 import com.datastax.driver.core.ColumnMetadata;
@@ -27,11 +30,15 @@ public class CassandraTableWalker<E> implements Iterable<E> {
     private String tableName;
     private String[] keyColumnNames;
     private int fetchSize;
-    private Long token;
+    private int prefetchThreshold;
+    private volatile Long token;
     private Long startToken;
     private Long endToken;
     private String[] selectColumnNames;
     private ConsistencyLevel readConsistencyLevel;
+    private CheckpointStore checkpointStore;
+    private String walkName;
+    private ScanThrottle throttle;
 
     static public <E> Builder<E> builder() throws AssertException {
         return new Builder<E>();
@@ -51,6 +58,9 @@ public class CassandraTableWalker<E> implements Iterable<E> {
      * Progress, as percentage of the specified token range.
      */
     public double getProgress() {
+        if (getToken() == null) {
+            return 0.0;
+        }
         double rangeSize = (double) getEndToken() - (double) getStartToken();
         double tokenOffset = (double) getToken() - (double) getStartToken();
         double progress = tokenOffset / rangeSize * 100.0;
@@ -62,6 +72,51 @@ public class CassandraTableWalker<E> implements Iterable<E> {
         return new CassandraTableIterator<E>(this);
     }
 
+    /**
+     * Split this walker's token range into {@code count} contiguous sub-ranges of (nearly) equal size, returning a
+     * walker for each. The walkers share this walker's session, prepared statement and deserializer, and can be
+     * iterated concurrently.
+     * 
+     * @see ParallelTableWalker
+     */
+    public List<CassandraTableWalker<E>> split(int count) throws AssertException {
+        AssertHelpers.isTrue(count > 0, "count > 0");
+        buildStatements();
+
+        BigInteger start = BigInteger.valueOf(getStartToken());
+        BigInteger size = BigInteger.valueOf(getEndToken()).subtract(start).add(BigInteger.ONE);
+        BigInteger parts = BigInteger.valueOf(count);
+        AssertHelpers.isTrue(size.compareTo(parts) >= 0, "token range must contain at least " + count + " tokens");
+
+        ImmutableList.Builder<CassandraTableWalker<E>> result = ImmutableList.<CassandraTableWalker<E>> builder();
+        for (int index = 0; index < count; ++index) {
+            BigInteger subStart = start.add(size.multiply(BigInteger.valueOf(index)).divide(parts));
+            BigInteger subEnd = start.add(size.multiply(BigInteger.valueOf(index + 1)).divide(parts))
+                    .subtract(BigInteger.ONE);
+            result.add(copyForRange(subStart.longValue(), subEnd.longValue()));
+        }
+        return result.build();
+    }
+
+    private CassandraTableWalker<E> copyForRange(long start, long end) {
+        CassandraTableWalker<E> result = new CassandraTableWalker<E>();
+        result.session = session;
+        result.readStatement = readStatement;
+        result.deserializer = deserializer;
+        result.tableName = tableName;
+        result.keyColumnNames = keyColumnNames;
+        result.fetchSize = fetchSize;
+        result.prefetchThreshold = prefetchThreshold;
+        result.selectColumnNames = selectColumnNames;
+        result.readConsistencyLevel = readConsistencyLevel;
+        result.checkpointStore = checkpointStore;
+        result.walkName = walkName;
+        result.throttle = throttle;
+        result.startToken = start;
+        result.endToken = end;
+        return result;
+    }
+
     static public class Builder<E> {
 
         CassandraTableWalker<E> result;
@@ -70,6 +125,7 @@ public class CassandraTableWalker<E> implements Iterable<E> {
             result = new CassandraTableWalker<E>();
             result.readStatement = null;
             setFetchSize(100);
+            setPrefetchThreshold(0);
             setStartToken(Long.MIN_VALUE);
             setEndToken(Long.MAX_VALUE);
             setReadConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
@@ -91,6 +147,42 @@ public class CassandraTableWalker<E> implements Iterable<E> {
             return this;
         }
 
+        /**
+         * Request the next page asynchronously once this many rows or fewer remain in the current one, so that the
+         * round trip overlaps with processing the rest of the page. Something like half the fetch size works well; 0
+         * (the default) disables prefetching.
+         */
+        public Builder<E> setPrefetchThreshold(int value) {
+            result.prefetchThreshold = value;
+            return this;
+        }
+
+        /**
+         * Save progress to {@code store} under {@code walkName} as the walk proceeds, and resume from the saved
+         * checkpoint, if any, when iteration starts. A range which has already been completed yields no records; use
+         * {@link CheckpointStore#clear(String)} to walk it again.
+         * 
+         * <p>
+         * Checkpoints are keyed by token range, so a walk split by {@link ParallelTableWalker} must be resumed with the
+         * same split count. Records are delivered at least once: those read since the last checkpoint are read again on
+         * resumption.
+         * </p>
+         */
+        public Builder<E> setCheckpointStore(CheckpointStore store, String walkName) {
+            result.checkpointStore = store;
+            result.walkName = walkName;
+            return this;
+        }
+
+        /**
+         * Throttle the walk's rows and page fetches. Walkers produced by {@link CassandraTableWalker#split(int)} share
+         * the throttle, so its limits apply to the walk as a whole.
+         */
+        public Builder<E> setThrottle(ScanThrottle value) {
+            result.throttle = value;
+            return this;
+        }
+
         public Builder<E> setKeyColumnNames(Iterable<String> value) {
             List<String> asCollection = ImmutableList.<String> copyOf(value);
             return setKeyColumnNames(asCollection);
@@ -195,6 +287,51 @@ public class CassandraTableWalker<E> implements Iterable<E> {
         return fetchSize;
     }
 
+    /**
+     * NOTE: Used by CassandraTableIterator<E>
+     */
+    int getPrefetchThreshold() {
+        return prefetchThreshold;
+    }
+
+    /**
+     * NOTE: Used by CassandraTableIterator<E>
+     */
+    CheckpointStore getCheckpointStore() {
+        return checkpointStore;
+    }
+
+    /**
+     * NOTE: Used by CassandraTableIterator<E>
+     */
+    String getWalkName() {
+        return walkName;
+    }
+
+    /**
+     * NOTE: Used by CassandraTableIterator<E>
+     */
+    ScanThrottle getThrottle() {
+        return throttle;
+    }
+
+    /**
+     * The partition key columns, if they are among the selected columns, so that a row's routing key can be read back
+     * from it; null otherwise.
+     * 
+     * NOTE: Used by CassandraTableIterator<E>
+     */
+    String[] getRoutingColumnNames() {
+        if (keyColumnNames == null || keyColumnNames.length == 0) {
+            return null;
+        }
+        if (selectColumnNames != null && selectColumnNames.length > 0
+                && !Arrays.asList(selectColumnNames).containsAll(Arrays.asList(keyColumnNames))) {
+            return null;
+        }
+        return keyColumnNames;
+    }
+
     private CassandraTableWalker() {
     
     }
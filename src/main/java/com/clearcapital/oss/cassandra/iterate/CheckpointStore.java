@@ -0,0 +1,30 @@
+package com.clearcapital.oss.cassandra.iterate;
+
+import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+
+/**
+ * Persists {@link WalkerCheckpoint}s so that an interrupted walk can resume where it left off.
+ * 
+ * <p>
+ * Checkpoints are identified by a walk name, chosen by the caller (for example, a transformer's class name), plus the
+ * token range they cover. Implementations must be thread-safe: {@link ParallelTableWalker} saves checkpoints for many
+ * ranges at once.
+ * </p>
+ * 
+ * @see FileCheckpointStore
+ * @see CassandraCheckpointStore
+ */
+public interface CheckpointStore {
+
+    /**
+     * The checkpoint for {@code walkName} over [{@code startToken}, {@code endToken}], or null if there is none.
+     */
+    WalkerCheckpoint load(String walkName, long startToken, long endToken) throws CassandraException;
+
+    void save(String walkName, WalkerCheckpoint checkpoint) throws CassandraException;
+
+    /**
+     * Forget every checkpoint for {@code walkName}, so that the next walk starts from scratch.
+     */
+    void clear(String walkName) throws CassandraException;
+}
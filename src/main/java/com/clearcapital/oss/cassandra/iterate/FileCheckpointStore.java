@@ -0,0 +1,146 @@
+package com.clearcapital.oss.cassandra.iterate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+
+/**
+ * Keeps checkpoints on local disk: one small properties file per walk and token range, under
+ * {@code directory/walkName/}. Files are replaced atomically, so a crash mid-save leaves the previous checkpoint
+ * intact.
+ */
+public class FileCheckpointStore implements CheckpointStore {
+
+    private static final String LAST_TOKEN = "lastToken";
+    private static final String QUERY_START_TOKEN = "queryStartToken";
+    private static final String PAGING_STATE = "pagingState";
+    private static final String COMPLETED = "completed";
+
+    private Path directory;
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Path directory;
+
+        Builder() {
+        }
+
+        public Builder setDirectory(Path value) {
+            directory = value;
+            return this;
+        }
+
+        public FileCheckpointStore build() throws AssertException {
+            AssertHelpers.notNull(directory, "directory");
+            FileCheckpointStore result = new FileCheckpointStore();
+            result.directory = directory;
+            return result;
+        }
+    }
+
+    private FileCheckpointStore() {
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public WalkerCheckpoint load(String walkName, long startToken, long endToken) throws CassandraException {
+        Path file = getFile(walkName, startToken, endToken);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new CassandraException("Could not read checkpoint " + file, e);
+        }
+
+        return WalkerCheckpoint.builder().setStartToken(startToken).setEndToken(endToken)
+                .setLastToken(getLong(properties, LAST_TOKEN))
+                .setQueryStartToken(getLong(properties, QUERY_START_TOKEN))
+                .setPagingState(properties.getProperty(PAGING_STATE))
+                .setCompleted(Boolean.parseBoolean(properties.getProperty(COMPLETED))).build();
+    }
+
+    @Override
+    public void save(String walkName, WalkerCheckpoint checkpoint) throws CassandraException {
+        Properties properties = new Properties();
+        if (checkpoint.getLastToken() != null) {
+            properties.setProperty(LAST_TOKEN, checkpoint.getLastToken().toString());
+        }
+        if (checkpoint.getQueryStartToken() != null) {
+            properties.setProperty(QUERY_START_TOKEN, checkpoint.getQueryStartToken().toString());
+        }
+        if (checkpoint.getPagingState() != null) {
+            properties.setProperty(PAGING_STATE, checkpoint.getPagingState());
+        }
+        properties.setProperty(COMPLETED, Boolean.toString(checkpoint.isCompleted()));
+
+        Path file = getFile(walkName, checkpoint.getStartToken(), checkpoint.getEndToken());
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    properties.store(out, walkName);
+                }
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new CassandraException("Could not write checkpoint " + file, e);
+        }
+    }
+
+    @Override
+    public void clear(String walkName) throws CassandraException {
+        Path walkDirectory = getWalkDirectory(walkName);
+        if (!Files.isDirectory(walkDirectory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(walkDirectory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+            Files.delete(walkDirectory);
+        } catch (IOException e) {
+            throw new CassandraException("Could not clear checkpoints in " + walkDirectory, e);
+        }
+    }
+
+    private static Long getLong(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        return value == null ? null : Long.valueOf(value);
+    }
+
+    private Path getWalkDirectory(String walkName) {
+        return directory.resolve(walkName.replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
+    private Path getFile(String walkName, long startToken, long endToken) {
+        return getWalkDirectory(walkName).resolve(startToken + "_" + endToken + ".properties");
+    }
+
+}
@@ -0,0 +1,422 @@
+package com.clearcapital.oss.cassandra.iterate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Walk a table's token range as several sub-ranges at once.
+ *
+ * <p>
+ * A {@link CassandraTableWalker} reads its whole range with a single sequential query. ParallelTableWalker splits that
+ * range into {@code splitCount} sub-ranges (see {@link CassandraTableWalker#split(int)}) and scans up to
+ * {@code threadCount} of them concurrently. Results are available either per range, through
+ * {@link #forEachRange(RangeCallback)}, or merged into a single {@link Iterable}, in no particular order.
+ * </p>
+ *
+ * <pre>
+ * ParallelTableWalker&lt;Model&gt; walker = ParallelTableWalker.&lt;Model&gt; builder()
+ *         .setWalker(table.getWalker().build()).setSplitCount(256).setThreadCount(8).build();
+ * walker.forEachRange(range -&gt; {
+ *     for (Model model : range) {
+ *         process(model);
+ *     }
+ * });
+ * </pre>
+ */
+public class ParallelTableWalker<E> implements Iterable<E> {
+
+    private static Logger log = LoggerFactory.getLogger(ParallelTableWalker.class);
+
+    /**
+     * Placeholder for null records in the merged iterator's queue, which can't hold nulls.
+     */
+    private static final Object NULL_RECORD = new Object();
+
+    /**
+     * Queued by each worker once its range is finished (or has failed).
+     */
+    private static final Object RANGE_DONE = new Object();
+
+    /**
+     * How often a worker blocked on a full queue checks whether its iterator has been closed.
+     */
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private ImmutableList<CassandraTableWalker<E>> ranges;
+    private double[] rangeWeights;
+    private volatile Set<Integer> completedRanges = ConcurrentHashMap.newKeySet();
+    private int threadCount;
+    private int queueCapacity;
+    private ExecutorService executor;
+
+    /**
+     * The merged iterator of a walk. Closing it stops the walk: its workers are cancelled, and release their threads.
+     */
+    public interface WalkIterator<E> extends Iterator<E>, AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Called once for each sub-range, from a worker thread. Callbacks for different ranges run concurrently.
+     */
+    public interface RangeCallback<E> {
+
+        void processRange(CassandraTableWalker<E> range) throws Exception;
+    }
+
+    public static <E> Builder<E> builder() {
+        return new Builder<E>();
+    }
+
+    public static class Builder<E> {
+
+        private CassandraTableWalker<E> walker;
+        private int splitCount = 16;
+        private int threadCount = 4;
+        private int queueCapacity = 1000;
+        private ExecutorService executor;
+
+        Builder() {
+        }
+
+        /**
+         * The walker describing the whole range to scan.
+         */
+        public Builder<E> setWalker(CassandraTableWalker<E> value) {
+            walker = value;
+            return this;
+        }
+
+        /**
+         * Number of sub-ranges. More sub-ranges than threads evens out the work when data is unevenly distributed.
+         */
+        public Builder<E> setSplitCount(int value) {
+            splitCount = value;
+            return this;
+        }
+
+        /**
+         * Maximum number of sub-ranges scanned at once. Ignored if {@link #setExecutor(ExecutorService)} is used.
+         */
+        public Builder<E> setThreadCount(int value) {
+            threadCount = value;
+            return this;
+        }
+
+        /**
+         * Capacity of the buffer between the workers and the merged {@link #iterator()}.
+         */
+        public Builder<E> setQueueCapacity(int value) {
+            queueCapacity = value;
+            return this;
+        }
+
+        /**
+         * Run sub-ranges on {@code value} instead of on a pool created for each walk. The caller remains responsible
+         * for shutting it down.
+         */
+        public Builder<E> setExecutor(ExecutorService value) {
+            executor = value;
+            return this;
+        }
+
+        public ParallelTableWalker<E> build() throws AssertException {
+            AssertHelpers.notNull(walker, "walker");
+            AssertHelpers.isTrue(threadCount > 0, "threadCount > 0");
+            AssertHelpers.isTrue(queueCapacity > 0, "queueCapacity > 0");
+
+            ParallelTableWalker<E> result = new ParallelTableWalker<E>();
+            result.ranges = ImmutableList.copyOf(walker.split(splitCount));
+            result.threadCount = threadCount;
+            result.queueCapacity = queueCapacity;
+            result.executor = executor;
+
+            double total = (double) walker.getEndToken() - (double) walker.getStartToken();
+            result.rangeWeights = new double[result.ranges.size()];
+            for (int index = 0; index < result.ranges.size(); ++index) {
+                CassandraTableWalker<E> range = result.ranges.get(index);
+                result.rangeWeights[index] = ((double) range.getEndToken() - (double) range.getStartToken()) / total;
+            }
+            return result;
+        }
+    }
+
+    private ParallelTableWalker() {
+    }
+
+    public ImmutableList<CassandraTableWalker<E>> getRanges() {
+        return ranges;
+    }
+
+    /**
+     * Progress of the latest walk, as a percentage of the whole token range: the size-weighted progress of every
+     * sub-range. Each walk keeps its own set of completed ranges, but the sub-range walkers, and so the progress within
+     * a range, are shared by concurrent walks.
+     */
+    public double getProgress() {
+        Set<Integer> completed = completedRanges;
+        double result = 0.0;
+        for (int index = 0; index < ranges.size(); ++index) {
+            double rangeProgress = completed.contains(index) ? 100.0 : ranges.get(index).getProgress();
+            result += rangeWeights[index] * rangeProgress;
+        }
+        return result;
+    }
+
+    /**
+     * Estimated time of completion, given overall progress and the time which has elapsed since {@code start}. Null
+     * until some progress has been made.
+     */
+    public LocalDateTime getEta(final LocalDateTime start) {
+        double progress = getProgress();
+        if (progress <= 0.0) {
+            return null;
+        }
+        Duration elapsed = Duration.between(start, LocalDateTime.now());
+        long estTotal = (long) (elapsed.toMillis() / (progress / 100.0));
+        return start.plus(estTotal, ChronoUnit.MILLIS);
+    }
+
+    /**
+     * Call {@code callback} for every sub-range, at most {@code threadCount} at a time, and wait for all of them. If
+     * any callback fails, ranges which have not started yet are cancelled and the first failure is thrown.
+     */
+    public void forEachRange(final RangeCallback<E> callback) throws CassandraException, InterruptedException {
+        final Set<Integer> completed = startWalk();
+        ExecutorService workers = getWorkers();
+        List<Future<?>> futures = new ArrayList<>(ranges.size());
+        try {
+            for (int index = 0; index < ranges.size(); ++index) {
+                final int rangeIndex = index;
+                futures.add(workers.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() throws Exception {
+                        callback.processRange(ranges.get(rangeIndex));
+                        completed.add(rangeIndex);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new CassandraException("Failed to walk token range", e.getCause());
+                }
+            }
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+            releaseWorkers(workers);
+        }
+    }
+
+    /**
+     * Every record in the token range, in no particular order. Records are produced by worker threads into a bounded
+     * buffer, so a slow consumer slows the scan down rather than exhausting memory.
+     *
+     * <p>
+     * The scan starts when this is called. A worker failure is rethrown from {@link Iterator#next()} or
+     * {@link Iterator#hasNext()} as an {@link IllegalStateException}. A caller which may stop before the end must
+     * {@link WalkIterator#close() close} the iterator, or the workers wait for it forever:
+     * </p>
+     *
+     * <pre>
+     * try (WalkIterator&lt;Model&gt; models = walker.iterator()) {
+     *     while (models.hasNext()) {
+     *         ...
+     *     }
+     * }
+     * </pre>
+     */
+    @Override
+    public WalkIterator<E> iterator() {
+        return new MergedIterator();
+    }
+
+    /**
+     * Forget the completed ranges of the previous walk; {@link #getProgress()} follows the latest walk.
+     */
+    private Set<Integer> startWalk() {
+        Set<Integer> result = ConcurrentHashMap.newKeySet();
+        completedRanges = result;
+        return result;
+    }
+
+    private ExecutorService getWorkers() {
+        if (executor != null) {
+            return executor;
+        }
+        return Executors.newFixedThreadPool(threadCount,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("cassandra-walker-%d").build());
+    }
+
+    private void releaseWorkers(ExecutorService workers) {
+        if (workers != executor) {
+            workers.shutdownNow();
+        }
+    }
+
+    private class MergedIterator implements WalkIterator<E> {
+
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final Set<Integer> completed = startWalk();
+        private final List<Future<?>> futures = new ArrayList<>(ranges.size());
+        private final ExecutorService workers;
+        private int remainingRanges = ranges.size();
+        private volatile boolean closed;
+        private volatile Throwable failure;
+        private Object next;
+
+        MergedIterator() {
+            workers = getWorkers();
+            for (int index = 0; index < ranges.size(); ++index) {
+                final int rangeIndex = index;
+                futures.add(workers.submit(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        walkRange(rangeIndex);
+                    }
+                }));
+            }
+        }
+
+        private void walkRange(int rangeIndex) {
+            try {
+                for (E record : ranges.get(rangeIndex)) {
+                    if (!offer(record == null ? NULL_RECORD : record)) {
+                        return;
+                    }
+                }
+                completed.add(rangeIndex);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable t) {
+                if (!closed) {
+                    log.warn("Failed to walk token range " + rangeIndex, t);
+                }
+                synchronized (this) {
+                    if (failure == null) {
+                        failure = t;
+                    }
+                }
+            }
+            try {
+                offer(RANGE_DONE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Wait for room in the queue, giving up once the iterator is closed.
+         */
+        private boolean offer(Object item) throws InterruptedException {
+            while (!closed) {
+                if (queue.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (closed) {
+                    return false;
+                }
+                if (remainingRanges == 0) {
+                    close();
+                    checkFailure();
+                    return false;
+                }
+                try {
+                    Object item = queue.take();
+                    if (item == RANGE_DONE) {
+                        --remainingRanges;
+                        checkFailure();
+                    } else {
+                        next = item;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    throw new IllegalStateException("Interrupted while walking token ranges", e);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object result = next;
+            next = null;
+            if (result == NULL_RECORD) {
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            E record = (E) result;
+            return record;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            releaseWorkers(workers);
+            queue.clear();
+        }
+
+        private void checkFailure() {
+            if (failure != null) {
+                close();
+                throw new IllegalStateException("Failed to walk token range", failure);
+            }
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.clearcapital.oss.cassandra.iterate;
 
 import com.clearcapital.oss.cassandra.configuration.WithMultiRingConfiguration;
+import com.clearcapital.oss.cassandra.limits.ScanThrottle;
 import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
 
 public interface RecordTransformer {
@@ -16,4 +17,23 @@ public interface RecordTransformer {
 
 	public void setConfiguration(WithMultiRingConfiguration configuration) throws Exception;
 	public void setMultiRingClientManager(MultiRingClientManager clientManager) throws Exception;
+
+	/**
+	 * The walk name this transformer's checkpoints are saved under; see {@link CheckpointStore}.
+	 */
+	public default String getWalkName() {
+		return getClass().getName();
+	}
+
+	/**
+	 * Resume from, and save progress to, {@code checkpointStore}. Transformers which can't resume may ignore it.
+	 */
+	public default void setCheckpointStore(CheckpointStore checkpointStore) throws Exception {
+	}
+
+	/**
+	 * Throttle the scan with {@code throttle}. Transformers which don't walk a table may ignore it.
+	 */
+	public default void setThrottle(ScanThrottle throttle) throws Exception {
+	}
 }
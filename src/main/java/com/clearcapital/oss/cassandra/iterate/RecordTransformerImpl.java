@@ -1,11 +1,15 @@
 package com.clearcapital.oss.cassandra.iterate;
 
 import com.clearcapital.oss.cassandra.configuration.WithMultiRingConfiguration;
+import com.clearcapital.oss.cassandra.limits.ScanThrottle;
 import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
 
 abstract public class RecordTransformerImpl<WithWalkerClass extends WalkerGenerator, ModelClass>
         implements RecordTransformer {
 
+    private CheckpointStore checkpointStore;
+    private ScanThrottle throttle;
+
     abstract protected void transformRecord(ModelClass modelClass);
 
     abstract WalkerGenerator getWalkerGenerator();
@@ -15,8 +19,15 @@ abstract public class RecordTransformerImpl<WithWalkerClass extends WalkerGenera
     @Override
     public Long transformRecords(Long startToken, Long endToken) throws Exception {
 
-        CassandraTableWalker<ModelClass> walker = getWalkerGenerator().getWalker(getDeserializer())
-                .setStartToken(startToken).setEndToken(endToken).build();
+        CassandraTableWalker.Builder<ModelClass> builder = getWalkerGenerator().getWalker(getDeserializer())
+                .setStartToken(startToken).setEndToken(endToken);
+        if (checkpointStore != null) {
+            builder.setCheckpointStore(checkpointStore, getWalkName());
+        }
+        if (throttle != null) {
+            builder.setThrottle(throttle);
+        }
+        CassandraTableWalker<ModelClass> walker = builder.build();
 
         Long count = 0L;
         for (ModelClass modelClass : walker) {
@@ -37,4 +48,14 @@ abstract public class RecordTransformerImpl<WithWalkerClass extends WalkerGenera
 
     }
 
+    @Override
+    public void setCheckpointStore(CheckpointStore checkpointStore) throws Exception {
+        this.checkpointStore = checkpointStore;
+    }
+
+    @Override
+    public void setThrottle(ScanThrottle throttle) throws Exception {
+        this.throttle = throttle;
+    }
+
 }
@@ -0,0 +1,122 @@
+package com.clearcapital.oss.cassandra.iterate;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * How far a {@link CassandraTableWalker} has got through the token range [{@code startToken}, {@code endToken}].
+ * 
+ * <p>
+ * {@code pagingState} is the driver's paging state for the next unread page, which lets a walker resume exactly where
+ * it left off. {@code lastToken} is the token of the last row read, which is used instead if the paging state can't
+ * be (for example, after a driver upgrade); resuming from it may re-read some rows of that partition.
+ * </p>
+ * 
+ * <p>
+ * A paging state is only valid for the query which produced it, so {@code queryStartToken} records the start token that
+ * query was bound with: {@code startToken} for a fresh walk, an earlier {@code lastToken} for a resumed one.
+ * </p>
+ */
+public class WalkerCheckpoint {
+
+    private long startToken;
+    private long endToken;
+    private Long lastToken;
+    private Long queryStartToken;
+    private String pagingState;
+    private boolean completed;
+
+    public long getStartToken() {
+        return startToken;
+    }
+
+    public long getEndToken() {
+        return endToken;
+    }
+
+    public Long getLastToken() {
+        return lastToken;
+    }
+
+    public Long getQueryStartToken() {
+        return queryStartToken;
+    }
+
+    public String getPagingState() {
+        return pagingState;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(startToken, endToken, lastToken, queryStartToken, pagingState, completed);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof WalkerCheckpoint) {
+            WalkerCheckpoint that = (WalkerCheckpoint) obj;
+            return startToken == that.startToken && endToken == that.endToken
+                    && Objects.equal(lastToken, that.lastToken) && Objects.equal(queryStartToken, that.queryStartToken)
+                    && Objects.equal(pagingState, that.pagingState) && completed == that.completed;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("startToken", startToken).add("endToken", endToken)
+                .add("lastToken", lastToken).add("queryStartToken", queryStartToken).add("pagingState", pagingState)
+                .add("completed", completed).toString();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        WalkerCheckpoint result;
+
+        Builder() {
+            result = new WalkerCheckpoint();
+        }
+
+        public WalkerCheckpoint build() {
+            return result;
+        }
+
+        public Builder setStartToken(long value) {
+            result.startToken = value;
+            return this;
+        }
+
+        public Builder setEndToken(long value) {
+            result.endToken = value;
+            return this;
+        }
+
+        public Builder setLastToken(Long value) {
+            result.lastToken = value;
+            return this;
+        }
+
+        public Builder setQueryStartToken(Long value) {
+            result.queryStartToken = value;
+            return this;
+        }
+
+        public Builder setPagingState(String value) {
+            result.pagingState = value;
+            return this;
+        }
+
+        public Builder setCompleted(boolean value) {
+            result.completed = value;
+            return this;
+        }
+    }
+}
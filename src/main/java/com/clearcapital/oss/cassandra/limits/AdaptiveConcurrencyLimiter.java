@@ -0,0 +1,308 @@
+package com.clearcapital.oss.cassandra.limits;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.datastax.driver.core.exceptions.BusyConnectionException;
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.datastax.driver.core.exceptions.OperationTimedOutException;
+import com.datastax.driver.core.exceptions.OverloadedException;
+import com.datastax.driver.core.exceptions.ReadTimeoutException;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Limits the number of concurrent requests to a ring, adjusting the limit to the latency it observes.
+ *
+ * <p>
+ * The limit follows an AIMD (additive increase, multiplicative decrease) rule, as TCP congestion control does. Every
+ * request which completes normally, while the limit is at least half used, raises the limit by {@code 1/limit}: about
+ * one more concurrent request per round trip. A request which times out, is rejected as overloaded, or takes more than
+ * {@code latencyTolerance} times the baseline latency multiplies the limit by {@code backoffRatio}, at most once per
+ * round trip. The baseline is the lowest latency seen in the previous window of {@code windowSize} samples, so the
+ * limiter reacts to latency rising (a queue building up somewhere) rather than to latency being high.
+ * </p>
+ *
+ * <p>
+ * Callers {@link #acquire()} a permit before each request and release it with exactly one of
+ * {@link #onSuccess(long)}, {@link #onFailure(Throwable)} or {@link #onIgnored()}. {@link #acquire()} never blocks:
+ * callers which can't proceed immediately are queued, without bound, and their futures complete as permits are
+ * released. Set on a {@link com.clearcapital.oss.cassandra.RingClient}, one limiter covers every statement executed
+ * through its sessions and every page fetched by its walkers.
+ * </p>
+ *
+ * <p>
+ * Limiters are thread-safe.
+ * </p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private int minLimit;
+    private int maxLimit;
+    private double backoffRatio;
+    private double latencyTolerance;
+    private long maxLatencyNanos;
+    private int windowSize;
+
+    // Guarded by this.
+    private double limit;
+    private int inFlight;
+    private final Queue<SettableFuture<Void>> waiters = new ArrayDeque<>();
+    private long baselineLatencyNanos;
+    private long windowMinLatencyNanos = Long.MAX_VALUE;
+    private int windowCount;
+    private long lastDecreaseNanos;
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 1000;
+        private double backoffRatio = 0.9;
+        private double latencyTolerance = 2.0;
+        private long maxLatencyMillis = 0;
+        private int windowSize = 100;
+
+        Builder() {
+        }
+
+        public Builder setInitialLimit(int value) {
+            initialLimit = value;
+            return this;
+        }
+
+        public Builder setMinLimit(int value) {
+            minLimit = value;
+            return this;
+        }
+
+        public Builder setMaxLimit(int value) {
+            maxLimit = value;
+            return this;
+        }
+
+        /**
+         * Factor applied to the limit when overload is detected; between 0 and 1.
+         */
+        public Builder setBackoffRatio(double value) {
+            backoffRatio = value;
+            return this;
+        }
+
+        /**
+         * How many times slower than the baseline a request may be before it counts as a sign of overload.
+         */
+        public Builder setLatencyTolerance(double value) {
+            latencyTolerance = value;
+            return this;
+        }
+
+        /**
+         * Requests slower than this always count as a sign of overload; 0 (the default) to rely on the baseline alone.
+         */
+        public Builder setMaxLatencyMillis(long value) {
+            maxLatencyMillis = value;
+            return this;
+        }
+
+        /**
+         * Number of samples over which the baseline latency is measured.
+         */
+        public Builder setWindowSize(int value) {
+            windowSize = value;
+            return this;
+        }
+
+        public AdaptiveConcurrencyLimiter build() throws AssertException {
+            AssertHelpers.isTrue(minLimit > 0, "minLimit > 0");
+            AssertHelpers.isTrue(maxLimit >= minLimit, "maxLimit >= minLimit");
+            AssertHelpers.isTrue(initialLimit >= minLimit && initialLimit <= maxLimit,
+                    "minLimit <= initialLimit <= maxLimit");
+            AssertHelpers.isTrue(backoffRatio > 0.0 && backoffRatio < 1.0, "0 < backoffRatio < 1");
+            AssertHelpers.isTrue(latencyTolerance > 1.0, "latencyTolerance > 1");
+            AssertHelpers.isTrue(maxLatencyMillis >= 0, "maxLatencyMillis >= 0");
+            AssertHelpers.isTrue(windowSize > 0, "windowSize > 0");
+
+            AdaptiveConcurrencyLimiter result = new AdaptiveConcurrencyLimiter();
+            result.limit = initialLimit;
+            result.minLimit = minLimit;
+            result.maxLimit = maxLimit;
+            result.backoffRatio = backoffRatio;
+            result.latencyTolerance = latencyTolerance;
+            result.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+            result.windowSize = windowSize;
+            return result;
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter() {
+    }
+
+    /**
+     * A future which completes once the caller may send a request. Cancelling it gives up the place in the queue.
+     */
+    public ListenableFuture<Void> acquire() {
+        synchronized (this) {
+            if (inFlight < getLimit()) {
+                ++inFlight;
+                return Futures.immediateFuture(null);
+            }
+            SettableFuture<Void> result = SettableFuture.create();
+            waiters.add(result);
+            return result;
+        }
+    }
+
+    /**
+     * Release a permit for a request which completed normally after {@code latencyNanos}.
+     */
+    public void onSuccess(long latencyNanos) {
+        synchronized (this) {
+            --inFlight;
+            sample(latencyNanos);
+        }
+        grantWaiters();
+    }
+
+    /**
+     * Release a permit for a request which failed with {@code cause}. Timeouts and overload errors reduce the limit;
+     * other failures don't say anything about load, and are ignored.
+     */
+    public void onFailure(Throwable cause) {
+        if (!isOverload(cause)) {
+            onIgnored();
+            return;
+        }
+        synchronized (this) {
+            --inFlight;
+            decrease(System.nanoTime(), 0);
+        }
+        grantWaiters();
+    }
+
+    /**
+     * Release a permit without taking a sample, e.g. for a request which was never sent.
+     */
+    public void onIgnored() {
+        synchronized (this) {
+            --inFlight;
+        }
+        grantWaiters();
+    }
+
+    /**
+     * Release the permit held for {@code future} when it completes, which happens {@code startNanos} after the request
+     * was sent.
+     */
+    public <T> void releaseWhenDone(final ListenableFuture<T> future, final long startNanos) {
+        Futures.addCallback(future, new FutureCallback<T>() {
+
+            @Override
+            public void onSuccess(T value) {
+                AdaptiveConcurrencyLimiter.this.onSuccess(System.nanoTime() - startNanos);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                AdaptiveConcurrencyLimiter.this.onFailure(t);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    /**
+     * Errors which mean a node or the client is overloaded.
+     */
+    public static boolean isOverload(Throwable cause) {
+        if (cause instanceof NoHostAvailableException) {
+            for (Throwable error : ((NoHostAvailableException) cause).getErrors().values()) {
+                if (isOverload(error)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return cause instanceof ReadTimeoutException || cause instanceof WriteTimeoutException
+                || cause instanceof OverloadedException || cause instanceof OperationTimedOutException
+                || cause instanceof BusyConnectionException;
+    }
+
+    private void sample(long latencyNanos) {
+        windowMinLatencyNanos = Math.min(windowMinLatencyNanos, latencyNanos);
+        if (++windowCount >= windowSize) {
+            baselineLatencyNanos = windowMinLatencyNanos;
+            windowMinLatencyNanos = Long.MAX_VALUE;
+            windowCount = 0;
+        }
+
+        boolean slow = (maxLatencyNanos > 0 && latencyNanos > maxLatencyNanos)
+                || (baselineLatencyNanos > 0 && latencyNanos > baselineLatencyNanos * latencyTolerance);
+        if (slow) {
+            decrease(System.nanoTime(), latencyNanos);
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    /**
+     * Back off, unless that already happened within the last round trip: the requests which completed since then were
+     * sent before the limit came down, and say nothing about the new limit.
+     */
+    private void decrease(long now, long latencyNanos) {
+        long roundTrip = Math.max(latencyNanos, baselineLatencyNanos);
+        if (lastDecreaseNanos != 0 && now - lastDecreaseNanos < roundTrip) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    private void grantWaiters() {
+        List<SettableFuture<Void>> granted = new ArrayList<>();
+        synchronized (this) {
+            while (inFlight < getLimit() && !waiters.isEmpty()) {
+                ++inFlight;
+                granted.add(waiters.poll());
+            }
+        }
+        // Completed outside the lock: their listeners send requests.
+        for (SettableFuture<Void> waiter : granted) {
+            if (!waiter.set(null)) {
+                // Cancelled while queued.
+                onIgnored();
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(this).add("limit", limit).add("inFlight", inFlight)
+                .add("queued", waiters.size()).add("baselineLatencyNanos", baselineLatencyNanos).toString();
+    }
+
+}
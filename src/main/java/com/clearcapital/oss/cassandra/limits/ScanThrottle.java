@@ -0,0 +1,238 @@
+package com.clearcapital.oss.cassandra.limits;
+
+import java.util.concurrent.TimeUnit;
+
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Slows a table scan down, so that it can run alongside online traffic.
+ *
+ * <p>
+ * Two independent mechanisms, either or both of which may be enabled:
+ * </p>
+ * <ul>
+ * <li><b>Rate limits.</b> {@code maxRowsPerSecond} and {@code maxPagesPerSecond} are enforced by token buckets, which
+ * allow up to a second's worth of burst after an idle period.</li>
+ * <li><b>Latency feedback.</b> With a {@code targetLatencyMillis}, the smoothed latency of page fetches is compared
+ * against the target after every page. While it is above the target the scan's duty cycle is cut multiplicatively (by
+ * {@code backoffRatio}, down to {@code minDutyCycle}); while it is below, the duty cycle recovers additively. At a duty
+ * cycle of {@code d}, every page fetch is preceded by a pause of {@code (1/d - 1)} times the last page's latency, so
+ * that the scan spends roughly a fraction {@code d} of its time waiting on the cluster.</li>
+ * </ul>
+ *
+ * <p>
+ * Throttles are thread-safe. Limits apply to everything sharing the throttle, so use one per scan job, shared by all
+ * of its walkers (e.g. the parts of a {@link com.clearcapital.oss.cassandra.iterate.ParallelTableWalker}), to cap the
+ * job as a whole.
+ * </p>
+ *
+ * <pre>
+ * ScanThrottle throttle = ScanThrottle.builder().setMaxRowsPerSecond(5000).setTargetLatencyMillis(50).build();
+ * CassandraTableWalker&lt;Model&gt; walker = table.getWalker(deserializer).setThrottle(throttle).build();
+ * </pre>
+ */
+public class ScanThrottle {
+
+    private double maxRowsPerSecond;
+    private double maxPagesPerSecond;
+    private long targetLatencyNanos;
+    private double minDutyCycle;
+    private double backoffRatio;
+    private double recoveryStep;
+    private double smoothing;
+    private long maxPauseNanos;
+
+    private RateLimiter rowLimiter;
+    private RateLimiter pageLimiter;
+
+    private double dutyCycle = 1.0;
+    private double smoothedLatencyNanos = -1;
+    private long lastLatencyNanos;
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private double maxRowsPerSecond;
+        private double maxPagesPerSecond;
+        private long targetLatencyMillis;
+        private double minDutyCycle = 0.1;
+        private double backoffRatio = 0.75;
+        private double recoveryStep = 0.05;
+        private double smoothing = 0.2;
+        private long maxPauseMillis = 10000;
+
+        Builder() {
+        }
+
+        /**
+         * Rows per second across everything sharing the throttle; 0 (the default) for no limit.
+         */
+        public Builder setMaxRowsPerSecond(double value) {
+            maxRowsPerSecond = value;
+            return this;
+        }
+
+        /**
+         * Page fetches per second across everything sharing the throttle; 0 (the default) for no limit.
+         */
+        public Builder setMaxPagesPerSecond(double value) {
+            maxPagesPerSecond = value;
+            return this;
+        }
+
+        /**
+         * Back off while the smoothed page latency exceeds this; 0 (the default) disables latency feedback.
+         */
+        public Builder setTargetLatencyMillis(long value) {
+            targetLatencyMillis = value;
+            return this;
+        }
+
+        /**
+         * The lowest duty cycle latency feedback may reduce the scan to.
+         */
+        public Builder setMinDutyCycle(double value) {
+            minDutyCycle = value;
+            return this;
+        }
+
+        /**
+         * Multiply the duty cycle by this after a page whose smoothed latency is above target.
+         */
+        public Builder setBackoffRatio(double value) {
+            backoffRatio = value;
+            return this;
+        }
+
+        /**
+         * Add this to the duty cycle after a page whose smoothed latency is at or below target.
+         */
+        public Builder setRecoveryStep(double value) {
+            recoveryStep = value;
+            return this;
+        }
+
+        /**
+         * Weight of the newest sample in the exponentially weighted moving average of page latency.
+         */
+        public Builder setSmoothing(double value) {
+            smoothing = value;
+            return this;
+        }
+
+        /**
+         * The longest pause latency feedback inserts before a page.
+         */
+        public Builder setMaxPauseMillis(long value) {
+            maxPauseMillis = value;
+            return this;
+        }
+
+        public ScanThrottle build() throws AssertException {
+            AssertHelpers.isTrue(maxRowsPerSecond >= 0, "maxRowsPerSecond >= 0");
+            AssertHelpers.isTrue(maxPagesPerSecond >= 0, "maxPagesPerSecond >= 0");
+            AssertHelpers.isTrue(targetLatencyMillis >= 0, "targetLatencyMillis >= 0");
+            AssertHelpers.isTrue(minDutyCycle > 0 && minDutyCycle <= 1, "0 < minDutyCycle <= 1");
+            AssertHelpers.isTrue(backoffRatio > 0 && backoffRatio < 1, "0 < backoffRatio < 1");
+            AssertHelpers.isTrue(recoveryStep > 0, "recoveryStep > 0");
+            AssertHelpers.isTrue(smoothing > 0 && smoothing <= 1, "0 < smoothing <= 1");
+            AssertHelpers.isTrue(maxPauseMillis >= 0, "maxPauseMillis >= 0");
+
+            ScanThrottle result = new ScanThrottle();
+            result.maxRowsPerSecond = maxRowsPerSecond;
+            result.maxPagesPerSecond = maxPagesPerSecond;
+            result.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+            result.minDutyCycle = minDutyCycle;
+            result.backoffRatio = backoffRatio;
+            result.recoveryStep = recoveryStep;
+            result.smoothing = smoothing;
+            result.maxPauseNanos = TimeUnit.MILLISECONDS.toNanos(maxPauseMillis);
+            result.rowLimiter = maxRowsPerSecond > 0 ? RateLimiter.create(maxRowsPerSecond) : null;
+            result.pageLimiter = maxPagesPerSecond > 0 ? RateLimiter.create(maxPagesPerSecond) : null;
+            return result;
+        }
+    }
+
+    private ScanThrottle() {
+    }
+
+    /**
+     * Wait until {@code rows} more rows may be consumed.
+     */
+    public void acquireRows(int rows) {
+        if (rowLimiter != null && rows > 0) {
+            rowLimiter.acquire(rows);
+        }
+    }
+
+    /**
+     * Wait until another page may be fetched. Call {@link #onPageFetched(long)} once it arrives.
+     */
+    public void acquirePage() {
+        long pauseNanos = getPauseNanos();
+        if (pauseNanos > 0) {
+            Uninterruptibles.sleepUninterruptibly(pauseNanos, TimeUnit.NANOSECONDS);
+        }
+        if (pageLimiter != null) {
+            pageLimiter.acquire();
+        }
+    }
+
+    /**
+     * Record the latency of a page fetch.
+     */
+    public synchronized void onPageFetched(long latencyNanos) {
+        lastLatencyNanos = latencyNanos;
+        if (targetLatencyNanos == 0) {
+            return;
+        }
+        smoothedLatencyNanos = smoothedLatencyNanos < 0 ? latencyNanos
+                : smoothing * latencyNanos + (1 - smoothing) * smoothedLatencyNanos;
+        if (smoothedLatencyNanos > targetLatencyNanos) {
+            dutyCycle = Math.max(minDutyCycle, dutyCycle * backoffRatio);
+        } else {
+            dutyCycle = Math.min(1.0, dutyCycle + recoveryStep);
+        }
+    }
+
+    /**
+     * The pause latency feedback currently inserts before each page.
+     */
+    synchronized long getPauseNanos() {
+        if (dutyCycle >= 1.0) {
+            return 0;
+        }
+        return Math.min(maxPauseNanos, (long) (lastLatencyNanos * (1.0 / dutyCycle - 1.0)));
+    }
+
+    /**
+     * The fraction of the time the scan currently spends fetching pages, as set by latency feedback; 1 when there is
+     * no back-off.
+     */
+    public synchronized double getDutyCycle() {
+        return dutyCycle;
+    }
+
+    /**
+     * Smoothed page latency, or -1 before the first page (or without latency feedback).
+     */
+    public synchronized double getSmoothedLatencyMillis() {
+        return smoothedLatencyNanos < 0 ? -1 : smoothedLatencyNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("maxRowsPerSecond", maxRowsPerSecond)
+                .add("maxPagesPerSecond", maxPagesPerSecond)
+                .add("targetLatencyMillis", TimeUnit.NANOSECONDS.toMillis(targetLatencyNanos))
+                .add("dutyCycle", getDutyCycle()).toString();
+    }
+
+}
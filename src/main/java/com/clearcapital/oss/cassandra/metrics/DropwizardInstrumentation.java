@@ -0,0 +1,177 @@
+package com.clearcapital.oss.cassandra.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Timer;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.Statement;
+import com.google.common.base.Supplier;
+
+/**
+ * Report statement metrics to a Dropwizard {@link MetricRegistry}. For each table and {@link StatementKind}:
+ * 
+ * <ul>
+ * <li>{@code <prefix>.<table>.<kind>.requests}: a {@link Timer} of successful attempts, giving both throughput and
+ * latency percentiles;</li>
+ * <li>{@code <prefix>.<table>.<kind>.retries}: a {@link Meter} of failed attempts which were retried;</li>
+ * <li>{@code <prefix>.<table>.<kind>.errors.<ExceptionClass>}: a {@link Meter} of statements which ultimately failed,
+ * by exception class.</li>
+ * </ul>
+ * 
+ * <p>
+ * Statements whose table is neither given nor evident from a prepared statement's metadata are reported under
+ * {@code unknown}. Timers use the registry's default reservoir unless {@link Builder#setReservoirSupplier(Supplier)}
+ * supplies another, e.g. an HdrHistogram-backed one for accurate high percentiles.
+ * </p>
+ */
+public class DropwizardInstrumentation implements SessionInstrumentation {
+
+    static final String UNKNOWN_TABLE = "unknown";
+
+    private MetricRegistry registry;
+    private String prefix;
+    private Supplier<Reservoir> reservoirSupplier;
+    private final ConcurrentMap<String, TableMetrics[]> tables = new ConcurrentHashMap<>();
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private MetricRegistry registry;
+        private String prefix = "cassandra";
+        private Supplier<Reservoir> reservoirSupplier;
+
+        Builder() {
+        }
+
+        public Builder setRegistry(MetricRegistry value) {
+            registry = value;
+            return this;
+        }
+
+        public Builder setPrefix(String value) {
+            prefix = value;
+            return this;
+        }
+
+        public Builder setReservoirSupplier(Supplier<Reservoir> value) {
+            reservoirSupplier = value;
+            return this;
+        }
+
+        public DropwizardInstrumentation build() throws AssertException {
+            AssertHelpers.notNull(registry, "registry");
+            AssertHelpers.notNull(prefix, "prefix");
+            DropwizardInstrumentation result = new DropwizardInstrumentation();
+            result.registry = registry;
+            result.prefix = prefix;
+            result.reservoirSupplier = reservoirSupplier;
+            return result;
+        }
+    }
+
+    private DropwizardInstrumentation() {
+    }
+
+    @Override
+    public void onSuccess(Statement statement, String tableName, long latencyNanos) {
+        getMetrics(statement, tableName).requests.update(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onRetry(Statement statement, String tableName, Throwable cause, int retry) {
+        getMetrics(statement, tableName).retries.mark();
+    }
+
+    @Override
+    public void onFailure(Statement statement, String tableName, Throwable cause, long latencyNanos) {
+        getMetrics(statement, tableName).getErrors(cause.getClass()).mark();
+    }
+
+    private TableMetrics getMetrics(Statement statement, String tableName) {
+        String table = tableName != null ? tableName : getTableName(statement);
+        TableMetrics[] byKind = tables.get(table);
+        if (byKind == null) {
+            byKind = new TableMetrics[StatementKind.values().length];
+            TableMetrics[] existing = tables.putIfAbsent(table, byKind);
+            if (existing != null) {
+                byKind = existing;
+            }
+        }
+        StatementKind kind = StatementKind.of(statement);
+        TableMetrics result = byKind[kind.ordinal()];
+        if (result == null) {
+            // Racing threads build equivalent objects around the same registered metrics.
+            result = new TableMetrics(MetricRegistry.name(prefix, table, kind.name().toLowerCase()));
+            byKind[kind.ordinal()] = result;
+        }
+        return result;
+    }
+
+    /**
+     * The table of a bound statement's first variable, which for the statements this library builds is the table
+     * being read or written.
+     */
+    private static String getTableName(Statement statement) {
+        if (statement instanceof BoundStatement) {
+            ColumnDefinitions variables = ((BoundStatement) statement).preparedStatement().getVariables();
+            if (variables.size() > 0) {
+                return variables.getTable(0);
+            }
+        }
+        return UNKNOWN_TABLE;
+    }
+
+    private Timer timer(String name) {
+        if (reservoirSupplier == null) {
+            return registry.timer(name);
+        }
+        return register(name, new Timer(reservoirSupplier.get()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Metric> T register(String name, T metric) {
+        try {
+            return registry.register(name, metric);
+        } catch (IllegalArgumentException e) {
+            // Already registered, by another thread or another instance.
+            return (T) registry.getMetrics().get(name);
+        }
+    }
+
+    private class TableMetrics {
+
+        final String name;
+        final Timer requests;
+        final Meter retries;
+        final ConcurrentMap<Class<?>, Meter> errors = new ConcurrentHashMap<>();
+
+        TableMetrics(String name) {
+            this.name = name;
+            this.requests = timer(MetricRegistry.name(name, "requests"));
+            this.retries = registry.meter(MetricRegistry.name(name, "retries"));
+        }
+
+        Meter getErrors(Class<?> errorClass) {
+            Meter result = errors.get(errorClass);
+            if (result == null) {
+                // The registry returns the same meter to racing threads.
+                result = registry.meter(MetricRegistry.name(name, "errors", errorClass.getSimpleName()));
+                errors.putIfAbsent(errorClass, result);
+            }
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.clearcapital.oss.cassandra.metrics;
+
+import com.clearcapital.oss.cassandra.SessionHelper;
+import com.datastax.driver.core.Statement;
+
+/**
+ * Observes every statement executed through a {@link SessionHelper}, synchronously or not.
+ * 
+ * <p>
+ * {@code tableName} is the table the statement was executed for, when the caller said so (as
+ * {@link com.clearcapital.oss.cassandra.CassandraTableImpl} always does); otherwise it is null, and implementations may
+ * try to work it out from the statement. Latencies are per attempt, in nanoseconds. Callbacks are made on the executing
+ * thread, or on a driver I/O thread for asynchronous statements, so they must be cheap and must not block.
+ * </p>
+ * 
+ * @see DropwizardInstrumentation
+ */
+public interface SessionInstrumentation {
+
+    /**
+     * Records nothing. The default.
+     */
+    SessionInstrumentation NONE = new SessionInstrumentation() {
+
+        @Override
+        public void onSuccess(Statement statement, String tableName, long latencyNanos) {
+        }
+
+        @Override
+        public void onRetry(Statement statement, String tableName, Throwable cause, int retry) {
+        }
+
+        @Override
+        public void onFailure(Statement statement, String tableName, Throwable cause, long latencyNanos) {
+        }
+    };
+
+    void onSuccess(Statement statement, String tableName, long latencyNanos);
+
+    /**
+     * Attempt number {@code retry} failed with {@code cause}, and will be retried.
+     */
+    void onRetry(Statement statement, String tableName, Throwable cause, int retry);
+
+    /**
+     * The statement failed with {@code cause} and will not be retried.
+     */
+    void onFailure(Statement statement, String tableName, Throwable cause, long latencyNanos);
+}
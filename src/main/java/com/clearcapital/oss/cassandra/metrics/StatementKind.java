@@ -0,0 +1,75 @@
+package com.clearcapital.oss.cassandra.metrics;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.Batch;
+import com.datastax.driver.core.querybuilder.Delete;
+import com.datastax.driver.core.querybuilder.Insert;
+import com.datastax.driver.core.querybuilder.Select;
+import com.datastax.driver.core.querybuilder.Update;
+
+/**
+ * What a statement does, as far as instrumentation is concerned.
+ */
+public enum StatementKind {
+    SELECT, INSERT, UPDATE, DELETE, BATCH, OTHER;
+
+    /**
+     * Classify {@code statement}. QueryBuilder statements are recognized by type; anything else by the first keyword of
+     * its query string.
+     */
+    public static StatementKind of(Statement statement) {
+        if (statement instanceof BatchStatement || statement instanceof Batch) {
+            return BATCH;
+        }
+        if (statement instanceof Select || statement instanceof Select.Where) {
+            return SELECT;
+        }
+        if (statement instanceof Insert || statement instanceof Insert.Options) {
+            return INSERT;
+        }
+        if (statement instanceof Update || statement instanceof Update.Where || statement instanceof Update.Options
+                || statement instanceof Update.Assignments || statement instanceof Update.Conditions) {
+            return UPDATE;
+        }
+        if (statement instanceof Delete || statement instanceof Delete.Where || statement instanceof Delete.Options
+                || statement instanceof Delete.Conditions) {
+            return DELETE;
+        }
+        if (statement instanceof BoundStatement) {
+            return ofQuery(((BoundStatement) statement).preparedStatement().getQueryString());
+        }
+        if (statement instanceof RegularStatement) {
+            return ofQuery(((RegularStatement) statement).getQueryString());
+        }
+        return OTHER;
+    }
+
+    static StatementKind ofQuery(String query) {
+        if (query == null) {
+            return OTHER;
+        }
+        int start = 0;
+        while (start < query.length() && Character.isWhitespace(query.charAt(start))) {
+            ++start;
+        }
+        if (startsWith(query, start, "SELECT")) {
+            return SELECT;
+        } else if (startsWith(query, start, "INSERT")) {
+            return INSERT;
+        } else if (startsWith(query, start, "UPDATE")) {
+            return UPDATE;
+        } else if (startsWith(query, start, "DELETE")) {
+            return DELETE;
+        } else if (startsWith(query, start, "BEGIN")) {
+            return BATCH;
+        }
+        return OTHER;
+    }
+
+    private static boolean startsWith(String query, int start, String keyword) {
+        return query.regionMatches(true, start, keyword, 0, keyword.length());
+    }
+}
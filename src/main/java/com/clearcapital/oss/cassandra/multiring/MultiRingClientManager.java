@@ -1,18 +1,45 @@
 package com.clearcapital.oss.cassandra.multiring;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.clearcapital.oss.cassandra.TemporaryKeyspace;
+import com.clearcapital.oss.cassandra.ColumnDefinition;
+import com.clearcapital.oss.cassandra.JsonColumnDefinition;
+import com.clearcapital.oss.cassandra.ReflectionColumnDefinition;
 import com.clearcapital.oss.cassandra.RingClient;
+import com.clearcapital.oss.cassandra.RowEncoder;
+import com.clearcapital.oss.cassandra.SessionHelper;
+import com.clearcapital.oss.cassandra.TableDescriptor;
+import com.clearcapital.oss.cassandra.TemporaryKeyspace;
+import com.clearcapital.oss.cassandra.annotation_processors.CassandraTableProcessor;
+import com.clearcapital.oss.cassandra.annotations.CassandraTable;
 import com.clearcapital.oss.cassandra.configuration.MultiRingConfiguration;
 import com.clearcapital.oss.cassandra.configuration.RingConfiguration;
 import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.cassandra.metrics.SessionInstrumentation;
+import com.clearcapital.oss.cassandra.retry.RetryPolicy;
 import com.clearcapital.oss.java.AssertHelpers;
 import com.clearcapital.oss.java.exceptions.AssertException;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Maintain connections to the rings specified by {@link MultiRingConfiguration}, and provide access according to the
@@ -70,6 +97,152 @@ public class MultiRingClientManager {
         return client.createTemporaryKeyspace(keyspacePrefix);
     }
 
+    /**
+     * Report every statement executed on every ring to {@code value}.
+     */
+    public void setInstrumentation(SessionInstrumentation value) {
+        for (RingClient ringClient : getRingClients().values()) {
+            ringClient.setInstrumentation(value);
+        }
+    }
+
+    /**
+     * Decide retries of statements executed on every ring with {@code value}; null for the default.
+     */
+    public void setRetryPolicy(RetryPolicy value) {
+        for (RingClient ringClient : getRingClients().values()) {
+            ringClient.setRetryPolicy(value);
+        }
+    }
+
+    /**
+     * Do the work the first request to each of {@code tableClasses} would otherwise pay for, using up to
+     * {@code threadCount} threads: connect to every ring they use (opening each session's connection pools), then
+     * resolve each table and prepare its insert and its select by primary key.
+     *
+     * <p>
+     * Failures are logged and reported, not thrown, so that a missing table doesn't stop the rest from warming up.
+     * </p>
+     */
+    public WarmUpReport warmUp(Collection<? extends Class<?>> tableClasses, int threadCount)
+            throws AssertException, InterruptedException {
+        AssertHelpers.notNull(tableClasses, "tableClasses");
+        AssertHelpers.isTrue(threadCount > 0, "threadCount > 0");
+
+        long start = System.nanoTime();
+        Set<String> ringKeys = new LinkedHashSet<>();
+        for (Class<?> tableClass : tableClasses) {
+            CassandraTable annotation = CassandraTableProcessor.getAnnotation(tableClass);
+            AssertHelpers.notNull(annotation, tableClass.getName() + " must have @CassandraTable annotation");
+            ringKeys.add(mapper.getConnectionKeyForGroup(annotation.multiRingGroup()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("warm-up-%d").build());
+        try {
+            List<Future<WarmUpReport.Ring>> ringFutures = new ArrayList<>();
+            for (final String ringKey : ringKeys) {
+                ringFutures.add(executor.submit(new Callable<WarmUpReport.Ring>() {
+
+                    @Override
+                    public WarmUpReport.Ring call() {
+                        return warmUpRing(ringKey);
+                    }
+                }));
+            }
+            ImmutableList<WarmUpReport.Ring> rings = getAll(ringFutures);
+
+            List<Future<WarmUpReport.Table>> tableFutures = new ArrayList<>();
+            for (final Class<?> tableClass : tableClasses) {
+                tableFutures.add(executor.submit(new Callable<WarmUpReport.Table>() {
+
+                    @Override
+                    public WarmUpReport.Table call() {
+                        return warmUpTable(tableClass);
+                    }
+                }));
+            }
+            ImmutableList<WarmUpReport.Table> tables = getAll(tableFutures);
+
+            WarmUpReport result = new WarmUpReport(rings, tables,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            log.info("Warmed up " + rings.size() + " ring(s) and " + tables.size() + " table(s) in "
+                    + result.getMillis() + "ms" + (result.isSuccessful() ? "" : ", with failures") + ": " + result);
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private WarmUpReport.Ring warmUpRing(String ringKey) {
+        long start = System.nanoTime();
+        try {
+            Session.State state = connections.get(ringKey).getPreferredKeyspace().getSession().getState();
+            int openConnections = 0;
+            for (Host host : state.getConnectedHosts()) {
+                openConnections += state.getOpenConnections(host);
+            }
+            return new WarmUpReport.Ring(ringKey, elapsedMillis(start), state.getConnectedHosts().size(),
+                    openConnections, null);
+        } catch (AssertException | RuntimeException e) {
+            log.warn("Could not warm up ring " + ringKey, e);
+            return new WarmUpReport.Ring(ringKey, elapsedMillis(start), 0, 0, e);
+        }
+    }
+
+    private WarmUpReport.Table warmUpTable(Class<?> tableClass) {
+        long start = System.nanoTime();
+        int prepared = 0;
+        try {
+            TableDescriptor descriptor = TableDescriptor.builder().setTableClass(tableClass)
+                    .setMultiRingClientManager(this).build();
+            SessionHelper session = descriptor.getRingClient().getPreferredKeyspace();
+
+            boolean writable = false;
+            for (ColumnDefinition column : descriptor.getColumnDefinitions()) {
+                writable |= column instanceof ReflectionColumnDefinition || column instanceof JsonColumnDefinition;
+            }
+            if (writable) {
+                // Prepares exactly the insert that CassandraTableImpl's RowEncoder does.
+                RowEncoder.compile(descriptor, session);
+                ++prepared;
+            }
+
+            if (!descriptor.getPartitionKeyColumns().isEmpty()) {
+                Select.Where select = QueryBuilder.select().all().from(descriptor.getTableName()).where();
+                for (ColumnDefinition column : descriptor.getPartitionKeyColumns()) {
+                    select.and(QueryBuilder.eq(column.getColumnName(), QueryBuilder.bindMarker()));
+                }
+                for (ColumnDefinition column : descriptor.getClusteringKeyColumns()) {
+                    select.and(QueryBuilder.eq(column.getColumnName(), QueryBuilder.bindMarker()));
+                }
+                session.prepare(select);
+                ++prepared;
+            }
+            return new WarmUpReport.Table(tableClass, elapsedMillis(start), prepared, null);
+        } catch (AssertException | RuntimeException e) {
+            log.warn("Could not warm up " + tableClass.getName(), e);
+            return new WarmUpReport.Table(tableClass, elapsedMillis(start), prepared, e);
+        }
+    }
+
+    private static <T> ImmutableList<T> getAll(List<Future<T>> futures) throws InterruptedException {
+        ImmutableList.Builder<T> result = ImmutableList.<T> builder();
+        for (Future<T> future : futures) {
+            try {
+                result.add(future.get());
+            } catch (ExecutionException e) {
+                // The tasks report their own failures; anything else is a bug.
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return result.build();
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
     public void disconnectAll() {
         for (RingClient ringClient : getRingClients().values()) {
             ringClient.disconnect();
@@ -0,0 +1,154 @@
+package com.clearcapital.oss.cassandra.multiring;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * What {@link MultiRingClientManager#warmUp(java.util.Collection, int)} did, and how long it took.
+ */
+public class WarmUpReport {
+
+    /**
+     * Connecting to one ring's preferred keyspace, which opens the core connections to every host the load balancing
+     * policy considers local or remote.
+     */
+    public static class Ring {
+
+        private final String ringKey;
+        private final long millis;
+        private final int connectedHosts;
+        private final int openConnections;
+        private final Throwable failure;
+
+        Ring(String ringKey, long millis, int connectedHosts, int openConnections, Throwable failure) {
+            this.ringKey = ringKey;
+            this.millis = millis;
+            this.connectedHosts = connectedHosts;
+            this.openConnections = openConnections;
+            this.failure = failure;
+        }
+
+        public String getRingKey() {
+            return ringKey;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public int getConnectedHosts() {
+            return connectedHosts;
+        }
+
+        public int getOpenConnections() {
+            return openConnections;
+        }
+
+        /**
+         * Why connecting failed; null if it succeeded.
+         */
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this).add("ringKey", ringKey).add("millis", millis)
+                    .add("connectedHosts", connectedHosts).add("openConnections", openConnections)
+                    .add("failure", failure).omitNullValues().toString();
+        }
+    }
+
+    /**
+     * Resolving one table class and preparing its statements.
+     */
+    public static class Table {
+
+        private final Class<?> tableClass;
+        private final long millis;
+        private final int preparedStatements;
+        private final Throwable failure;
+
+        Table(Class<?> tableClass, long millis, int preparedStatements, Throwable failure) {
+            this.tableClass = tableClass;
+            this.millis = millis;
+            this.preparedStatements = preparedStatements;
+            this.failure = failure;
+        }
+
+        public Class<?> getTableClass() {
+            return tableClass;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public int getPreparedStatements() {
+            return preparedStatements;
+        }
+
+        /**
+         * Why warming the table failed; null if it succeeded.
+         */
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this).add("tableClass", tableClass.getName()).add("millis", millis)
+                    .add("preparedStatements", preparedStatements).add("failure", failure).omitNullValues()
+                    .toString();
+        }
+    }
+
+    private final ImmutableList<Ring> rings;
+    private final ImmutableList<Table> tables;
+    private final long millis;
+
+    WarmUpReport(ImmutableList<Ring> rings, ImmutableList<Table> tables, long millis) {
+        this.rings = rings;
+        this.tables = tables;
+        this.millis = millis;
+    }
+
+    public ImmutableList<Ring> getRings() {
+        return rings;
+    }
+
+    public ImmutableList<Table> getTables() {
+        return tables;
+    }
+
+    /**
+     * Wall-clock time of the whole warm-up.
+     */
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * True if every ring connected and every table was warmed.
+     */
+    public boolean isSuccessful() {
+        for (Ring ring : rings) {
+            if (ring.failure != null) {
+                return false;
+            }
+        }
+        for (Table table : tables) {
+            if (table.failure != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("millis", millis).add("successful", isSuccessful())
+                .add("rings", rings).add("tables", tables).toString();
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.clearcapital.oss.cassandra.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.google.common.base.MoreObjects;
+
+/**
+ * Retry after exponentially increasing, randomized delays, so that clients which failed together don't retry together.
+ * 
+ * <p>
+ * The nominal delay before retry {@code n} is {@code baseDelayMillis * 2^(n-1)}, capped at {@code maxDelayMillis}. A
+ * {@code jitter} fraction of it is randomized: with the default of 0.5, the actual delay is uniformly distributed
+ * between half the nominal delay and all of it.
+ * </p>
+ * 
+ * <p>
+ * Retries stop once {@code maxElapsedMillis} (if set) would be exceeded. Statements explicitly marked
+ * {@link Statement#isIdempotent() non-idempotent} (e.g. counter updates and list appends built with QueryBuilder) are
+ * only retried when no host received them, i.e. after a {@link NoHostAvailableException}; a retry after a timeout
+ * might apply them twice.
+ * </p>
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+    private long baseDelayMillis;
+    private long maxDelayMillis;
+    private double jitter;
+    private long maxElapsedMillis;
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private long baseDelayMillis = 500;
+        private long maxDelayMillis = 10000;
+        private double jitter = 0.5;
+        private long maxElapsedMillis = 0;
+
+        Builder() {
+        }
+
+        public Builder setBaseDelayMillis(long value) {
+            baseDelayMillis = value;
+            return this;
+        }
+
+        public Builder setMaxDelayMillis(long value) {
+            maxDelayMillis = value;
+            return this;
+        }
+
+        /**
+         * The randomized fraction of each delay, from 0 (no jitter) to 1 ("full jitter").
+         */
+        public Builder setJitter(double value) {
+            jitter = value;
+            return this;
+        }
+
+        /**
+         * Total time budget for a statement, from its first attempt; 0 (the default) for no limit beyond the attempt
+         * count.
+         */
+        public Builder setMaxElapsedMillis(long value) {
+            maxElapsedMillis = value;
+            return this;
+        }
+
+        public ExponentialBackoffRetryPolicy build() throws AssertException {
+            AssertHelpers.isTrue(baseDelayMillis >= 0, "baseDelayMillis >= 0");
+            AssertHelpers.isTrue(maxDelayMillis >= baseDelayMillis, "maxDelayMillis >= baseDelayMillis");
+            AssertHelpers.isTrue(jitter >= 0.0 && jitter <= 1.0, "0 <= jitter <= 1");
+            AssertHelpers.isTrue(maxElapsedMillis >= 0, "maxElapsedMillis >= 0");
+
+            ExponentialBackoffRetryPolicy result = new ExponentialBackoffRetryPolicy();
+            result.baseDelayMillis = baseDelayMillis;
+            result.maxDelayMillis = maxDelayMillis;
+            result.jitter = jitter;
+            result.maxElapsedMillis = maxElapsedMillis;
+            return result;
+        }
+    }
+
+    private ExponentialBackoffRetryPolicy() {
+    }
+
+    @Override
+    public long getRetryDelayMillis(Statement statement, Throwable cause, int retry, long elapsedMillis) {
+        if (Boolean.FALSE.equals(statement.isIdempotent()) && !(cause instanceof NoHostAvailableException)) {
+            return DO_NOT_RETRY;
+        }
+
+        long result = getNominalDelayMillis(retry);
+        if (jitter > 0.0) {
+            long fixed = (long) (result * (1.0 - jitter));
+            result = fixed + (long) (ThreadLocalRandom.current().nextDouble() * (result - fixed));
+        }
+        if (maxElapsedMillis > 0 && elapsedMillis + result > maxElapsedMillis) {
+            return DO_NOT_RETRY;
+        }
+        return result;
+    }
+
+    long getNominalDelayMillis(int retry) {
+        int shift = Math.min(Math.max(retry - 1, 0), 62);
+        if (baseDelayMillis > (maxDelayMillis >> shift)) {
+            return maxDelayMillis;
+        }
+        return Math.min(baseDelayMillis << shift, maxDelayMillis);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("baseDelayMillis", baseDelayMillis)
+                .add("maxDelayMillis", maxDelayMillis).add("jitter", jitter).add("maxElapsedMillis", maxElapsedMillis)
+                .toString();
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.clearcapital.oss.cassandra.retry;
+
+import com.clearcapital.oss.cassandra.SessionHelper;
+import com.datastax.driver.core.Statement;
+
+/**
+ * Decides whether, and when, {@link SessionHelper} retries a statement which failed with a
+ * {@link com.datastax.driver.core.exceptions.NoHostAvailableException} or a
+ * {@link com.datastax.driver.core.exceptions.QueryExecutionException}. Other failures are never retried.
+ * 
+ * <p>
+ * The attempt limit passed to {@link SessionHelper#execute(Statement, int, boolean)} is enforced before the policy is
+ * consulted. Policies must be thread-safe.
+ * </p>
+ * 
+ * @see ExponentialBackoffRetryPolicy
+ */
+public interface RetryPolicy {
+
+    /**
+     * Returned by {@link #getRetryDelayMillis(Statement, Throwable, int, long)} to give up.
+     */
+    long DO_NOT_RETRY = -1;
+
+    /**
+     * How long to wait before making attempt number {@code retry + 1}, or {@link #DO_NOT_RETRY}.
+     * 
+     * @param retry
+     *            the number of this retry: 1 after the first attempt fails.
+     * @param elapsedMillis
+     *            time since the first attempt started.
+     */
+    long getRetryDelayMillis(Statement statement, Throwable cause, int retry, long elapsedMillis);
+}
@@ -0,0 +1,269 @@
+package com.clearcapital.oss.cassandra.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.google.common.base.MoreObjects;
+import com.google.common.primitives.UnsignedBytes;
+
+/**
+ * A read-only, memory-mapped table of binary key/value entries, sorted by key.
+ *
+ * <p>
+ * Layout, all integers big-endian:
+ * </p>
+ * <ul>
+ * <li>header: magic, format version, entry count, column count (4 ints), schema fingerprint (long)</li>
+ * <li>index: the offset of each entry, in key order (entry count ints)</li>
+ * <li>entries: key length (int), key bytes, value length (int), value bytes</li>
+ * </ul>
+ * <p>
+ * A value is {@code columnCount} columns, each a length (int, -1 for null) followed by that many bytes: the same
+ * encoding the native protocol uses for row values. Keys are compared as unsigned bytes. The schema fingerprint is
+ * opaque to this class; the writer uses it to recognize files written with different columns.
+ * </p>
+ *
+ * <p>
+ * Lookups binary search the index without copying: {@link #get(ByteBuffer)} and {@link #getColumn(ByteBuffer, int)}
+ * return read-only views of the mapped file, which stay valid for as long as they're referenced, even after the file
+ * has been replaced. The mapping itself is released when the last view is garbage collected.
+ * </p>
+ */
+public class SnapshotFile {
+
+    private static final int MAGIC = 0x43534e50; // "CSNP"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 24;
+
+    private static final Comparator<byte[]> KEY_ORDER = UnsignedBytes.lexicographicalComparator();
+
+    /**
+     * One entry, as written to a file.
+     */
+    public static class Entry {
+
+        private final byte[] key;
+        private final byte[] value;
+
+        public Entry(byte[] key, byte[] value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public byte[] getKey() {
+            return key;
+        }
+
+        public byte[] getValue() {
+            return value;
+        }
+    }
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int columnCount;
+    private final long schemaFingerprint;
+
+    private SnapshotFile(Path file, ByteBuffer buffer) throws CassandraException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new CassandraException("Not a snapshot file: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new CassandraException("Unsupported snapshot version " + buffer.getInt(4) + ": " + file);
+        }
+        this.size = buffer.getInt(8);
+        this.columnCount = buffer.getInt(12);
+        this.schemaFingerprint = buffer.getLong(16);
+        if (buffer.capacity() < HEADER_BYTES + 4L * size) {
+            throw new CassandraException("Truncated snapshot file: " + file);
+        }
+    }
+
+    /**
+     * Map {@code file}, which must have been written by {@link #write(Path, List, int, long)}.
+     */
+    public static SnapshotFile open(Path file) throws CassandraException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new SnapshotFile(file, channel.map(MapMode.READ_ONLY, 0, channel.size()).asReadOnlyBuffer());
+        } catch (IOException e) {
+            throw new CassandraException("Could not map snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Write {@code entries}, which must have distinct keys, to {@code file}; {@code entries} is sorted in place. The
+     * file is replaced atomically, so readers see either the old snapshot or the new one.
+     */
+    public static void write(Path file, List<Entry> entries, int columnCount, long schemaFingerprint)
+            throws CassandraException {
+        Collections.sort(entries, new Comparator<Entry>() {
+
+            @Override
+            public int compare(Entry left, Entry right) {
+                return KEY_ORDER.compare(left.key, right.key);
+            }
+        });
+
+        long length = HEADER_BYTES + 4L * entries.size();
+        for (Entry entry : entries) {
+            length += 8 + entry.key.length + entry.value.length;
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new CassandraException("Snapshot too large to map: " + length + " bytes");
+        }
+
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    MappedByteBuffer out = channel.map(MapMode.READ_WRITE, 0, length);
+                    out.putInt(MAGIC).putInt(VERSION).putInt(entries.size()).putInt(columnCount)
+                            .putLong(schemaFingerprint);
+                    int offset = HEADER_BYTES + 4 * entries.size();
+                    for (Entry entry : entries) {
+                        out.putInt(offset);
+                        offset += 8 + entry.key.length + entry.value.length;
+                    }
+                    for (Entry entry : entries) {
+                        out.putInt(entry.key.length).put(entry.key).putInt(entry.value.length).put(entry.value);
+                    }
+                    out.force();
+                }
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new CassandraException("Could not write snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Encode a value from its serialized columns; null columns are allowed.
+     */
+    public static byte[] encodeValue(ByteBuffer... columns) {
+        int length = 0;
+        for (ByteBuffer column : columns) {
+            length += 4 + (column == null ? 0 : column.remaining());
+        }
+        ByteBuffer result = ByteBuffer.allocate(length);
+        for (ByteBuffer column : columns) {
+            if (column == null) {
+                result.putInt(-1);
+            } else {
+                result.putInt(column.remaining()).put(column.duplicate());
+            }
+        }
+        return result.array();
+    }
+
+    /**
+     * The serialized column at {@code index} of {@code value}, as returned by {@link #get(ByteBuffer)}; null if the
+     * column is null.
+     */
+    public static ByteBuffer getColumn(ByteBuffer value, int index) {
+        int position = value.position();
+        for (int column = 0; column < index; ++column) {
+            position += 4 + Math.max(0, value.getInt(position));
+        }
+        int length = value.getInt(position);
+        if (length < 0) {
+            return null;
+        }
+        ByteBuffer result = value.duplicate();
+        result.position(position + 4).limit(position + 4 + length);
+        return result.slice();
+    }
+
+    /**
+     * The value stored under {@code key}, or null if there is none.
+     */
+    public ByteBuffer get(ByteBuffer key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int offset = buffer.getInt(HEADER_BYTES + 4 * middle);
+            int comparison = compareKey(offset, key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                int valueOffset = offset + 4 + buffer.getInt(offset);
+                ByteBuffer result = buffer.duplicate();
+                result.position(valueOffset + 4).limit(valueOffset + 4 + buffer.getInt(valueOffset));
+                return result.slice();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compare the key of the entry at {@code offset} with {@code key}, as unsigned bytes.
+     */
+    private int compareKey(int offset, ByteBuffer key) {
+        int length = buffer.getInt(offset);
+        int start = offset + 4;
+        int probeLength = key.remaining();
+        for (int index = 0; index < Math.min(length, probeLength); ++index) {
+            int comparison = UnsignedBytes.compare(buffer.get(start + index), key.get(key.position() + index));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return length - probeLength;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public long getSchemaFingerprint() {
+        return schemaFingerprint;
+    }
+
+    /**
+     * Bytes mapped.
+     */
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("file", file).add("size", size).add("columnCount", columnCount)
+                .add("capacity", getCapacity()).toString();
+    }
+
+}
@@ -0,0 +1,381 @@
+package com.clearcapital.oss.cassandra.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.clearcapital.oss.cassandra.CassandraTableImpl;
+import com.clearcapital.oss.cassandra.ColumnDefinition;
+import com.clearcapital.oss.cassandra.ColumnDefinition.ColumnOption;
+import com.clearcapital.oss.cassandra.RoutingKeys;
+import com.clearcapital.oss.cassandra.TableDescriptor;
+import com.clearcapital.oss.cassandra.exceptions.CassandraDeserializationException;
+import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.cassandra.iterate.CassandraRowDeserializer;
+import com.clearcapital.oss.cassandra.iterate.CassandraTableWalker;
+import com.clearcapital.oss.cassandra.limits.ScanThrottle;
+import com.clearcapital.oss.java.AssertHelpers;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.TableMetadata;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A local, off-heap copy of a small table, for lookups by primary key which cost neither a round trip nor GC.
+ *
+ * <p>
+ * {@link #refresh()} walks the whole table with a {@link CassandraTableWalker}, writes the selected columns of every
+ * row to a {@link SnapshotFile} keyed by primary key, and maps it. Lookups are served from the mapped file without
+ * copying: {@link #get(Object...)} returns a view of the row's serialized columns, and {@link #getColumn(ByteBuffer,
+ * String)} a view of one column, which can be decoded with the column's codec. The Java heap only holds the rows while
+ * a refresh is being written.
+ * </p>
+ *
+ * <p>
+ * If the file already exists when the snapshot is built (say, left by the previous run of the process), and was written
+ * with the same columns (names, types and order), it is mapped straight away, so lookups can start before the first
+ * refresh; {@link #getLoadedAt()} says how old it is.
+ * {@link #startRefreshing(long, TimeUnit)} refreshes periodically in the background; lookups keep using the previous
+ * file until the new one is complete. Writes to the table are only seen at the next refresh.
+ * </p>
+ *
+ * <pre>
+ * TableSnapshot snapshot = TableSnapshot.builder().setTable(countyTable).setFile(Paths.get("/var/cache/county.snap"))
+ *         .setValueColumnNames(ImmutableList.of("name")).build();
+ * snapshot.startRefreshing(15, TimeUnit.MINUTES);
+ * ByteBuffer row = snapshot.get(countyId);
+ * String name = row == null ? null : TypeCodec.varchar().deserialize(snapshot.getColumn(row, "name"), protocolVersion);
+ * </pre>
+ */
+public class TableSnapshot implements AutoCloseable {
+
+    private static Logger log = LoggerFactory.getLogger(TableSnapshot.class);
+
+    private CassandraTableImpl<?, ?> table;
+    private Path file;
+    private ImmutableList<String> keyColumnNames;
+    private ImmutableList<DataType> keyColumnTypes;
+    private ImmutableList<String> valueColumnNames;
+    private long schemaFingerprint;
+    private int fetchSize;
+    private ScanThrottle throttle;
+
+    private volatile SnapshotFile snapshotFile;
+    private volatile long loadedAt;
+    private ScheduledExecutorService refresher;
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private CassandraTableImpl<?, ?> table;
+        private Path file;
+        private List<String> valueColumnNames;
+        private int fetchSize = 1000;
+        private ScanThrottle throttle;
+
+        Builder() {
+        }
+
+        public Builder setTable(CassandraTableImpl<?, ?> value) {
+            table = value;
+            return this;
+        }
+
+        /**
+         * Where to keep the snapshot. Refreshes replace it atomically.
+         */
+        public Builder setFile(Path value) {
+            file = value;
+            return this;
+        }
+
+        /**
+         * The columns to copy, besides the primary key; defaults to every other column declared on the table.
+         */
+        public Builder setValueColumnNames(List<String> value) {
+            valueColumnNames = value;
+            return this;
+        }
+
+        public Builder setFetchSize(int value) {
+            fetchSize = value;
+            return this;
+        }
+
+        /**
+         * Throttle refreshes' scans of the table.
+         */
+        public Builder setThrottle(ScanThrottle value) {
+            throttle = value;
+            return this;
+        }
+
+        /**
+         * Build the snapshot, mapping {@code file} if it holds a snapshot with the expected columns.
+         */
+        public TableSnapshot build() throws AssertException {
+            AssertHelpers.notNull(table, "table");
+            AssertHelpers.notNull(file, "file");
+            AssertHelpers.isTrue(fetchSize > 0, "fetchSize > 0");
+
+            TableDescriptor descriptor = table.getDescriptor();
+            ImmutableList.Builder<String> keyColumnNames = ImmutableList.<String> builder();
+            ImmutableList.Builder<DataType> keyColumnTypes = ImmutableList.<DataType> builder();
+            ImmutableList.Builder<String> otherColumnNames = ImmutableList.<String> builder();
+            for (ColumnDefinition column : descriptor.getPartitionKeyColumns()) {
+                keyColumnNames.add(column.getColumnName());
+                keyColumnTypes.add(column.getDataType());
+            }
+            for (ColumnDefinition column : descriptor.getClusteringKeyColumns()) {
+                keyColumnNames.add(column.getColumnName());
+                keyColumnTypes.add(column.getDataType());
+            }
+            for (ColumnDefinition column : descriptor.getColumnDefinitions()) {
+                ColumnOption option = column.getColumnOption();
+                if (option != ColumnOption.PARTITION_KEY && option != ColumnOption.CLUSTERING_KEY_ASC
+                        && option != ColumnOption.CLUSTERING_KEY_DESC && !column.getIsCreatedElsewhere()) {
+                    otherColumnNames.add(column.getColumnName());
+                }
+            }
+
+            TableSnapshot result = new TableSnapshot();
+            result.table = table;
+            result.file = file;
+            result.keyColumnNames = keyColumnNames.build();
+            result.keyColumnTypes = keyColumnTypes.build();
+            result.valueColumnNames = valueColumnNames == null ? otherColumnNames.build()
+                    : ImmutableList.copyOf(valueColumnNames);
+            result.fetchSize = fetchSize;
+            result.throttle = throttle;
+            AssertHelpers.isTrue(!result.keyColumnNames.isEmpty(), "table must have a primary key");
+            result.schemaFingerprint = result.computeSchemaFingerprint();
+            result.openExisting();
+            return result;
+        }
+    }
+
+    private TableSnapshot() {
+    }
+
+    private void openExisting() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            SnapshotFile existing = SnapshotFile.open(file);
+            if (existing.getColumnCount() != valueColumnNames.size()
+                    || existing.getSchemaFingerprint() != schemaFingerprint) {
+                log.info("Ignoring snapshot with different columns: " + existing);
+                return;
+            }
+            snapshotFile = existing;
+            loadedAt = Files.getLastModifiedTime(file).toMillis();
+            log.info("Opened existing snapshot: " + existing);
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable snapshot " + file, e);
+        }
+    }
+
+    /**
+     * A hash of the names and types of the key and value columns, in order, so that a file written before columns were
+     * renamed, reordered or retyped is not served. Types come from the ring's schema, or from the table's annotation if
+     * the ring doesn't know the table.
+     */
+    private long computeSchemaFingerprint() throws AssertException {
+        TableDescriptor descriptor = table.getDescriptor();
+        TableMetadata metadata = table.getSession().getTableMetadata(descriptor.getTableName());
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (List<String> columnNames : ImmutableList.of(keyColumnNames, valueColumnNames)) {
+            for (String columnName : columnNames) {
+                DataType type = null;
+                ColumnMetadata column = metadata == null ? null : metadata.getColumn(columnName);
+                if (column != null) {
+                    type = column.getType();
+                } else if (descriptor.getColumnDefinitionMap().containsKey(columnName)) {
+                    type = descriptor.getColumnDefinitionMap().get(columnName).getDataType();
+                }
+                hasher.putString(columnName, StandardCharsets.UTF_8).putByte((byte) 0)
+                        .putString(String.valueOf(type), StandardCharsets.UTF_8).putByte((byte) 0);
+            }
+            hasher.putByte((byte) 1);
+        }
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * Walk the table, and replace the snapshot with what was read.
+     */
+    public synchronized void refresh() throws CassandraException, AssertException {
+        long start = System.currentTimeMillis();
+        List<String> selectColumnNames = new ArrayList<>(keyColumnNames);
+        selectColumnNames.addAll(valueColumnNames);
+        CassandraTableWalker.Builder<SnapshotFile.Entry> walker = table.getWalker(new EntryDeserializer())
+                .setSelectColumnNames(selectColumnNames).setFetchSize(fetchSize)
+                .setPrefetchThreshold(fetchSize / 2);
+        if (throttle != null) {
+            walker.setThrottle(throttle);
+        }
+
+        List<SnapshotFile.Entry> entries = new ArrayList<>();
+        for (SnapshotFile.Entry entry : walker.build()) {
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        SnapshotFile.write(file, entries, valueColumnNames.size(), schemaFingerprint);
+        snapshotFile = SnapshotFile.open(file);
+        loadedAt = System.currentTimeMillis();
+        log.info("Refreshed snapshot in " + (loadedAt - start) + "ms: " + snapshotFile);
+    }
+
+    /**
+     * Refresh now (unless a snapshot is already mapped) and then every {@code period}, on a background thread. Failed
+     * refreshes are logged, and the previous snapshot stays in use.
+     */
+    public synchronized void startRefreshing(long period, TimeUnit unit) throws AssertException {
+        AssertHelpers.isTrue(refresher == null, "already refreshing");
+        AssertHelpers.isTrue(period > 0, "period > 0");
+        refresher = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("snapshot-" + file.getFileName()).build());
+        refresher.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    refresh();
+                } catch (Exception e) {
+                    log.error("Could not refresh snapshot " + file, e);
+                }
+            }
+        }, snapshotFile == null ? 0 : unit.toMillis(period), unit.toMillis(period), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop refreshing. Lookups keep working against the last snapshot.
+     */
+    @Override
+    public synchronized void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    /**
+     * The row with the given primary key, partition key columns first, as a read-only view of its serialized value
+     * columns; null if there is no such row.
+     *
+     * @throws CassandraException
+     *             if no snapshot has been loaded yet.
+     */
+    public ByteBuffer get(Object... primaryKey) throws CassandraException, AssertException {
+        AssertHelpers.isTrue(primaryKey.length == keyColumnTypes.size(),
+                "expected " + keyColumnTypes.size() + " primary key values");
+        Configuration configuration = table.getSession().getSession().getCluster().getConfiguration();
+        ProtocolVersion protocolVersion = configuration.getProtocolOptions().getProtocolVersion();
+        CodecRegistry codecRegistry = configuration.getCodecRegistry();
+
+        ByteBuffer[] components = new ByteBuffer[primaryKey.length];
+        for (int index = 0; index < primaryKey.length; ++index) {
+            components[index] = codecRegistry.codecFor(keyColumnTypes.get(index), primaryKey[index])
+                    .serialize(primaryKey[index], protocolVersion);
+        }
+        return get(RoutingKeys.compose(components));
+    }
+
+    /**
+     * The row with the given key, composed from the serialized primary key columns by {@link RoutingKeys#compose}; null
+     * if there is no such row.
+     */
+    public ByteBuffer get(ByteBuffer key) throws CassandraException {
+        SnapshotFile current = snapshotFile;
+        if (current == null) {
+            throw new CassandraException("Snapshot of " + file + " has not been loaded");
+        }
+        return key == null ? null : current.get(key);
+    }
+
+    /**
+     * The serialized value of {@code columnName} in {@code row}, as returned by {@link #get(Object...)}; null if the
+     * column is null.
+     */
+    public ByteBuffer getColumn(ByteBuffer row, String columnName) throws AssertException {
+        int index = valueColumnNames.indexOf(columnName);
+        AssertHelpers.isTrue(index >= 0, "not a snapshot column: " + columnName);
+        return SnapshotFile.getColumn(row, index);
+    }
+
+    public ImmutableList<String> getValueColumnNames() {
+        return valueColumnNames;
+    }
+
+    public boolean isLoaded() {
+        return snapshotFile != null;
+    }
+
+    /**
+     * When the current snapshot was written, in milliseconds since the epoch; 0 if none is loaded.
+     */
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    public int size() {
+        SnapshotFile current = snapshotFile;
+        return current == null ? 0 : current.size();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("file", file).add("keyColumnNames", keyColumnNames)
+                .add("valueColumnNames", valueColumnNames).add("snapshotFile", snapshotFile).toString();
+    }
+
+    /**
+     * Copy the key and value columns of a row into an entry.
+     */
+    private class EntryDeserializer implements CassandraRowDeserializer<SnapshotFile.Entry> {
+
+        @Override
+        public SnapshotFile.Entry deserializeRow(Row row) throws CassandraDeserializationException {
+            ByteBuffer[] key = new ByteBuffer[keyColumnNames.size()];
+            for (int index = 0; index < key.length; ++index) {
+                key[index] = row.getBytesUnsafe(keyColumnNames.get(index));
+            }
+            ByteBuffer composed = RoutingKeys.compose(key);
+            if (composed == null) {
+                throw new CassandraDeserializationException("Row has a null primary key column: " + row);
+            }
+            byte[] keyBytes = new byte[composed.remaining()];
+            composed.get(keyBytes);
+
+            ByteBuffer[] value = new ByteBuffer[valueColumnNames.size()];
+            for (int index = 0; index < value.length; ++index) {
+                value[index] = row.getBytesUnsafe(valueColumnNames.get(index));
+            }
+            return new SnapshotFile.Entry(keyBytes, SnapshotFile.encodeValue(value));
+        }
+    }
+
+}
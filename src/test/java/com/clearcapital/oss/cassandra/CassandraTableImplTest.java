@@ -1,23 +1,41 @@
 package com.clearcapital.oss.cassandra;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.http.client.ClientProtocolException;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import com.clearcapital.oss.cassandra.annotation_processors.CachedDemoTable;
 import com.clearcapital.oss.cassandra.annotation_processors.CassandraTableProcessor;
+import com.clearcapital.oss.cassandra.annotation_processors.CountsModel;
+import com.clearcapital.oss.cassandra.annotation_processors.CountsTable;
 import com.clearcapital.oss.cassandra.annotation_processors.DemoModel;
 import com.clearcapital.oss.cassandra.annotation_processors.DemoTable;
+import com.clearcapital.oss.cassandra.annotation_processors.StampedCountsTable;
+import com.clearcapital.oss.cassandra.bundles.AsyncWritePipeline;
+import com.clearcapital.oss.cassandra.cache.NearCache;
 import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.cassandra.multiring.WarmUpReport;
 import com.clearcapital.oss.cassandra.test_support.CassandraTestResource;
 import com.clearcapital.oss.commands.CommandExecutionException;
 import com.clearcapital.oss.executors.ImmediateCommandExecutor;
 import com.clearcapital.oss.java.exceptions.AssertException;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
 
 public class CassandraTableImplTest {
     @ClassRule
@@ -37,6 +55,22 @@ public class CassandraTableImplTest {
 		assertEquals(DemoModel.class,demoTable.getModelClass());
 	}
 	
+	@Test
+	public void testDescriptor() throws Exception {
+		DemoTable demoTable = new DemoTable(cassandraResource.multiRingClientManager);
+		TableDescriptor descriptor = demoTable.getDescriptor();
+
+		assertSame(descriptor, demoTable.getDescriptor());
+		assertEquals(DemoTable.class, descriptor.getTableClass());
+		assertEquals(DemoModel.class, descriptor.getModelClass());
+		assertEquals("testCreateTable", descriptor.getTableName());
+		assertEquals(4, descriptor.getColumnDefinitions().size());
+		assertEquals(Arrays.asList(DemoTable.ID_COLUMN), descriptor.getPartitionKeyColumnNames());
+		assertEquals(1, descriptor.getClusteringKeyColumns().size());
+		assertSame(cassandraResource.multiRingClientManager.getRingClientForGroup("groupA"),
+				descriptor.getRingClient());
+	}
+
 	@Test
 	public void testCreateMethod() throws Exception {
 		DemoTable demoTable = new DemoTable(cassandraResource.multiRingClientManager);
@@ -48,4 +82,180 @@ public class CassandraTableImplTest {
 		assertEquals(insertModel,readModel);
 	}
 	
+	@Test
+	public void testTimedInsert() throws Exception {
+		DemoTable demoTable = new DemoTable(cassandraResource.multiRingClientManager);
+
+		DemoModel insertModel = DemoModel.builder().setId(25L).setUpdateId(2L).build();
+		demoTable.insert(insertModel, TimeUnit.DAYS, 1, 1234567L).execute();
+		assertEquals(insertModel, demoTable.read(25L));
+
+		Select select = QueryBuilder.select().ttl(DemoTable.JSON_COLUMN).writeTime(DemoTable.JSON_COLUMN)
+				.from(demoTable.getTableName());
+		select.where(QueryBuilder.eq(DemoTable.ID_COLUMN, 25L));
+		Row row = demoTable.getSession().execute(select).one();
+		assertTrue(row.getInt(0) > 0 && row.getInt(0) <= TimeUnit.DAYS.toSeconds(1));
+		assertEquals(1234567L, row.getLong(1));
+
+		// An invalid TTL means no TTL, just as with prepareInsertStatement().
+		demoTable.insert(insertModel, TimeUnit.DAYS, -1, 1234568L).execute();
+		row = demoTable.getSession().execute(select).one();
+		assertTrue(row.isNull(0));
+		assertEquals(1234568L, row.getLong(1));
+	}
+
+	@Test
+	public void testUpdateSkipsUnforcedNulls() throws Exception {
+		DemoTable demoTable = new DemoTable(cassandraResource.multiRingClientManager);
+		Select.Where readColumns = QueryBuilder
+				.select(DemoTable.ID_COLUMN, DemoTable.UPDATE_ID_COLUMN, DemoTable.FLUID_TYPE_COLUMN)
+				.from(demoTable.getTableName()).where(QueryBuilder.eq(DemoTable.ID_COLUMN, 1L));
+
+		demoTable.update(DemoModel.builder().setId(1L).setUpdateId(2L).setFluidType("water").build(), null).execute();
+		demoTable.update(DemoModel.builder().setId(1L).setUpdateId(2L).build(), null).execute();
+		assertEquals("water", demoTable.readFirst(readColumns).fluidType);
+
+		demoTable.update(DemoModel.builder().setId(1L).setUpdateId(2L).build(),
+				Arrays.asList(DemoTable.FLUID_TYPE_COLUMN)).execute();
+		assertNull(demoTable.readFirst(readColumns).fluidType);
+	}
+
+	@Test
+	public void testUpdateConvertsMismatchedTypes() throws Exception {
+		CassandraTableProcessor.dropTableIfExists(cassandraResource.multiRingClientManager, CountsTable.class);
+		CassandraTableProcessor.tableBuilder(new ImmediateCommandExecutor(), cassandraResource.multiRingClientManager,
+				CountsTable.class).build();
+		CountsTable countsTable = new CountsTable(cassandraResource.multiRingClientManager);
+
+		// An Integer field in a bigint column is converted, as it was when values were inlined into the CQL.
+		countsTable.update(new CountsModel(1L, 42)).execute();
+		Select.Where readTotal = QueryBuilder.select(CountsTable.TOTAL_COLUMN).from(countsTable.getTableName())
+				.where(QueryBuilder.eq(CountsTable.ID_COLUMN, 1L));
+		assertEquals(42L, countsTable.getSession().execute(readTotal).one().getLong(0));
+	}
+
+	@Test
+	public void testUpdateUsesOverriddenGetFields() throws Exception {
+		CassandraTableProcessor.dropTableIfExists(cassandraResource.multiRingClientManager, StampedCountsTable.class);
+		CassandraTableProcessor.tableBuilder(new ImmediateCommandExecutor(), cassandraResource.multiRingClientManager,
+				StampedCountsTable.class).build();
+		StampedCountsTable stampedTable = new StampedCountsTable(cassandraResource.multiRingClientManager);
+
+		// The column only the overridden getFields() knows about is still written.
+		stampedTable.update(new CountsModel(1L, 42)).execute();
+		Select.Where readStamp = QueryBuilder.select(StampedCountsTable.STAMP_COLUMN)
+				.from(stampedTable.getTableName()).where(QueryBuilder.eq(StampedCountsTable.ID_COLUMN, 1L));
+		assertEquals(StampedCountsTable.STAMP, stampedTable.getSession().execute(readStamp).one().getString(0));
+	}
+
+	@Test
+	public void testReadAsync() throws Exception {
+		DemoTable demoTable = new DemoTable(cassandraResource.multiRingClientManager);
+		DemoModel first = DemoModel.builder().setId(1L).setUpdateId(2L).setFluidType("water").build();
+		DemoModel second = DemoModel.builder().setId(1L).setUpdateId(1L).setFluidType("oil").build();
+		demoTable.update(first, null).execute();
+		demoTable.update(second, null).execute();
+
+		Select.Where readAll = QueryBuilder.select().all().from(demoTable.getTableName())
+				.where(QueryBuilder.eq(DemoTable.ID_COLUMN, 1L));
+		readAll.setFetchSize(1);
+
+		assertEquals(first, demoTable.readFirstAsync(readAll).get());
+		assertEquals(Arrays.asList(first, second), demoTable.readCollectionAsync(readAll).get());
+	}
+
+	@Test
+	public void testBatchUpdate() throws Exception {
+		DemoTable demoTable = new DemoTable(cassandraResource.multiRingClientManager);
+		DemoModel first = DemoModel.builder().setId(1L).setUpdateId(2L).setFluidType("water").build();
+		DemoModel second = DemoModel.builder().setId(1L).setUpdateId(1L).setFluidType("oil").build();
+		DemoModel third = DemoModel.builder().setId(2L).setUpdateId(1L).setFluidType("gas").build();
+		demoTable.updateAll(Arrays.asList(first, third, second), null).execute();
+
+		Select.Where readAll = QueryBuilder.select().all().from(demoTable.getTableName())
+				.where(QueryBuilder.in(DemoTable.ID_COLUMN, 1L, 2L));
+		// Partitions come back in token order.
+		assertEquals(new HashSet<>(Arrays.asList(first, second, third)),
+				new HashSet<>(demoTable.readCollectionAsync(readAll).get()));
+	}
+
+	@Test
+	public void testAsyncWritePipeline() throws Exception {
+		DemoTable demoTable = new DemoTable(cassandraResource.multiRingClientManager);
+		Set<DemoModel> written = new HashSet<>();
+		try (AsyncWritePipeline pipeline = AsyncWritePipeline.builder().setMaxInFlight(4).build()) {
+			for (long updateId = 0; updateId < 20; ++updateId) {
+				DemoModel model = DemoModel.builder().setId(1L).setUpdateId(updateId).setFluidType("water").build();
+				demoTable.updateAsync(pipeline, model);
+				written.add(model);
+				assertTrue(pipeline.getInFlight() <= 4);
+			}
+			pipeline.flush();
+			assertEquals(0, pipeline.getInFlight());
+		}
+
+		Select.Where readAll = QueryBuilder.select().all().from(demoTable.getTableName())
+				.where(QueryBuilder.eq(DemoTable.ID_COLUMN, 1L));
+		assertEquals(written, new HashSet<>(demoTable.readCollectionAsync(readAll).get()));
+	}
+
+	@Test
+	public void testNearCache() throws Exception {
+		CassandraTableProcessor.dropTableIfExists(cassandraResource.multiRingClientManager, CachedDemoTable.class);
+		CassandraTableProcessor.tableBuilder(new ImmediateCommandExecutor(), cassandraResource.multiRingClientManager,
+				CachedDemoTable.class).build();
+		CachedDemoTable demoTable = new CachedDemoTable(cassandraResource.multiRingClientManager);
+		// The table was recreated behind the back of the shared near cache.
+		demoTable.getNearCache().invalidateAll();
+		DemoModel water = DemoModel.builder().setId(3L).setUpdateId(1L).setFluidType("water").build();
+		demoTable.update(water, null).execute();
+
+		NearCache<DemoModel> cache = demoTable.getNearCache();
+		long hits = cache.getStats().hitCount();
+		long misses = cache.getStats().missCount();
+		assertEquals(water, demoTable.readFirst(3L));
+		assertEquals(water, demoTable.readFirst(3L));
+		assertEquals(hits + 1, cache.getStats().hitCount());
+		assertEquals(misses + 1, cache.getStats().missCount());
+
+		// Written through another instance of the table class, which shares the cache, so the read is invalidated.
+		CachedDemoTable otherInstance = new CachedDemoTable(cassandraResource.multiRingClientManager);
+		assertSame(cache, otherInstance.getNearCache());
+		DemoModel oil = DemoModel.builder().setId(3L).setUpdateId(1L).setFluidType("oil").build();
+		otherInstance.update(oil, null).execute();
+		assertEquals(oil, demoTable.readFirst(3L));
+		assertEquals(misses + 2, cache.getStats().missCount());
+	}
+
+	@Test
+	public void testWarmUp() throws Exception {
+		WarmUpReport report = cassandraResource.multiRingClientManager
+				.warmUp(Arrays.<Class<?>> asList(DemoTable.class), 2);
+
+		assertTrue(report.toString(), report.isSuccessful());
+		assertEquals(1, report.getRings().size());
+		assertTrue(report.getRings().get(0).getConnectedHosts() > 0);
+		assertEquals(DemoTable.class, report.getTables().get(0).getTableClass());
+		// The insert, and the select by primary key.
+		assertEquals(2, report.getTables().get(0).getPreparedStatements());
+	}
+
+	@Test
+	public void testPreparedStatementCache() throws Exception {
+		DemoTable demoTable = new DemoTable(cassandraResource.multiRingClientManager);
+		PreparedStatementCache cache = demoTable.getSession().getPreparedStatementCache();
+		Select select = QueryBuilder.select().all().from(demoTable.getTableName());
+		select.where(QueryBuilder.eq(DemoTable.ID_COLUMN, QueryBuilder.bindMarker()));
+
+		PreparedStatement first = demoTable.prepareStatement(select);
+		long misses = cache.getStats().missCount();
+		assertSame(first, demoTable.prepareStatement(select));
+		assertEquals(misses, cache.getStats().missCount());
+
+		long generation = cache.getSchemaGeneration();
+		cache.invalidate(demoTable.getSession().getLoggedKeyspace(), demoTable.getTableName());
+		assertTrue(cache.getSchemaGeneration() > generation);
+		assertNotSame(first, demoTable.prepareStatement(select));
+	}
+
 }
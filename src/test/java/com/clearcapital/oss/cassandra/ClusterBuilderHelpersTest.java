@@ -0,0 +1,50 @@
+package com.clearcapital.oss.cassandra;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.clearcapital.oss.cassandra.configuration.LoadBalancingConfiguration;
+import com.clearcapital.oss.cassandra.configuration.PoolingConfiguration;
+import com.clearcapital.oss.cassandra.configuration.RingConfiguration;
+import com.clearcapital.oss.cassandra.configuration.SpeculativeExecutionConfiguration;
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.ProtocolOptions.Compression;
+import com.datastax.driver.core.policies.ConstantSpeculativeExecutionPolicy;
+import com.datastax.driver.core.policies.LatencyAwarePolicy;
+import com.datastax.driver.core.policies.TokenAwarePolicy;
+import com.google.common.collect.ImmutableList;
+
+public class ClusterBuilderHelpersTest {
+
+    @Test
+    public void testConfiguration() throws Exception {
+        RingConfiguration ringConfiguration = RingConfiguration.builder()
+                .setHosts(ImmutableList.<String> of("127.0.0.1")).setCompression(Compression.LZ4)
+                .setReadTimeoutMillis(15000)
+                .setPooling(PoolingConfiguration.builder().setCoreConnectionsLocal(2).setMaxConnectionsLocal(4)
+                        .setMaxRequestsPerConnectionLocal(2048).build())
+                .setLoadBalancing(LoadBalancingConfiguration.builder().setLocalDc("dc1").setLatencyAware(true).build())
+                .setSpeculativeExecution(
+                        SpeculativeExecutionConfiguration.builder().setDelayMillis(50L).setMaxExecutions(2).build())
+                .build();
+
+        Configuration configuration = ClusterBuilderHelpers.builder(ringConfiguration).getConfiguration();
+
+        assertEquals(Compression.LZ4, configuration.getProtocolOptions().getCompression());
+        assertEquals(15000, configuration.getSocketOptions().getReadTimeoutMillis());
+        assertEquals(2, configuration.getPoolingOptions().getCoreConnectionsPerHost(HostDistance.LOCAL));
+        assertEquals(4, configuration.getPoolingOptions().getMaxConnectionsPerHost(HostDistance.LOCAL));
+        assertEquals(2048, configuration.getPoolingOptions().getMaxRequestsPerConnection(HostDistance.LOCAL));
+
+        TokenAwarePolicy loadBalancingPolicy = (TokenAwarePolicy) configuration.getPolicies().getLoadBalancingPolicy();
+        assertTrue(loadBalancingPolicy.getChildPolicy() instanceof LatencyAwarePolicy);
+        assertEquals("TokenAwarePolicy (LatencyAwarePolicy (DCAwareRoundRobinPolicy[dc1]))",
+                LoadBalancingPolicyHelpers.policyToString(loadBalancingPolicy));
+        assertTrue(configuration.getPolicies()
+                .getSpeculativeExecutionPolicy() instanceof ConstantSpeculativeExecutionPolicy);
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.clearcapital.oss.cassandra.annotation_processors;
+
+import java.util.List;
+
+import com.clearcapital.oss.cassandra.CassandraTableImpl;
+import com.clearcapital.oss.cassandra.ColumnDefinition.ColumnOption;
+import com.clearcapital.oss.cassandra.annotations.CassandraDataType;
+import com.clearcapital.oss.cassandra.annotations.CassandraTable;
+import com.clearcapital.oss.cassandra.annotations.Column;
+import com.clearcapital.oss.cassandra.annotations.NearCacheOptions;
+import com.clearcapital.oss.cassandra.annotations.ReflectionColumnInfo;
+import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
+import com.clearcapital.oss.commands.Command;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.clearcapital.oss.java.exceptions.ReflectionPathException;
+import com.clearcapital.oss.java.exceptions.SerializingException;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+
+/**
+ * {@link DemoTable}'s columns, with a near cache, so that only the tests which want one read through it.
+ */
+@CassandraTable( // @formatter:off
+        multiRingGroup = "groupA", 
+        tableName = "testCachedTable", 
+        modelClass = DemoModel.class, 
+        columns = { 
+                @Column(cassandraName = DemoTable.ID_COLUMN, 
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { DemoTable.ID_COLUMN }, 
+                        dataType = CassandraDataType.BIGINT, 
+                        columnOption = ColumnOption.PARTITION_KEY)),
+                @Column(cassandraName = DemoTable.UPDATE_ID_COLUMN, 
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { DemoTable.UPDATE_ID_COLUMN }, 
+                        dataType = CassandraDataType.BIGINT, 
+                        columnOption = ColumnOption.CLUSTERING_KEY_DESC)),
+                @Column(cassandraName = DemoTable.FLUID_TYPE_COLUMN, 
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { DemoTable.FLUID_TYPE_COLUMN }, 
+                        dataType = CassandraDataType.TEXT)) }, 
+        nearCache = @NearCacheOptions(maxEntries = 100)) // @formatter:on
+public class CachedDemoTable extends CassandraTableImpl<CachedDemoTable, DemoModel> {
+
+    private PreparedStatement psReadById;
+
+    public CachedDemoTable(MultiRingClientManager multiRingClientManager) throws AssertException {
+        super(multiRingClientManager);
+
+        psReadById = prepareStatement(QueryBuilder.select().all().from(getTableName())
+                .where(QueryBuilder.eq(DemoTable.ID_COLUMN, QueryBuilder.bindMarker())).limit(1),
+                ConsistencyLevel.LOCAL_QUORUM);
+    }
+
+    public Command update(DemoModel value, List<String> forcedFields)
+            throws AssertException, ReflectionPathException, SerializingException {
+        return updateCommand(value, forcedFields);
+    }
+
+    public DemoModel readFirst(Long id) throws CassandraException, AssertException {
+        return readFirst(psReadById.bind(id));
+    }
+
+}
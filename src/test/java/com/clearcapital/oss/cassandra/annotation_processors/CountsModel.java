@@ -0,0 +1,18 @@
+package com.clearcapital.oss.cassandra.annotation_processors;
+
+/**
+ * A model whose {@link #total} is narrower than its bigint column, as the untyped write path always allowed.
+ */
+public class CountsModel {
+
+    public Long id;
+    public Integer total;
+
+    public CountsModel() {
+    }
+
+    public CountsModel(Long id, Integer total) {
+        this.id = id;
+        this.total = total;
+    }
+}
@@ -0,0 +1,40 @@
+package com.clearcapital.oss.cassandra.annotation_processors;
+
+import com.clearcapital.oss.cassandra.CassandraTableImpl;
+import com.clearcapital.oss.cassandra.ColumnDefinition.ColumnOption;
+import com.clearcapital.oss.cassandra.annotations.CassandraDataType;
+import com.clearcapital.oss.cassandra.annotations.CassandraTable;
+import com.clearcapital.oss.cassandra.annotations.Column;
+import com.clearcapital.oss.cassandra.annotations.ReflectionColumnInfo;
+import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
+import com.clearcapital.oss.commands.Command;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.clearcapital.oss.java.exceptions.ReflectionPathException;
+import com.clearcapital.oss.java.exceptions.SerializingException;
+
+@CassandraTable( // @formatter:off
+        multiRingGroup = "groupA", 
+        tableName = "testCounts", 
+        modelClass = CountsModel.class, 
+        columns = { 
+                @Column(cassandraName = CountsTable.ID_COLUMN, 
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { CountsTable.ID_COLUMN }, 
+                        dataType = CassandraDataType.BIGINT, 
+                        columnOption = ColumnOption.PARTITION_KEY)),
+                @Column(cassandraName = CountsTable.TOTAL_COLUMN, 
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { CountsTable.TOTAL_COLUMN }, 
+                        dataType = CassandraDataType.BIGINT)) }) // @formatter:on
+public class CountsTable extends CassandraTableImpl<CountsTable, CountsModel> {
+
+    public static final String ID_COLUMN = "id";
+    public static final String TOTAL_COLUMN = "total";
+
+    public CountsTable(MultiRingClientManager multiRingClientManager) throws AssertException {
+        super(multiRingClientManager);
+    }
+
+    public Command update(CountsModel value) throws AssertException, ReflectionPathException, SerializingException {
+        return updateCommand(value, null);
+    }
+
+}
@@ -1,6 +1,9 @@
 package com.clearcapital.oss.cassandra.annotation_processors;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.clearcapital.oss.cassandra.CassandraTableImpl;
 import com.clearcapital.oss.cassandra.ColumnDefinition.ColumnOption;
@@ -10,6 +13,7 @@ import com.clearcapital.oss.cassandra.annotations.Column;
 import com.clearcapital.oss.cassandra.annotations.JsonColumnInfo;
 import com.clearcapital.oss.cassandra.annotations.ReflectionColumnInfo;
 import com.clearcapital.oss.cassandra.annotations.table_properties.TableProperties;
+import com.clearcapital.oss.cassandra.bundles.AsyncWritePipeline;
 import com.clearcapital.oss.cassandra.bundles.CassandraCommand;
 import com.clearcapital.oss.cassandra.exceptions.CassandraException;
 import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
@@ -19,7 +23,9 @@ import com.clearcapital.oss.java.exceptions.ReflectionPathException;
 import com.clearcapital.oss.java.exceptions.SerializingException;
 import com.datastax.driver.core.ConsistencyLevel;
 import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.google.common.util.concurrent.ListenableFuture;
 
 /**
  * This is just a simple table definition suitable for using in our tests.
@@ -54,12 +60,14 @@ public class DemoTable extends CassandraTableImpl<DemoTable, DemoModel> {
     public static final String EXTRA_COLUMN = "extraColumn";
 
     private PreparedStatement psInsert;
+    private PreparedStatement psTimedInsert;
     private PreparedStatement psReadById;
 
     public DemoTable(MultiRingClientManager multiRingClientManager) throws AssertException {
         super(multiRingClientManager);
 
         psInsert = prepareInsertStatement(ConsistencyLevel.LOCAL_QUORUM);
+        psTimedInsert = prepareTimedInsertStatement(ConsistencyLevel.LOCAL_QUORUM);
 
         psReadById = prepareStatement(QueryBuilder.select(JSON_COLUMN).from(getTableName())
                 .where(QueryBuilder.eq(ID_COLUMN, QueryBuilder.bindMarker())).limit(1), 
@@ -68,13 +76,37 @@ public class DemoTable extends CassandraTableImpl<DemoTable, DemoModel> {
 
     public Command insert(DemoModel value) throws AssertException, ReflectionPathException, SerializingException {
         Map<String, Object> fields = getFields(value);
-        CassandraCommand result = CassandraCommand.builder(getSession())
-                .setStatement(psInsert.bind(fields.values().toArray())).build();
+        CassandraCommand result = commandBuilder(psInsert.bind(fields.values().toArray())).build();
         return result;
     }
 
+    public Command insert(DemoModel value, TimeUnit timeUnit, Integer ttlDuration, Long timestampMicros)
+            throws AssertException, ReflectionPathException, SerializingException {
+        return commandBuilder(bindTimedInsert(psTimedInsert, getFields(value), timeUnit, ttlDuration, timestampMicros))
+                .build();
+    }
+
+    public Command update(DemoModel value, List<String> forcedFields)
+            throws AssertException, ReflectionPathException, SerializingException {
+        return updateCommand(value, forcedFields);
+    }
+
+    public Command updateAll(Collection<DemoModel> values, List<String> forcedFields)
+            throws AssertException, ReflectionPathException, SerializingException {
+        return batchUpdateCommand(values, forcedFields);
+    }
+
+    public ListenableFuture<ResultSet> updateAsync(AsyncWritePipeline pipeline, DemoModel value)
+            throws AssertException, ReflectionPathException, SerializingException, CassandraException {
+        return updateAsync(pipeline, value, null);
+    }
+
     public DemoModel read(Long id) throws CassandraException, AssertException {
         return readIterable(psReadById.bind(id)).iterator().next();
     }
 
+    public DemoModel readFirst(Long id) throws CassandraException, AssertException {
+        return readFirst(psReadById.bind(id));
+    }
+
 }
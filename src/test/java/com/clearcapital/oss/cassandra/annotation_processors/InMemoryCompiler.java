@@ -0,0 +1,76 @@
+package com.clearcapital.oss.cassandra.annotation_processors;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.processing.Processor;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.junit.Assume;
+
+/**
+ * Compiles sources held in memory with one annotation processor, for testing processors. Skips the calling test if
+ * there's no system compiler (i.e. when running on a JRE).
+ */
+class InMemoryCompiler {
+
+    private final List<JavaFileObject> sources = new ArrayList<>();
+    private final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+    /**
+     * @param name
+     *            the source's path, without ".java", e.g. "codec/Model".
+     */
+    InMemoryCompiler addSource(String name, String content) {
+        sources.add(new Source(name, content));
+        return this;
+    }
+
+    /**
+     * Compile to {@code output}, which receives generated sources and resources too. A null {@code processor} runs
+     * none.
+     */
+    boolean compile(File output, Processor processor) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assume.assumeNotNull(compiler);
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singleton(output));
+            fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singleton(output));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-classpath", System.getProperty("java.class.path")), null, sources);
+            task.setProcessors(processor == null ? Collections.<Processor> emptyList()
+                    : Collections.singletonList(processor));
+            return task.call();
+        }
+    }
+
+    DiagnosticCollector<JavaFileObject> getDiagnostics() {
+        return diagnostics;
+    }
+
+    private static class Source extends SimpleJavaFileObject {
+
+        private final String content;
+
+        Source(String name, String content) {
+            super(URI.create("string:///" + name + Kind.SOURCE.extension), Kind.SOURCE);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+
+}
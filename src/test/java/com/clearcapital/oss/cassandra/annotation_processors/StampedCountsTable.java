@@ -0,0 +1,58 @@
+package com.clearcapital.oss.cassandra.annotation_processors;
+
+import java.util.Map;
+
+import com.clearcapital.oss.cassandra.CassandraTableImpl;
+import com.clearcapital.oss.cassandra.ColumnDefinition.ColumnOption;
+import com.clearcapital.oss.cassandra.annotations.CassandraDataType;
+import com.clearcapital.oss.cassandra.annotations.CassandraTable;
+import com.clearcapital.oss.cassandra.annotations.Column;
+import com.clearcapital.oss.cassandra.annotations.ManualColumnInfo;
+import com.clearcapital.oss.cassandra.annotations.ReflectionColumnInfo;
+import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
+import com.clearcapital.oss.commands.Command;
+import com.clearcapital.oss.java.exceptions.AssertException;
+import com.clearcapital.oss.java.exceptions.ReflectionPathException;
+import com.clearcapital.oss.java.exceptions.SerializingException;
+
+/**
+ * A table which writes a manual column by overriding {@link #getFields(Object)}.
+ */
+@CassandraTable( // @formatter:off
+        multiRingGroup = "groupA", 
+        tableName = "testStampedCounts", 
+        modelClass = CountsModel.class, 
+        columns = { 
+                @Column(cassandraName = StampedCountsTable.ID_COLUMN, 
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { StampedCountsTable.ID_COLUMN }, 
+                        dataType = CassandraDataType.BIGINT, 
+                        columnOption = ColumnOption.PARTITION_KEY)),
+                @Column(cassandraName = StampedCountsTable.TOTAL_COLUMN, 
+                        reflectionColumnInfo = @ReflectionColumnInfo(javaPath = { StampedCountsTable.TOTAL_COLUMN }, 
+                        dataType = CassandraDataType.BIGINT)),
+                @Column(cassandraName = StampedCountsTable.STAMP_COLUMN, 
+                        manualColumnInfo = @ManualColumnInfo(dataType = CassandraDataType.TEXT)) }) // @formatter:on
+public class StampedCountsTable extends CassandraTableImpl<StampedCountsTable, CountsModel> {
+
+    public static final String ID_COLUMN = "id";
+    public static final String TOTAL_COLUMN = "total";
+    public static final String STAMP_COLUMN = "stamp";
+    public static final String STAMP = "stamped";
+
+    public StampedCountsTable(MultiRingClientManager multiRingClientManager) throws AssertException {
+        super(multiRingClientManager);
+    }
+
+    @Override
+    protected Map<String, Object> getFields(Object object)
+            throws AssertException, ReflectionPathException, SerializingException {
+        Map<String, Object> result = super.getFields(object);
+        result.put(STAMP_COLUMN, STAMP);
+        return result;
+    }
+
+    public Command update(CountsModel value) throws AssertException, ReflectionPathException, SerializingException {
+        return updateCommand(value, null);
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.clearcapital.oss.cassandra.annotation_processors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.clearcapital.oss.cassandra.TableCodec;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+public class TableCodecProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String MODEL = "package codec;\n" //
+            + "public class Model {\n" //
+            + "    public Long id;\n" //
+            + "    String name;\n" //
+            + "    public java.util.Set<String> tags;\n" //
+            + "    public int count;\n" //
+            + "    public Inner inner;\n" //
+            + "    public static class Inner { public String value; }\n" //
+            + "}\n";
+
+    private static String table(String... valuePath) {
+        return "package codec;\n" //
+                + "import com.clearcapital.oss.cassandra.ColumnDefinition.ColumnOption;\n"
+                + "import com.clearcapital.oss.cassandra.annotations.*;\n" //
+                + "@CassandraTable(tableName = \"things\", modelClass = Model.class, columns = {\n"
+                + column("id", "dataType = CassandraDataType.BIGINT, columnOption = ColumnOption.PARTITION_KEY, ",
+                        "id") //
+                + column("name", "", "name") //
+                + column("tagSet", "dataType = CassandraDataType.SET_TEXT, ", "tags") //
+                + column("count", "dataType = CassandraDataType.INT, ", "count") //
+                + column("value", "", valuePath) //
+                + "})\n" //
+                + "public class Things {}\n";
+    }
+
+    private static String column(String name, String options, String... javaPath) {
+        StringBuilder path = new StringBuilder();
+        for (String segment : javaPath) {
+            path.append(path.length() == 0 ? "\"" : ", \"").append(segment).append('"');
+        }
+        return "@Column(cassandraName = \"" + name + "\", reflectionColumnInfo = @ReflectionColumnInfo(" + options
+                + "javaPath = {" + path + "})),\n";
+    }
+
+    private static InMemoryCompiler compiler(String table) {
+        return new InMemoryCompiler().addSource("codec/Model", MODEL).addSource("codec/Things", table);
+    }
+
+    @Test
+    public void testGeneratedCodec() throws Exception {
+        File output = folder.newFolder();
+        InMemoryCompiler compiler = compiler(table("inner", "value"));
+        assertTrue(compiler.getDiagnostics().getDiagnostics().toString(),
+                compiler.compile(output, new TableCodecProcessor()));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { output.toURI().toURL() },
+                getClass().getClassLoader())) {
+            Class<?> codecClass = loader.loadClass("codec.ThingsCodec");
+            assertEquals("things", codecClass.getField("TABLE_NAME").get(null));
+            assertEquals("tagSet", codecClass.getField("TAG_SET_COLUMN").get(null));
+            assertEquals("INSERT INTO things (id,name,tagSet,count,value) VALUES (?,?,?,?,?);",
+                    codecClass.getField("INSERT_CQL").get(null));
+            assertEquals("SELECT id,name,tagSet,count,value FROM things WHERE id=?;",
+                    codecClass.getField("SELECT_BY_PRIMARY_KEY_CQL").get(null));
+            assertNotNull(codecClass.getMethod("bindPrimaryKey", com.datastax.driver.core.PreparedStatement.class,
+                    Long.class));
+
+            @SuppressWarnings("unchecked")
+            TableCodec<Object> codec = (TableCodec<Object>) codecClass.newInstance();
+            // The nested path is left to reflection.
+            assertEquals(ImmutableList.of("id", "name", "tagSet", "count"), codec.getColumnNames());
+
+            Object model = codec.newModel();
+            codec.setValue(0, model, 42L);
+            codec.setValue(1, model, "forty-two");
+            codec.setValue(2, model, ImmutableSet.of("a"));
+            codec.setValue(3, model, 7);
+            assertEquals(42L, codec.getValue(0, model));
+            assertEquals("forty-two", codec.getValue(1, model));
+            assertEquals(ImmutableSet.of("a"), codec.getValue(2, model));
+            assertEquals(7, codec.getValue(3, model));
+        }
+    }
+
+    @Test
+    public void testModelWithoutConstructor() throws Exception {
+        File output = folder.newFolder();
+        InMemoryCompiler compiler = new InMemoryCompiler()
+                .addSource("codec/Model", MODEL.replace("{\n", "{\n    private Model() {}\n"))
+                .addSource("codec/Things", table("inner", "value"));
+        assertTrue(compiler.getDiagnostics().getDiagnostics().toString(),
+                compiler.compile(output, new TableCodecProcessor()));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { output.toURI().toURL() },
+                getClass().getClassLoader())) {
+            // Rows can't be decoded without creating models, so only the constants are generated.
+            Class<?> codecClass = loader.loadClass("codec.ThingsCodec");
+            assertEquals("things", codecClass.getField("TABLE_NAME").get(null));
+            assertFalse(TableCodec.class.isAssignableFrom(codecClass));
+        }
+    }
+
+    @Test
+    public void testBadJavaPath() throws Exception {
+        InMemoryCompiler compiler = compiler(table("inner", "valeu"));
+        assertFalse(compiler.compile(folder.newFolder(), new TableCodecProcessor()));
+
+        boolean reported = false;
+        for (Diagnostic<? extends JavaFileObject> diagnostic : compiler.getDiagnostics().getDiagnostics()) {
+            reported |= diagnostic.getKind() == Diagnostic.Kind.ERROR
+                    && diagnostic.getMessage(null).contains("'valeu', which is not a field of codec.Model.Inner");
+        }
+        assertTrue(compiler.getDiagnostics().getDiagnostics().toString(), reported);
+    }
+
+}
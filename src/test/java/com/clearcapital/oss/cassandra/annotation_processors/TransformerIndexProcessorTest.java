@@ -0,0 +1,108 @@
+package com.clearcapital.oss.cassandra.annotation_processors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableSet;
+
+public class TransformerIndexProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testIndex() throws Exception {
+        File output = folder.newFolder();
+        InMemoryCompiler compiler = new InMemoryCompiler() //
+                .addSource("one/First", "package one;\n" //
+                        + "@com.clearcapital.oss.cassandra.annotations.Transformer\n" //
+                        + "public class First {\n" //
+                        + "    @com.clearcapital.oss.cassandra.annotations.Transformer\n" //
+                        + "    public static class Nested {}\n" //
+                        + "}\n")
+                .addSource("two/Second", "package two;\n" //
+                        + "@com.clearcapital.oss.cassandra.annotations.Transformer\n" //
+                        + "public class Second {}\n")
+                .addSource("two/NotATransformer", "package two;\n" //
+                        + "public class NotATransformer {}\n");
+        assertTrue(compiler.getDiagnostics().getDiagnostics().toString(),
+                compiler.compile(output, new TransformerIndexProcessor()));
+
+        assertEquals(Arrays.asList("one.First", "one.First$Nested", "two.Second"),
+                Files.readAllLines(new File(output, TransformerProcessor.INDEX_RESOURCE).toPath(),
+                        StandardCharsets.UTF_8));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { output.toURI().toURL() },
+                getClass().getClassLoader())) {
+            Set<Class<?>> all = TransformerProcessor.getIndexedTransformers(loader, Collections.singleton("/"));
+            assertEquals(ImmutableSet.of("one.First", "one.First$Nested", "two.Second"), names(all));
+
+            Set<Class<?>> two = TransformerProcessor.getIndexedTransformers(loader, Collections.singleton("two"));
+            assertEquals(ImmutableSet.of("two.Second"), names(two));
+        }
+    }
+
+    @Test
+    public void testNoIndex() throws Exception {
+        try (URLClassLoader loader = new URLClassLoader(new URL[0], null)) {
+            assertNull(TransformerProcessor.getIndexedTransformers(loader, Collections.singleton("/")));
+        }
+    }
+
+    @Test
+    public void testUnindexedLocationsAreScannedOnRequest() throws Exception {
+        File indexed = folder.newFolder();
+        assertTrue(new InMemoryCompiler().addSource("one/First", "package one;\n" //
+                + "@com.clearcapital.oss.cassandra.annotations.Transformer\n" //
+                + "public class First {}\n").compile(indexed, new TransformerIndexProcessor()));
+        File unindexed = folder.newFolder();
+        assertTrue(new InMemoryCompiler().addSource("three/Third", "package three;\n" //
+                + "@com.clearcapital.oss.cassandra.annotations.Transformer\n" //
+                + "public class Third {}\n").compile(unindexed, null));
+
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(
+                new URL[] { indexed.toURI().toURL(), unindexed.toURI().toURL() }, getClass().getClassLoader())) {
+            Thread.currentThread().setContextClassLoader(loader);
+            // The index is trusted by default...
+            assertEquals(ImmutableSet.of("one.First"),
+                    names(TransformerProcessor.getTransformers(Arrays.asList("one", "three"))));
+            // ...and locations without one are only scanned on request.
+            assertEquals(ImmutableSet.of("one.First", "three.Third"),
+                    names(TransformerProcessor.getTransformers(Arrays.asList("one", "three"), true)));
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    @Test
+    public void testGetRoot() throws Exception {
+        assertEquals("file:/lib/app.jar",
+                TransformerProcessor.getRoot(new URL("jar:file:/lib/app.jar!/" + TransformerProcessor.INDEX_RESOURCE)));
+        assertEquals("file:/app/classes/",
+                TransformerProcessor.getRoot(new URL("file:/app/classes/" + TransformerProcessor.INDEX_RESOURCE)));
+    }
+
+    private static Set<String> names(Set<Class<?>> classes) {
+        ImmutableSet.Builder<String> result = ImmutableSet.<String> builder();
+        for (Class<?> clazz : classes) {
+            result.add(clazz.getName());
+        }
+        return result.build();
+    }
+
+}
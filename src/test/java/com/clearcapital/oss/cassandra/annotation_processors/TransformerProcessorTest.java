@@ -0,0 +1,149 @@
+package com.clearcapital.oss.cassandra.annotation_processors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.clearcapital.oss.cassandra.configuration.WithMultiRingConfiguration;
+import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.cassandra.iterate.FileCheckpointStore;
+import com.clearcapital.oss.cassandra.iterate.RecordTransformer;
+import com.clearcapital.oss.cassandra.iterate.WalkerCheckpoint;
+import com.clearcapital.oss.cassandra.multiring.MultiRingClientManager;
+
+public class TransformerProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testToWalkerBounds() {
+        assertBounds(TransformerProcessor.toWalkerBounds(-10L, 10L), -9L, 10L);
+
+        // Wraps around the end of the ring.
+        assertBounds(TransformerProcessor.toWalkerBounds(100L, -100L), 101L, Long.MAX_VALUE, Long.MIN_VALUE, -100L);
+
+        // The minimum token as an end stands for the end of the ring.
+        assertBounds(TransformerProcessor.toWalkerBounds(5L, Long.MIN_VALUE), 6L, Long.MAX_VALUE);
+
+        // Nothing follows the maximum token; adding one to it must not overflow.
+        assertBounds(TransformerProcessor.toWalkerBounds(Long.MAX_VALUE, 7L), Long.MIN_VALUE, 7L);
+        assertBounds(TransformerProcessor.toWalkerBounds(Long.MAX_VALUE, Long.MIN_VALUE));
+
+        // A single token range covers the whole ring.
+        assertBounds(TransformerProcessor.toWalkerBounds(3L, 3L), 4L, Long.MAX_VALUE, Long.MIN_VALUE, 3L);
+    }
+
+    @Test
+    public void testTransformRanges() throws Exception {
+        List<long[]> ranges = new ArrayList<>();
+        for (long start = 0; start < 100; start += 10) {
+            ranges.add(new long[] { start, start + 9 });
+        }
+        TestTransformer transformer = new TestTransformer(25L);
+
+        TransformerProcessor.Builder builder = TransformerProcessor.builder().setVnodeStart(2)
+                .setVnodeRetryDelayMillis(0);
+        assertEquals(8, builder.transformRanges(transformer, ranges));
+        // The flaky range was retried, and by default ranges are transformed one at a time.
+        assertEquals(8, transformer.starts.size());
+        assertTrue(transformer.starts.contains(20L));
+        assertEquals(1, transformer.maxConcurrency.get());
+
+        transformer = new TestTransformer(25L);
+        builder.setThreadCount(4);
+        assertEquals(8, builder.transformRanges(transformer, ranges));
+        assertTrue(transformer.maxConcurrency.get() <= 4);
+
+        transformer = new TestTransformer(25L);
+        builder.setVnodeMaxAttempts(1);
+        try {
+            builder.transformRanges(transformer, ranges);
+            fail("expected the flaky range to fail the run");
+        } catch (CassandraException e) {
+            // The other ranges were still transformed.
+            assertEquals(7, transformer.starts.size());
+        }
+    }
+
+    @Test
+    public void testClearCheckpointsAfterRun() throws Exception {
+        FileCheckpointStore store = FileCheckpointStore.builder().setDirectory(folder.getRoot().toPath()).build();
+        TestTransformer transformer = new TestTransformer(0L);
+        WalkerCheckpoint completed = WalkerCheckpoint.builder().setStartToken(-10L).setEndToken(10L)
+                .setLastToken(10L).setQueryStartToken(-10L).setCompleted(true).build();
+
+        // A run over part of the ring keeps its checkpoints.
+        store.save(transformer.getWalkName(), completed);
+        TransformerProcessor.builder().setCheckpointStore(store).setVnodeHost("127.0.0.1")
+                .clearCheckpointsAfterRun(transformer);
+        assertEquals(completed, store.load(transformer.getWalkName(), -10L, 10L));
+
+        // A run over the whole ring clears them, so that the next run doesn't skip every range.
+        TransformerProcessor.builder().setCheckpointStore(store).clearCheckpointsAfterRun(transformer);
+        assertNull(store.load(transformer.getWalkName(), -10L, 10L));
+    }
+
+    private static void assertBounds(List<long[]> actual, long... expected) {
+        assertEquals(expected.length / 2, actual.size());
+        for (int index = 0; index < actual.size(); ++index) {
+            assertArrayEquals(new long[] { expected[2 * index], expected[2 * index + 1] }, actual.get(index));
+        }
+    }
+
+    /**
+     * Counts one record per range, and fails the first attempt at the range containing {@code flakyToken}.
+     */
+    private static class TestTransformer implements RecordTransformer {
+
+        final Set<Long> starts = ConcurrentHashMap.newKeySet();
+        final AtomicInteger concurrency = new AtomicInteger();
+        final AtomicInteger maxConcurrency = new AtomicInteger();
+        private final long flakyToken;
+        private boolean failed;
+
+        TestTransformer(long flakyToken) {
+            this.flakyToken = flakyToken;
+        }
+
+        @Override
+        public Long transformRecords(Long startToken, Long endToken) throws Exception {
+            int current = concurrency.incrementAndGet();
+            maxConcurrency.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(5);
+                synchronized (this) {
+                    if (startToken <= flakyToken && flakyToken <= endToken && !failed) {
+                        failed = true;
+                        throw new IllegalStateException("flaky");
+                    }
+                }
+                starts.add(startToken);
+                return 1L;
+            } finally {
+                concurrency.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void setConfiguration(WithMultiRingConfiguration configuration) {
+        }
+
+        @Override
+        public void setMultiRingClientManager(MultiRingClientManager clientManager) {
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.clearcapital.oss.cassandra.iterate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileCheckpointStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSaveLoadClear() throws Exception {
+        FileCheckpointStore store = FileCheckpointStore.builder().setDirectory(folder.getRoot().toPath()).build();
+        assertNull(store.load("com.example.Walk", -10L, 10L));
+
+        WalkerCheckpoint checkpoint = WalkerCheckpoint.builder().setStartToken(-10L).setEndToken(10L)
+                .setLastToken(3L).setQueryStartToken(-10L).setPagingState("0011aabb").build();
+        store.save("com.example.Walk", checkpoint);
+        assertEquals(checkpoint, store.load("com.example.Walk", -10L, 10L));
+        assertNull(store.load("com.example.Walk", -10L, 11L));
+
+        WalkerCheckpoint completed = WalkerCheckpoint.builder().setStartToken(-10L).setEndToken(10L)
+                .setLastToken(9L).setQueryStartToken(-10L).setCompleted(true).build();
+        store.save("com.example.Walk", completed);
+        assertEquals(completed, store.load("com.example.Walk", -10L, 10L));
+
+        store.clear("com.example.Walk");
+        assertNull(store.load("com.example.Walk", -10L, 10L));
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.clearcapital.oss.cassandra.iterate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import com.clearcapital.oss.cassandra.annotation_processors.CassandraTableProcessor;
+import com.clearcapital.oss.cassandra.annotation_processors.DemoModel;
+import com.clearcapital.oss.cassandra.annotation_processors.DemoTable;
+import com.clearcapital.oss.cassandra.exceptions.CassandraDeserializationException;
+import com.clearcapital.oss.cassandra.exceptions.CassandraException;
+import com.clearcapital.oss.cassandra.iterate.ParallelTableWalker.WalkIterator;
+import com.clearcapital.oss.cassandra.test_support.CassandraTestResource;
+import com.clearcapital.oss.executors.ImmediateCommandExecutor;
+
+public class ParallelTableWalkerTest {
+
+    @ClassRule
+    public static CassandraTestResource cassandraResource = new CassandraTestResource(Arrays.asList("cassandra.yaml"));
+
+    private static final int ROW_COUNT = 50;
+
+    private DemoTable demoTable;
+
+    @Before
+    public void beforeTest() throws Exception {
+        CassandraTableProcessor.dropTableIfExists(cassandraResource.multiRingClientManager, DemoTable.class);
+        CassandraTableProcessor.tableBuilder(new ImmediateCommandExecutor(), cassandraResource.multiRingClientManager,
+                DemoTable.class).build();
+        demoTable = new DemoTable(cassandraResource.multiRingClientManager);
+        for (long id = 0; id < ROW_COUNT; ++id) {
+            demoTable.insert(DemoModel.builder().setId(id).setUpdateId(1L).build()).execute();
+        }
+    }
+
+    @Test
+    public void testSplit() throws Exception {
+        List<CassandraTableWalker<DemoModel>> ranges = demoTable.getWalker().build().split(4);
+
+        assertEquals(4, ranges.size());
+        assertEquals(Long.MIN_VALUE, (long) ranges.get(0).getStartToken());
+        assertEquals(Long.MAX_VALUE, (long) ranges.get(3).getEndToken());
+        for (int index = 1; index < ranges.size(); ++index) {
+            assertEquals(ranges.get(index - 1).getEndToken() + 1, (long) ranges.get(index).getStartToken());
+        }
+    }
+
+    @Test
+    public void testMergedIterator() throws Exception {
+        ParallelTableWalker<DemoModel> walker = ParallelTableWalker.<DemoModel> builder()
+                .setWalker(demoTable.getWalker().build()).setSplitCount(8).setThreadCount(3).setQueueCapacity(4)
+                .build();
+
+        Set<Long> ids = new HashSet<>();
+        for (DemoModel model : walker) {
+            assertTrue("duplicate " + model.id, ids.add(model.id));
+        }
+        assertEquals(ROW_COUNT, ids.size());
+        assertEquals(100.0, walker.getProgress(), 0.001);
+    }
+
+    @Test
+    public void testForEachRange() throws Exception {
+        ParallelTableWalker<DemoModel> walker = ParallelTableWalker.<DemoModel> builder()
+                .setWalker(demoTable.getWalker().build()).setSplitCount(8).setThreadCount(3).build();
+
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        walker.forEachRange(range -> {
+            for (DemoModel model : range) {
+                ids.add(model.id);
+            }
+        });
+        assertEquals(ROW_COUNT, ids.size());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        ParallelTableWalker<DemoModel> walker = ParallelTableWalker.<DemoModel> builder()
+                .setWalker(demoTable.getWalker(row -> {
+                    DemoModel model = demoTable.deserializeRow(row);
+                    if (model.id == 7L) {
+                        throw new CassandraDeserializationException("bad row");
+                    }
+                    return model;
+                }).build()).setSplitCount(8).setThreadCount(3).build();
+
+        try {
+            for (DemoModel model : walker) {
+                model.hashCode();
+            }
+            fail("expected the bad row to fail the walk");
+        } catch (IllegalStateException e) {
+            assertEquals("bad row", rootCause(e).getMessage());
+        }
+
+        try {
+            walker.forEachRange(range -> {
+                for (DemoModel model : range) {
+                    model.hashCode();
+                }
+            });
+            fail("expected the bad row to fail the walk");
+        } catch (CassandraException e) {
+            assertEquals("bad row", rootCause(e).getMessage());
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ParallelTableWalker<DemoModel> walker = ParallelTableWalker.<DemoModel> builder()
+                .setWalker(demoTable.getWalker().setFetchSize(5).build()).setSplitCount(4).setQueueCapacity(1)
+                .setExecutor(executor).build();
+
+        try (WalkIterator<DemoModel> models = walker.iterator()) {
+            assertTrue(models.hasNext());
+            models.next();
+        }
+
+        // The workers, blocked on the full queue, give up and free the caller's threads.
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static Throwable rootCause(Throwable t) {
+        while (t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+}
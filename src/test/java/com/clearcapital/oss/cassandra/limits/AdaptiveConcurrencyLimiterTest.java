@@ -0,0 +1,100 @@
+package com.clearcapital.oss.cassandra.limits;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.WriteType;
+import com.datastax.driver.core.exceptions.InvalidQueryException;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testQueueing() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder().setInitialLimit(2).build();
+
+        assertTrue(limiter.acquire().isDone());
+        assertTrue(limiter.acquire().isDone());
+        ListenableFuture<Void> third = limiter.acquire();
+        ListenableFuture<Void> fourth = limiter.acquire();
+        assertFalse(third.isDone());
+        assertEquals(2, limiter.getQueued());
+
+        fourth.cancel(false);
+        limiter.onIgnored();
+        assertTrue(third.isDone());
+        limiter.onIgnored();
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    public void testAdditiveIncrease() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder().setInitialLimit(4).build();
+
+        for (int i = 0; i < 100; ++i) {
+            List<ListenableFuture<Void>> permits = new ArrayList<>();
+            for (int j = 0; j < limiter.getLimit(); ++j) {
+                permits.add(limiter.acquire());
+            }
+            for (int j = 0; j < permits.size(); ++j) {
+                limiter.onSuccess(MILLIS);
+            }
+        }
+        assertTrue(limiter.getLimit() > 4);
+    }
+
+    @Test
+    public void testIdleLimiterDoesNotGrow() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder().setInitialLimit(10).build();
+
+        for (int i = 0; i < 1000; ++i) {
+            limiter.acquire();
+            limiter.onSuccess(MILLIS);
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void testMultiplicativeDecrease() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder().setInitialLimit(100)
+                .setBackoffRatio(0.5).build();
+
+        limiter.acquire();
+        limiter.onFailure(new InvalidQueryException("bad"));
+        assertEquals(100, limiter.getLimit());
+
+        limiter.acquire();
+        limiter.onFailure(new WriteTimeoutException(ConsistencyLevel.QUORUM, WriteType.SIMPLE, 1, 2));
+        assertEquals(50, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testLatencyIncrease() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder().setInitialLimit(100)
+                .setBackoffRatio(0.5).setWindowSize(10).build();
+
+        for (int i = 0; i < 10; ++i) {
+            limiter.acquire();
+            limiter.onSuccess(MILLIS);
+        }
+        assertEquals(100, limiter.getLimit());
+
+        limiter.acquire();
+        limiter.onSuccess(10 * MILLIS);
+        assertEquals(50, limiter.getLimit());
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.clearcapital.oss.cassandra.limits;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ScanThrottleTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testRowRate() throws Exception {
+        ScanThrottle throttle = ScanThrottle.builder().setMaxRowsPerSecond(100).build();
+
+        long start = System.nanoTime();
+        for (int index = 0; index < 31; ++index) {
+            throttle.acquireRows(1);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / MILLIS;
+        assertTrue("elapsed " + elapsedMillis, elapsedMillis >= 250);
+    }
+
+    @Test
+    public void testLatencyFeedback() throws Exception {
+        ScanThrottle throttle = ScanThrottle.builder().setTargetLatencyMillis(50).setBackoffRatio(0.5)
+                .setMinDutyCycle(0.25).setSmoothing(1.0).build();
+
+        throttle.onPageFetched(10 * MILLIS);
+        assertEquals(1.0, throttle.getDutyCycle(), 0.0);
+        assertEquals(0, throttle.getPauseNanos());
+
+        throttle.onPageFetched(100 * MILLIS);
+        assertEquals(0.5, throttle.getDutyCycle(), 0.0);
+        assertEquals(100 * MILLIS, throttle.getPauseNanos());
+
+        throttle.onPageFetched(100 * MILLIS);
+        throttle.onPageFetched(100 * MILLIS);
+        assertEquals(0.25, throttle.getDutyCycle(), 0.0);
+        assertEquals(300 * MILLIS, throttle.getPauseNanos());
+
+        throttle.onPageFetched(10 * MILLIS);
+        assertEquals(0.3, throttle.getDutyCycle(), 1e-9);
+    }
+
+    @Test
+    public void testNoFeedbackWithoutTarget() throws Exception {
+        ScanThrottle throttle = ScanThrottle.builder().build();
+
+        throttle.onPageFetched(1000 * MILLIS);
+        assertEquals(1.0, throttle.getDutyCycle(), 0.0);
+        assertEquals(-1, throttle.getSmoothedLatencyMillis(), 0.0);
+        assertEquals(0, throttle.getPauseNanos());
+    }
+
+}
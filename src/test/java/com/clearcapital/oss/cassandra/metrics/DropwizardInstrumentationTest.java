@@ -0,0 +1,47 @@
+package com.clearcapital.oss.cassandra.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.InvalidQueryException;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+
+public class DropwizardInstrumentationTest {
+
+    @Test
+    public void testStatementKind() {
+        assertEquals(StatementKind.SELECT, StatementKind.of(QueryBuilder.select().from("demo")));
+        assertEquals(StatementKind.SELECT,
+                StatementKind.of(QueryBuilder.select().from("demo").where(QueryBuilder.eq("id", 1))));
+        assertEquals(StatementKind.INSERT, StatementKind.of(QueryBuilder.insertInto("demo").value("id", 1)));
+        assertEquals(StatementKind.DELETE, StatementKind.of(new SimpleStatement("  delete from demo where id=1")));
+        assertEquals(StatementKind.BATCH, StatementKind.of(new SimpleStatement("BEGIN BATCH APPLY BATCH")));
+        assertEquals(StatementKind.OTHER, StatementKind.of(new SimpleStatement("CREATE TABLE demo (id int)")));
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        MetricRegistry registry = new MetricRegistry();
+        DropwizardInstrumentation instrumentation = DropwizardInstrumentation.builder().setRegistry(registry)
+                .setPrefix("test").build();
+
+        Statement select = QueryBuilder.select().from("demo");
+        instrumentation.onSuccess(select, "demo", TimeUnit.MILLISECONDS.toNanos(3));
+        instrumentation.onSuccess(select, "demo", TimeUnit.MILLISECONDS.toNanos(5));
+        instrumentation.onRetry(select, "demo", new RuntimeException(), 1);
+        instrumentation.onFailure(select, "demo", new InvalidQueryException("bad"), 0);
+        instrumentation.onSuccess(new SimpleStatement("INSERT INTO other (id) VALUES (1)"), null, 1);
+
+        assertEquals(2, registry.timer("test.demo.select.requests").getCount());
+        assertEquals(1, registry.meter("test.demo.select.retries").getCount());
+        assertEquals(1, registry.meter("test.demo.select.errors.InvalidQueryException").getCount());
+        assertEquals(1, registry.timer("test.unknown.insert.requests").getCount());
+    }
+
+}
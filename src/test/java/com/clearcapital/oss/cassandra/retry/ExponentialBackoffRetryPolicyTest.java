@@ -0,0 +1,68 @@
+package com.clearcapital.oss.cassandra.retry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.WriteType;
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+
+public class ExponentialBackoffRetryPolicyTest {
+
+    private static final Throwable TIMEOUT = new WriteTimeoutException(ConsistencyLevel.QUORUM, WriteType.SIMPLE, 1, 2);
+    private static final Throwable NO_HOST = new NoHostAvailableException(
+            Collections.<InetSocketAddress, Throwable> emptyMap());
+
+    @Test
+    public void testBackoff() throws Exception {
+        ExponentialBackoffRetryPolicy policy = ExponentialBackoffRetryPolicy.builder().setBaseDelayMillis(100)
+                .setMaxDelayMillis(1000).setJitter(0.0).build();
+        Statement statement = new SimpleStatement("SELECT * FROM demo");
+
+        assertEquals(100, policy.getRetryDelayMillis(statement, TIMEOUT, 1, 0));
+        assertEquals(200, policy.getRetryDelayMillis(statement, TIMEOUT, 2, 0));
+        assertEquals(800, policy.getRetryDelayMillis(statement, TIMEOUT, 4, 0));
+        assertEquals(1000, policy.getRetryDelayMillis(statement, TIMEOUT, 5, 0));
+        assertEquals(1000, policy.getRetryDelayMillis(statement, TIMEOUT, 100, 0));
+    }
+
+    @Test
+    public void testJitter() throws Exception {
+        ExponentialBackoffRetryPolicy policy = ExponentialBackoffRetryPolicy.builder().setBaseDelayMillis(100)
+                .setJitter(0.5).build();
+        Statement statement = new SimpleStatement("SELECT * FROM demo");
+
+        for (int i = 0; i < 100; ++i) {
+            long delay = policy.getRetryDelayMillis(statement, TIMEOUT, 3, 0);
+            assertTrue(delay >= 200 && delay <= 400);
+        }
+    }
+
+    @Test
+    public void testElapsedBudget() throws Exception {
+        ExponentialBackoffRetryPolicy policy = ExponentialBackoffRetryPolicy.builder().setBaseDelayMillis(100)
+                .setJitter(0.0).setMaxElapsedMillis(1000).build();
+        Statement statement = new SimpleStatement("SELECT * FROM demo");
+
+        assertEquals(100, policy.getRetryDelayMillis(statement, TIMEOUT, 1, 900));
+        assertEquals(RetryPolicy.DO_NOT_RETRY, policy.getRetryDelayMillis(statement, TIMEOUT, 1, 901));
+    }
+
+    @Test
+    public void testNonIdempotent() throws Exception {
+        ExponentialBackoffRetryPolicy policy = ExponentialBackoffRetryPolicy.builder().setJitter(0.0).build();
+        Statement statement = new SimpleStatement("UPDATE demo SET hits = hits + 1 WHERE id = 1").setIdempotent(false);
+
+        assertEquals(RetryPolicy.DO_NOT_RETRY, policy.getRetryDelayMillis(statement, TIMEOUT, 1, 0));
+        assertEquals(500, policy.getRetryDelayMillis(statement, NO_HOST, 1, 0));
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.clearcapital.oss.cassandra.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SnapshotFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndLookup() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("table.snap");
+        List<SnapshotFile.Entry> entries = new ArrayList<>();
+        for (int key = 0; key < 300; key += 3) {
+            entries.add(new SnapshotFile.Entry(key(key), SnapshotFile.encodeValue(utf8("value" + key), null)));
+        }
+        SnapshotFile.write(file, entries, 2, 42L);
+
+        SnapshotFile snapshot = SnapshotFile.open(file);
+        assertEquals(100, snapshot.size());
+        assertEquals(2, snapshot.getColumnCount());
+        assertEquals(42L, snapshot.getSchemaFingerprint());
+        for (int key = 0; key < 300; ++key) {
+            ByteBuffer value = snapshot.get(ByteBuffer.wrap(key(key)));
+            if (key % 3 != 0) {
+                assertNull(value);
+                continue;
+            }
+            assertEquals(utf8("value" + key), SnapshotFile.getColumn(value, 0));
+            assertNull(SnapshotFile.getColumn(value, 1));
+        }
+    }
+
+    @Test
+    public void testReplace() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("table.snap");
+        List<SnapshotFile.Entry> entries = new ArrayList<>();
+        entries.add(new SnapshotFile.Entry(key(1), SnapshotFile.encodeValue(utf8("old"))));
+        SnapshotFile.write(file, entries, 1, 0L);
+        SnapshotFile old = SnapshotFile.open(file);
+
+        entries.clear();
+        entries.add(new SnapshotFile.Entry(key(1), SnapshotFile.encodeValue(utf8("new"))));
+        SnapshotFile.write(file, entries, 1, 0L);
+
+        // The old mapping stays valid.
+        assertEquals(utf8("old"), SnapshotFile.getColumn(old.get(ByteBuffer.wrap(key(1))), 0));
+        assertEquals(utf8("new"), SnapshotFile.getColumn(SnapshotFile.open(file).get(ByteBuffer.wrap(key(1))), 0));
+    }
+
+    private static byte[] key(int value) {
+        // Negative bytes, to check that keys are ordered as unsigned.
+        return ByteBuffer.allocate(4).putInt(value * 0x01010101).array();
+    }
+
+    private static ByteBuffer utf8(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.clearcapital.oss.cassandra.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.clearcapital.oss.cassandra.annotation_processors.CassandraTableProcessor;
+import com.clearcapital.oss.cassandra.annotation_processors.DemoModel;
+import com.clearcapital.oss.cassandra.annotation_processors.DemoTable;
+import com.clearcapital.oss.cassandra.test_support.CassandraTestResource;
+import com.clearcapital.oss.executors.ImmediateCommandExecutor;
+import com.datastax.driver.core.TypeCodec;
+import com.google.common.collect.ImmutableList;
+
+public class TableSnapshotTest {
+
+    @ClassRule
+    public static CassandraTestResource cassandraResource = new CassandraTestResource(Arrays.asList("cassandra.yaml"));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DemoTable demoTable;
+
+    @Before
+    public void beforeTest() throws Exception {
+        CassandraTableProcessor.dropTableIfExists(cassandraResource.multiRingClientManager, DemoTable.class);
+        CassandraTableProcessor.tableBuilder(new ImmediateCommandExecutor(), cassandraResource.multiRingClientManager,
+                DemoTable.class).build();
+        demoTable = new DemoTable(cassandraResource.multiRingClientManager);
+        demoTable.insert(DemoModel.builder().setId(1L).setUpdateId(10L).setFluidType("water").build()).execute();
+        demoTable.insert(DemoModel.builder().setId(2L).setUpdateId(20L).setFluidType("oil").build()).execute();
+    }
+
+    @Test
+    public void testRefreshAndLookup() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("demo.snap");
+        try (TableSnapshot snapshot = snapshot(file, DemoTable.FLUID_TYPE_COLUMN, DemoTable.JSON_COLUMN)) {
+            assertFalse(snapshot.isLoaded());
+            snapshot.refresh();
+
+            assertEquals(2, snapshot.size());
+            assertEquals("oil", fluidType(snapshot, snapshot.get(2L, 20L)));
+            assertEquals("water", fluidType(snapshot, snapshot.get(1L, 10L)));
+            assertNull(snapshot.get(1L, 20L));
+        }
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("demo.snap");
+        try (TableSnapshot snapshot = snapshot(file, DemoTable.FLUID_TYPE_COLUMN, DemoTable.JSON_COLUMN)) {
+            snapshot.refresh();
+        }
+
+        try (TableSnapshot snapshot = snapshot(file, DemoTable.FLUID_TYPE_COLUMN, DemoTable.JSON_COLUMN)) {
+            assertTrue(snapshot.isLoaded());
+            assertEquals("water", fluidType(snapshot, snapshot.get(1L, 10L)));
+        }
+
+        // Same number of columns, in a different order: the file would serve values under the wrong columns.
+        try (TableSnapshot snapshot = snapshot(file, DemoTable.JSON_COLUMN, DemoTable.FLUID_TYPE_COLUMN)) {
+            assertFalse(snapshot.isLoaded());
+            snapshot.refresh();
+            assertEquals("water", fluidType(snapshot, snapshot.get(1L, 10L)));
+        }
+    }
+
+    private TableSnapshot snapshot(Path file, String... valueColumnNames) throws Exception {
+        return TableSnapshot.builder().setTable(demoTable).setFile(file)
+                .setValueColumnNames(ImmutableList.copyOf(valueColumnNames)).build();
+    }
+
+    private String fluidType(TableSnapshot snapshot, ByteBuffer row) throws Exception {
+        return TypeCodec.varchar().deserialize(snapshot.getColumn(row, DemoTable.FLUID_TYPE_COLUMN),
+                demoTable.getRingClient().getProtocolVersion());
+    }
+
+}